@@ -1,11 +1,17 @@
 #!/bin/bash
 
-# Copy the CSV file to the PostgreSQL container
-echo "Copying tours.csv to the PostgreSQL container..."
-docker cp tours.csv vito-trips-postgres-1:/tmp/tours.csv
+# Copy the feed into the app container's import directory
+FEED=${1:-tours.csv}
+echo "Copying $FEED to the app container..."
+docker exec vito-trips-app-1 mkdir -p /app/imports
+docker cp "$FEED" vito-trips-app-1:/app/imports/
 
-# Execute the SQL script
-echo "Executing SQL script to load tour data..."
-docker exec -i vito-trips-postgres-1 psql -U postgres1 -d vitodb < load_tours.sql
+# Upsert the catalogue with the in-app importer (same as POST /api/v1/admin/imports/tours)
+echo "Importing tours..."
+docker exec vito-trips-app-1 java -jar app.jar \
+  --spring.main.web-application-type=none \
+  --vitotrips.webhook.workers.enabled=false \
+  --vitotrips.payments.recovery.enabled=false \
+  --import-tours="/app/imports/$(basename "$FEED")" || { echo "Tour import failed"; exit 1; }
 
-echo "Tour data loaded successfully!" 
\ No newline at end of file
+echo "Tour data loaded successfully!"
@@ -0,0 +1,29 @@
+#!/bin/bash
+
+# Writes gzip and brotli variants next to the compressible static files, for WebConfig's
+# EncodedResourceResolver to serve by Accept-Encoding instead of the original. Maven runs it on
+# target/classes/static in prepare-package, so the jar (and the Docker image's static directory)
+# ship the variants. Without the brotli command only gzip variants are written.
+#
+#   ./precompress-static.sh [directory]
+
+DIR=${1:-target/classes/static}
+# Below about a packet, compression saves nothing worth a second file
+MIN_BYTES=1024
+
+if [ ! -d "$DIR" ]; then
+    exit 0
+fi
+if ! command -v brotli > /dev/null; then
+    echo "brotli not installed, writing gzip variants only" >&2
+fi
+
+find "$DIR" -type f -size +${MIN_BYTES}c \
+        \( -name '*.js' -o -name '*.css' -o -name '*.html' -o -name '*.svg' -o -name '*.json' \
+           -o -name '*.vue' -o -name '*.map' -o -name '*.txt' \) -print0 |
+    while IFS= read -r -d '' file; do
+        gzip -9 -n -k -f "$file" || exit 1
+        if command -v brotli > /dev/null; then
+            brotli -q 11 -k -f "$file" || exit 1
+        fi
+    done
@@ -0,0 +1,27 @@
+package com.vitotrips.DTO;
+
+import com.vitotrips.model.Booking;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of a bulk booking upload. Related rows are referenced by id; a missing
+ * {@code paidAmount} or {@code paymentStatus} means a new, unpaid booking.
+ */
+public record BookingBulkRow(
+        @NotNull Long tourId,
+        @NotNull Long userId,
+        Long groupId,
+        @NotNull @DecimalMin("0.00") BigDecimal totalAmount,
+        @DecimalMin("0.00") BigDecimal paidAmount,
+        boolean installmentPlan,
+        Booking.PaymentStatus paymentStatus,
+        @NotNull LocalDateTime bookingDate,
+        @Size(max = 500) String specialInstructions,
+        @NotNull Booking.BookingType bookingType
+) {
+}
@@ -0,0 +1,26 @@
+package com.vitotrips.DTO;
+
+import com.vitotrips.model.Booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a booking row. Associations are exposed as ids only.
+ */
+public record BookingView(
+        Long id,
+        Long tourId,
+        Long userId,
+        Long groupId,
+        BigDecimal totalAmount,
+        BigDecimal paidAmount,
+        boolean installmentPlan,
+        Booking.PaymentStatus paymentStatus,
+        LocalDateTime bookingDate,
+        String specialInstructions,
+        Booking.BookingType bookingType,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
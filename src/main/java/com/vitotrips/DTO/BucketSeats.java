@@ -0,0 +1,10 @@
+package com.vitotrips.DTO;
+
+/**
+ * Seats held by the reservations of one departure bucket, used by seat inventory reconciliation.
+ */
+public record BucketSeats(
+        int bucket,
+        long seats
+) {
+}
@@ -0,0 +1,32 @@
+package com.vitotrips.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one input line of a bulk upload, streamed back in input order.
+ * {@code line} is 1-based; {@code id} is set for created rows, {@code error} otherwise.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkLineResult(
+        long line,
+        Status status,
+        Long id,
+        String error
+) {
+
+    public enum Status {
+        CREATED, INVALID, FAILED
+    }
+
+    public static BulkLineResult created(long line, Long id) {
+        return new BulkLineResult(line, Status.CREATED, id, null);
+    }
+
+    public static BulkLineResult invalid(long line, String error) {
+        return new BulkLineResult(line, Status.INVALID, null, error);
+    }
+
+    public static BulkLineResult failed(long line, String error) {
+        return new BulkLineResult(line, Status.FAILED, null, error);
+    }
+}
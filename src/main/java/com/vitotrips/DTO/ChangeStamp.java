@@ -0,0 +1,24 @@
+package com.vitotrips.DTO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * What a read response covers, reduced to HTTP validators: how many rows, the highest id and the
+ * latest modification among them (null when there are no rows).
+ */
+public record ChangeStamp(
+        Long rows,
+        Long lastId,
+        LocalDateTime lastModified
+) {
+
+    // The stamp of rows already loaded, equal to what the aggregate stamp queries return for them
+    public static <T> ChangeStamp of(Collection<T> rows, Function<T, Long> id, Function<T, LocalDateTime> lastModified) {
+        return new ChangeStamp((long) rows.size(),
+                rows.stream().map(id).filter(Objects::nonNull).max(Long::compare).orElse(null),
+                rows.stream().map(lastModified).filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(null));
+    }
+}
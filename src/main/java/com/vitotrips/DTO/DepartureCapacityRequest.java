@@ -0,0 +1,7 @@
+package com.vitotrips.DTO;
+
+/**
+ * Seats a tour departure may sell in total, bookings already made included.
+ */
+public record DepartureCapacityRequest(int capacity) {
+}
@@ -0,0 +1,24 @@
+package com.vitotrips.DTO;
+
+import com.vitotrips.model.Departure;
+
+import java.time.LocalDate;
+
+/**
+ * Seat counts of one tour departure. {@code available} is never negative, even when
+ * reconciliation found the departure overbooked.
+ */
+public record DepartureView(
+        Long tourId,
+        LocalDate departureDate,
+        int capacity,
+        int reserved,
+        int available
+) {
+
+    // reserved: the sum over the departure's buckets
+    public static DepartureView of(Departure departure, int reserved) {
+        return new DepartureView(departure.getTourId(), departure.getDepartureDate(), departure.getCapacity(),
+                reserved, Math.max(0, departure.getCapacity() - reserved));
+    }
+}
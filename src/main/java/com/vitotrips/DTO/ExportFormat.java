@@ -0,0 +1,37 @@
+package com.vitotrips.DTO;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Wire formats supported by the bulk export endpoints.
+ */
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException for anything other than {@code ndjson} or {@code csv}
+     */
+    public static ExportFormat fromParameter(String value) {
+        return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,12 @@
+package com.vitotrips.DTO;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One line of a bulk group-member upload.
+ */
+public record GroupMemberBulkRow(
+        @NotNull Long groupId,
+        @NotNull Long userId
+) {
+}
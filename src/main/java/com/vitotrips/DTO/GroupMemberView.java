@@ -0,0 +1,12 @@
+package com.vitotrips.DTO;
+
+/**
+ * Read-only view of a group membership, with the member's display name.
+ */
+public record GroupMemberView(
+        Long id,
+        Long groupId,
+        Long userId,
+        String userName
+) {
+}
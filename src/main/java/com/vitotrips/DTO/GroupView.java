@@ -0,0 +1,16 @@
+package com.vitotrips.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a group row. Leader and tour are exposed as ids only.
+ */
+public record GroupView(
+        Long id,
+        String groupName,
+        Long leaderId,
+        Long tourId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
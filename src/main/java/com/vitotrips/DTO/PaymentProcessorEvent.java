@@ -0,0 +1,39 @@
+package com.vitotrips.DTO;
+
+/**
+ * A verified payment processor notification, reduced to what the payment state machine needs.
+ */
+public record PaymentProcessorEvent(
+        String eventId,
+        Type type,
+        String paymentIntentId,
+        String failureMessage
+) {
+
+    public enum Type {
+        SUCCEEDED("payment_intent.succeeded"),
+        FAILED("payment_intent.payment_failed");
+
+        private final String stripeType;
+
+        Type(String stripeType) {
+            this.stripeType = stripeType;
+        }
+
+        public String stripeType() {
+            return stripeType;
+        }
+
+        /**
+         * Maps a Stripe event type; {@code null} for types the payment flow doesn't act on.
+         */
+        public static Type fromStripe(String stripeType) {
+            for (Type type : values()) {
+                if (type.stripeType.equals(stripeType)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.vitotrips.DTO;
+
+import com.vitotrips.model.Payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a payment row. The owning booking is exposed as its id only.
+ */
+public record PaymentView(
+        Long id,
+        Long bookingId,
+        BigDecimal amount,
+        Payment.PaymentStatus paymentStatus,
+        String processorPaymentId,
+        BigDecimal processorFee,
+        String paymentMethod,
+        LocalDateTime paymentDate,
+        LocalDateTime refundDate,
+        BigDecimal refundAmount,
+        String refundReason,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.vitotrips.DTO;
+
+/**
+ * Read-only view of a review: the tour as its id, the author as id and display name.
+ */
+public record ReviewView(
+        Long id,
+        Long tourId,
+        Long userId,
+        String userName,
+        int rating,
+        String content
+) {
+}
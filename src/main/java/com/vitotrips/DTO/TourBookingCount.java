@@ -0,0 +1,10 @@
+package com.vitotrips.DTO;
+
+/**
+ * Number of bookings made for one tour, used to rank typeahead suggestions.
+ */
+public record TourBookingCount(
+        Long tourId,
+        Long bookings
+) {
+}
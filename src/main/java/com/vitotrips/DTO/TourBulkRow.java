@@ -0,0 +1,14 @@
+package com.vitotrips.DTO;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One line of a bulk tour upload or catalogue import. Sizes match the tours columns.
+ */
+public record TourBulkRow(
+        @NotBlank @Size(max = 100) String tourName,
+        @NotBlank @Size(max = 255) String location,
+        @Size(max = 255) String description
+) {
+}
@@ -0,0 +1,19 @@
+package com.vitotrips.DTO;
+
+import java.util.List;
+
+/**
+ * Summary of one catalogue import. {@code upserted} counts rows inserted or updated; rejected rows
+ * are skipped, and the first few of them are listed in {@code errors} as "line N: reason".
+ */
+public record TourImportReport(
+        String file,
+        String format,
+        long rowsRead,
+        long upserted,
+        long rejected,
+        long elapsedMillis,
+        long rowsPerSecond,
+        List<String> errors
+) {
+}
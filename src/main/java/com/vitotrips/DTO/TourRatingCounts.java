@@ -0,0 +1,16 @@
+package com.vitotrips.DTO;
+
+/**
+ * Review totals of one tour counted from the reviews table, used to repair its {@code TourRating}.
+ */
+public record TourRatingCounts(
+        Long tourId,
+        Long reviewCount,
+        Long ratingSum,
+        Long oneStar,
+        Long twoStars,
+        Long threeStars,
+        Long fourStars,
+        Long fiveStars
+) {
+}
@@ -0,0 +1,28 @@
+package com.vitotrips.DTO;
+
+import com.vitotrips.model.TourRating;
+
+import java.util.List;
+
+/**
+ * Star rating of a tour: review count, mean rating ({@code null} without reviews) and how many
+ * reviews gave 1 to 5 stars, in that order.
+ */
+public record TourRatingSummary(
+        Long tourId,
+        long reviewCount,
+        Double averageRating,
+        List<Long> histogram
+) {
+
+    public static TourRatingSummary of(TourRating rating) {
+        return new TourRatingSummary(rating.getTourId(), rating.getReviewCount(),
+                rating.getReviewCount() == 0 ? null : (double) rating.getRatingSum() / rating.getReviewCount(),
+                List.of(rating.getOneStar(), rating.getTwoStars(), rating.getThreeStars(),
+                        rating.getFourStars(), rating.getFiveStars()));
+    }
+
+    public static TourRatingSummary none(Long tourId) {
+        return new TourRatingSummary(tourId, 0, null, List.of(0L, 0L, 0L, 0L, 0L));
+    }
+}
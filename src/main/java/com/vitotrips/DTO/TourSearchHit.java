@@ -0,0 +1,12 @@
+package com.vitotrips.DTO;
+
+/**
+ * One tour search result, served from the search index without touching the database.
+ */
+public record TourSearchHit(
+        Long id,
+        String tourName,
+        String location,
+        float score
+) {
+}
@@ -0,0 +1,13 @@
+package com.vitotrips.DTO;
+
+/**
+ * One typeahead completion: a tour name ({@code type = "tour"}, with its id) or a location
+ * ({@code type = "location"}), with the bookings it is ranked by.
+ */
+public record TourSuggestion(
+        String text,
+        String type,
+        Long tourId,
+        int bookings
+) {
+}
@@ -0,0 +1,16 @@
+package com.vitotrips.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a tour row.
+ */
+public record TourView(
+        Long id,
+        String tourName,
+        String location,
+        String description,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
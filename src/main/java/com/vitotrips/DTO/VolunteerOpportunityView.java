@@ -0,0 +1,15 @@
+package com.vitotrips.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a volunteer opportunity. The tour is exposed as its id only.
+ */
+public record VolunteerOpportunityView(
+        Long id,
+        Long tourId,
+        String description,
+        LocalDateTime startDate,
+        LocalDateTime endDate
+) {
+}
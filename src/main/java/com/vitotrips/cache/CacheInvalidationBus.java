@@ -0,0 +1,89 @@
+package com.vitotrips.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node eviction for in-process caches over a Redis pub/sub channel.
+ * <p>
+ * Local caches register an evictor per region. {@link #publish} evicts on this node immediately
+ * and broadcasts to the others; messages that originate from this node are ignored on receipt.
+ * Delivery is best effort: if Redis is unreachable the publish is logged and dropped, and the
+ * local caches' TTLs bound how long other nodes can serve the stale entry.
+ * With {@code vitotrips.cache.invalidation.enabled=false} the bus is local-only.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final String SEPARATOR = "\t";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> evictors = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final String channel;
+
+    public CacheInvalidationBus(RedisConnectionFactory connectionFactory,
+                                @Value("${vitotrips.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${vitotrips.cache.invalidation.channel:vitotrips:cache-invalidation}") String channel) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    /**
+     * Registers a local evictor for a cache region. A {@code null} key means "clear the whole region".
+     */
+    public void subscribe(String region, Consumer<String> evictor) {
+        evictors.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(evictor);
+    }
+
+    public void publish(String region, String key) {
+        evictLocally(region, key);
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + SEPARATOR + region + SEPARATOR + (key == null ? "" : key));
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast eviction of {}/{}: {}", region, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        evictLocally(parts[1], parts[2].isEmpty() ? null : parts[2]);
+    }
+
+    private void evictLocally(String region, String key) {
+        for (Consumer<String> evictor : evictors.getOrDefault(region, List.of())) {
+            try {
+                evictor.accept(key);
+            } catch (RuntimeException e) {
+                log.warn("Evictor for region {} failed: {}", region, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.vitotrips.cache;
+
+/**
+ * Names of the application caches, shared by the cache configuration and the
+ * {@code @Cacheable}/{@code @CacheEvict} sites.
+ */
+public final class CacheNames {
+
+    public static final String TOURS = "tours";
+    public static final String TOURS_BY_LOCATION = "toursByLocation";
+    public static final String USERS = "users";
+    // Holds BookingView records; renamed from "bookings" so entries cached as entities are never read back
+    public static final String BOOKINGS = "booking-views";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.vitotrips.cache;
+
+import java.time.Duration;
+
+/**
+ * Freshness of a {@link TwoTierCache} region: entries are fresh for {@code ttl} after they were
+ * loaded, then served for up to {@code staleWhileRevalidate} more while a background reload runs.
+ * Redis keeps an entry for both together, see {@link #retention()}.
+ */
+public record CachePolicy(Duration ttl, Duration staleWhileRevalidate) {
+
+    public static CachePolicy ttl(Duration ttl) {
+        return new CachePolicy(ttl, Duration.ZERO);
+    }
+
+    public Duration retention() {
+        return ttl.plus(staleWhileRevalidate);
+    }
+}
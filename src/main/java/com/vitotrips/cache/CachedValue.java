@@ -0,0 +1,17 @@
+package com.vitotrips.cache;
+
+/**
+ * What {@link TwoTierCache} stores in both tiers: the value, when it was loaded (epoch millis, so
+ * nodes agree on its age) and how long loading it took, which sizes the early-refresh window.
+ * Values written by {@code put} rather than loaded have a load time of 0.
+ */
+public record CachedValue(Object value, long loadedAt, long loadMillis) {
+
+    long expiresAt(CachePolicy policy) {
+        return loadedAt + policy.ttl().toMillis();
+    }
+
+    long servableUntil(CachePolicy policy) {
+        return loadedAt + policy.retention().toMillis();
+    }
+}
@@ -0,0 +1,396 @@
+package com.vitotrips.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache region with a process-local Caffeine L1 in front of a shared Redis L2.
+ * <p>
+ * Reads go L1 → L2 → loader, and a value found in L2 is promoted into L1. Writes and evictions go to
+ * L2 and then to every node's L1 through the {@link CacheInvalidationBus}. L1 keys are the string
+ * form of the cache key so remote evictions, which travel as strings, address the same entry.
+ * <p>
+ * With a loader ({@code @Cacheable(sync = true)}) a hot key never sends a crowd to the database:
+ * <ul>
+ *   <li>concurrent misses for the same key on one node are one load, the other callers wait for
+ *       its result (single flight, {@code vitotrips.cache.load.waiters});</li>
+ *   <li>a fresh entry is reloaded in the background shortly before its {@link CachePolicy#ttl()}
+ *       runs out, with a probability that rises as expiry nears and earlier for slow loads
+ *       (XFetch, scaled by {@code earlyRefreshBeta}, 0 turns it off);</li>
+ *   <li>an expired entry is still served for {@link CachePolicy#staleWhileRevalidate()} while a
+ *       background reload replaces it.</li>
+ * </ul>
+ * A load overlapping an eviction of its key returns its value to the callers waiting for it but
+ * does not cache it, so a read that started before a write commits can't re-cache the old row.
+ * <p>
+ * L2 is an optimisation, not a dependency: Redis errors are counted, logged and treated as misses.
+ * {@code null} values are never stored.
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final CachePolicy policy;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<String, Load> loads = new ConcurrentHashMap<>();
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteErrors;
+    private final Timer loadTimer;
+    private final DistributionSummary loadWaiters;
+    private final Counter staleHits;
+    private final Counter earlyRefreshes;
+    private final Counter staleRefreshes;
+    private final Counter droppedRefreshes;
+
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                        Cache remote,
+                        CacheInvalidationBus invalidationBus,
+                        MeterRegistry meterRegistry,
+                        CachePolicy policy,
+                        double earlyRefreshBeta,
+                        Executor refreshExecutor) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.policy = policy;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+        this.remoteHits = remoteCounter(meterRegistry, "hit");
+        this.remoteMisses = remoteCounter(meterRegistry, "miss");
+        this.remoteErrors = remoteCounter(meterRegistry, "error");
+        this.loadTimer = Timer.builder("vitotrips.cache.load")
+                .description("Time spent loading a missing entry from the source of truth")
+                .tag("cache", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.loadWaiters = DistributionSummary.builder("vitotrips.cache.load.waiters")
+                .description("Callers that waited for another caller's load of the same key instead of loading it")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.staleHits = Counter.builder("vitotrips.cache.stale.hits")
+                .description("Expired entries served while a background reload runs")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.earlyRefreshes = refreshCounter(meterRegistry, "early");
+        this.staleRefreshes = refreshCounter(meterRegistry, "stale");
+        this.droppedRefreshes = refreshCounter(meterRegistry, "dropped");
+        invalidationBus.subscribe(name, this::invalidateLocally);
+    }
+
+    private Counter remoteCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("vitotrips.cache.l2.gets")
+                .description("Redis (L2) lookups after an L1 miss")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter refreshCounter(MeterRegistry meterRegistry, String trigger) {
+        return Counter.builder("vitotrips.cache.refreshes")
+                .description("Background reloads: before expiry, of a stale entry, or dropped by a full executor")
+                .tag("cache", name)
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    // Without a loader there is nothing to revalidate with, so only fresh entries are hits
+    @Override
+    public ValueWrapper get(Object key) {
+        CachedValue entry = lookup(key, localKey(key));
+        if (entry == null || System.currentTimeMillis() >= entry.expiresAt(policy)) {
+            return null;
+        }
+        return new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        CachedValue entry = (CachedValue) local.getIfPresent(localKey);
+        if (entry == null) {
+            entry = loadOnce(key, localKey, () -> {
+                CachedValue cached = remoteGet(key);
+                return cached != null && System.currentTimeMillis() < cached.servableUntil(policy)
+                        ? cached
+                        : loadAndStore(key, valueLoader);
+            });
+        }
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now >= entry.servableUntil(policy)) {
+            entry = loadOnce(key, localKey, () -> loadAndStore(key, valueLoader));
+        } else if (now >= entry.expiresAt(policy)) {
+            staleHits.increment();
+            refreshInBackground(key, localKey, valueLoader, staleRefreshes);
+        } else if (refreshEarly(entry, now)) {
+            refreshInBackground(key, localKey, valueLoader, earlyRefreshes);
+        }
+        return entry == null ? null : (T) entry.value();
+    }
+
+    // XFetch: refresh once now - loadMillis * beta * ln(random) passes expiry
+    private boolean refreshEarly(CachedValue entry, long now) {
+        if (earlyRefreshBeta <= 0 || entry.loadMillis() <= 0) {
+            return false;
+        }
+        double gap = entry.loadMillis() * earlyRefreshBeta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= entry.expiresAt(policy);
+    }
+
+    // Callers arriving while the key loads wait for that load and share its result or exception
+    private CachedValue loadOnce(Object key, String localKey, Callable<CachedValue> source) {
+        Load load = new Load();
+        while (true) {
+            Load running = loads.putIfAbsent(localKey, load);
+            if (running == null) {
+                return run(key, localKey, load, source);
+            }
+            running.waiters.incrementAndGet();
+            CachedValue entry = running.await();
+            if (!running.dropped) {
+                return entry;
+            }
+        }
+    }
+
+    private void refreshInBackground(Object key, String localKey, Callable<?> valueLoader, Counter trigger) {
+        Load load = new Load();
+        if (loads.putIfAbsent(localKey, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    run(key, localKey, load, () -> loadAndStore(key, valueLoader));
+                } catch (RuntimeException e) {
+                    log.warn("Background reload of {}/{} failed: {}", name, key, e.getMessage());
+                }
+            });
+            trigger.increment();
+        } catch (RejectedExecutionException e) {
+            // The current entry keeps being served; a later read tries again
+            load.dropped = true;
+            loads.remove(localKey, load);
+            load.result.complete(null);
+            droppedRefreshes.increment();
+        }
+    }
+
+    private CachedValue run(Object key, String localKey, Load load, Callable<CachedValue> source) {
+        try {
+            CachedValue entry = source.call();
+            if (entry != null) {
+                local.put(localKey, entry);
+                // Checked after the put: an eviction before it is undone here, one after it removes the entry itself
+                if (load.invalidated) {
+                    local.invalidate(localKey);
+                    remoteEvict(key);
+                }
+            }
+            load.result.complete(entry);
+            return entry;
+        } catch (Exception e) {
+            load.result.completeExceptionally(e);
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+        } finally {
+            loads.remove(localKey, load);
+            loadWaiters.record(load.waiters.get());
+        }
+    }
+
+    private CachedValue loadAndStore(Object key, Callable<?> valueLoader) {
+        long startedAt = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        if (value == null) {
+            return null;
+        }
+        CachedValue entry = new CachedValue(value, System.currentTimeMillis(), (System.nanoTime() - startedAt) / 1_000_000);
+        remotePut(key, entry);
+        return entry;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        CachedValue entry = new CachedValue(value, System.currentTimeMillis(), 0);
+        remotePut(key, entry);
+        // Drop stale copies everywhere (including here), then keep the fresh value locally
+        invalidationBus.publish(name, localKey(key));
+        local.put(localKey(key), entry);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteEvict(key);
+        invalidationBus.publish(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        if (remote != null) {
+            try {
+                remote.clear();
+            } catch (RuntimeException e) {
+                remoteFailure("clear", null, e);
+            }
+        }
+        invalidationBus.publish(name, null);
+    }
+
+    // Bus callback for this region; a null key clears it
+    private void invalidateLocally(String key) {
+        if (key == null) {
+            loads.values().forEach(load -> load.invalidated = true);
+            local.invalidateAll();
+        } else {
+            Load load = loads.get(key);
+            if (load != null) {
+                load.invalidated = true;
+            }
+            local.invalidate(key);
+        }
+    }
+
+    private CachedValue lookup(Object key, String localKey) {
+        CachedValue entry = (CachedValue) local.getIfPresent(localKey);
+        if (entry == null) {
+            entry = remoteGet(key);
+            if (entry != null) {
+                local.put(localKey, entry);
+            }
+        }
+        return entry;
+    }
+
+    private CachedValue remoteGet(Object key) {
+        if (remote == null) {
+            return null;
+        }
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            (value == null ? remoteMisses : remoteHits).increment();
+            if (value == null || value instanceof CachedValue) {
+                return (CachedValue) value;
+            }
+            // Written before entries carried their load time; fresh until Redis expires it
+            return new CachedValue(value, System.currentTimeMillis(), 0);
+        } catch (RuntimeException e) {
+            remoteFailure("get", key, e);
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, CachedValue entry) {
+        if (remote == null) {
+            return;
+        }
+        try {
+            remote.put(key, entry);
+        } catch (RuntimeException e) {
+            remoteFailure("put", key, e);
+        }
+    }
+
+    private void remoteEvict(Object key) {
+        if (remote == null) {
+            return;
+        }
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            remoteFailure("evict", key, e);
+        }
+    }
+
+    private void remoteFailure(String operation, Object key, RuntimeException e) {
+        remoteErrors.increment();
+        log.warn("Redis cache {} failed for {}/{}: {}", operation, name, key, e.getMessage());
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    // One load of a key in progress on this node. A dropped one never ran and its waiters try again
+    private static final class Load {
+
+        final CompletableFuture<CachedValue> result = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger();
+        volatile boolean invalidated;
+        volatile boolean dropped;
+
+        CachedValue await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.vitotrips.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds {@link TwoTierCache} regions on demand: one Caffeine L1 per region, backed by the
+ * matching region of the Redis cache manager (or no L2 at all when {@code redisCacheManager} is null).
+ * <p>
+ * Regions are wrapped in {@link TransactionAwareCacheDecorator}, so puts and evictions issued inside
+ * a transaction only happen after it commits and a concurrent reader can't re-cache the old row.
+ * <p>
+ * Each region's {@link CachePolicy} comes from {@code policies}, else {@code defaultPolicy}. An L1
+ * entry lives for {@code localTtl} at most, bounding how long a missed invalidation can go unnoticed,
+ * and never past the point its policy stops serving it; without an L2 it lives exactly that long.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final CacheManager redisCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Duration localTtl;
+    private final long localMaxSize;
+    private final Map<String, CachePolicy> policies;
+    private final CachePolicy defaultPolicy;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+
+    public TwoTierCacheManager(CacheManager redisCacheManager,
+                               CacheInvalidationBus invalidationBus,
+                               MeterRegistry meterRegistry,
+                               Duration localTtl,
+                               long localMaxSize,
+                               Map<String, CachePolicy> policies,
+                               CachePolicy defaultPolicy,
+                               double earlyRefreshBeta,
+                               Executor refreshExecutor) {
+        this.redisCacheManager = redisCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.localTtl = localTtl;
+        this.localMaxSize = localMaxSize;
+        this.policies = policies;
+        this.defaultPolicy = defaultPolicy;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private Cache createCache(String name) {
+        CachePolicy policy = policies.getOrDefault(name, defaultPolicy);
+        Cache remote = redisCacheManager == null ? null : redisCacheManager.getCache(name);
+        Duration maxLocalTtl = remote == null ? policy.retention() : localTtl;
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Object>() {
+                    @Override
+                    public long expireAfterCreate(String key, Object value, long currentTime) {
+                        long servable = ((CachedValue) value).servableUntil(policy) - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(servable, maxLocalTtl.toMillis())));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+        return new TransactionAwareCacheDecorator(new TwoTierCache(name, local, remote, invalidationBus, meterRegistry,
+                policy, earlyRefreshBeta, refreshExecutor));
+    }
+}
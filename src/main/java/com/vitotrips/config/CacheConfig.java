@@ -0,0 +1,147 @@
+package com.vitotrips.config;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vitotrips.cache.CacheInvalidationBus;
+import com.vitotrips.cache.CacheNames;
+import com.vitotrips.cache.CachePolicy;
+import com.vitotrips.cache.TwoTierCacheManager;
+import com.vitotrips.execution.BoundedVirtualThreadExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Application caching: a Caffeine L1 per node in front of a shared Redis L2.
+ * The L2 can be switched off with {@code vitotrips.cache.l2.enabled=false} (tests, local runs without Redis).
+ * <p>
+ * Tour reads, the hot ones, are served stale for {@code vitotrips.cache.tours.stale-while-revalidate}
+ * past their TTL while they reload; background reloads run on their own bounded executor
+ * ({@code vitotrips.cache.refresh.max-concurrency}) so they can't crowd out request work.
+ * <p>
+ * The Redis cache manager is deliberately not a bean: the two-tier manager is the only one the
+ * application (and the metrics binder) sees.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig implements CachingConfigurer {
+
+    private static final CachePolicy DEFAULT_POLICY = CachePolicy.ttl(Duration.ofHours(1));
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${vitotrips.cache.l1.ttl:PT30S}")
+    private Duration localTtl;
+
+    @Value("${vitotrips.cache.l1.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${vitotrips.cache.l2.enabled:true}")
+    private boolean remoteEnabled;
+
+    @Value("${vitotrips.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${vitotrips.cache.tours.stale-while-revalidate:PT1M}")
+    private Duration toursStaleWhileRevalidate;
+
+    @Value("${vitotrips.cache.refresh.max-concurrency:4}")
+    private int refreshConcurrency;
+
+    public CacheConfig(RedisConnectionFactory redisConnectionFactory,
+                       CacheInvalidationBus invalidationBus,
+                       MeterRegistry meterRegistry) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Override
+    public CacheManager cacheManager() {
+        Map<String, CachePolicy> policies = policies();
+        return new TwoTierCacheManager(remoteEnabled ? redisCacheManager(policies) : null,
+                invalidationBus, meterRegistry, localTtl, localMaxSize, policies, DEFAULT_POLICY, earlyRefreshBeta,
+                new BoundedVirtualThreadExecutor("cache-refresh", refreshConcurrency, refreshConcurrency * 50, meterRegistry));
+    }
+
+    private Map<String, CachePolicy> policies() {
+        CachePolicy tours = new CachePolicy(Duration.ofMinutes(10), toursStaleWhileRevalidate);
+        return Map.of(
+                CacheNames.TOURS, tours,
+                CacheNames.TOURS_BY_LOCATION, tours,
+                CacheNames.USERS, CachePolicy.ttl(Duration.ofMinutes(5)),
+                CacheNames.BOOKINGS, CachePolicy.ttl(Duration.ofMinutes(5)));
+    }
+
+    // A broken cache must never fail the request; the annotated method just runs uncached
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
+    // Per-cache configurations derive from the defaults so they keep the JSON serializer. Redis keeps
+    // entries through their stale window too
+    private RedisCacheManager redisCacheManager(Map<String, CachePolicy> policies) {
+        RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(DEFAULT_POLICY.retention())
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer()))
+                .disableCachingNullValues();
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(cacheConfig);
+        policies.forEach((name, policy) -> builder.withCacheConfiguration(name, cacheConfig.entryTtl(policy.retention())));
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    // Cached values are JPA entities and read-model records: Java time types, and lazy associations that were
+    // never loaded are written as null. Records are final, so NON_FINAL alone would store them without a type id
+    static GenericJackson2JsonRedisSerializer cacheValueSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Hibernate6Module().enable(Hibernate6Module.Feature.REPLACE_PERSISTENT_COLLECTIONS))
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        PolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.vitotrips.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.math.")
+                .allowIfSubType("java.lang.")
+                .build();
+        TypeResolverBuilder<?> typing = new ObjectMapper.DefaultTypeResolverBuilder(ObjectMapper.DefaultTyping.NON_FINAL, validator) {
+            @Override
+            public boolean useForType(JavaType type) {
+                return type.isRecordType() || super.useForType(type);
+            }
+        }.init(JsonTypeInfo.Id.CLASS, null).inclusion(JsonTypeInfo.As.PROPERTY);
+        objectMapper.setDefaultTyping(typing);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+}
@@ -0,0 +1,47 @@
+package com.vitotrips.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * JDBC DataSource for JPA writes. Declared explicitly because Spring Boot's DataSource
+ * auto-configuration backs off as soon as an R2DBC ConnectionFactory (the reactive read path)
+ * is present. Still driven by the regular spring.datasource.* properties.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    // The CDS training run of the fast-startup build refreshes the context without a database. A runtime
+    // switch rather than spring.flyway.enabled, which AOT processing fixes at build time
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${vitotrips.startup.training-run:false}") boolean trainingRun) {
+        return flyway -> {
+            if (!trainingRun) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.vitotrips.config;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.resource.AbstractResourceResolver;
+import org.springframework.web.reactive.resource.HttpResource;
+import org.springframework.web.reactive.resource.ResourceResolverChain;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Marks assets requested by their versioned URL, see {@link StaticAssets}, as immutable: the URL
+ * changes with the content, so caches keep them for a year without revalidating. Assets requested
+ * by their plain path keep the handler's Cache-Control.
+ * <p>
+ * A request was versioned when the file resolved has another name than the one asked for; the
+ * resolvers behind this one serve {@code app-<md5>.js} from {@code app.js}. Goes after
+ * EncodedResourceResolver, whose variant then carries these headers and is still recognised as
+ * encoded by the CSS link transformer.
+ */
+class ImmutableVersionResolver extends AbstractResourceResolver {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    @Override
+    protected Mono<Resource> resolveResourceInternal(ServerWebExchange exchange, String requestPath,
+                                                     List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveResource(exchange, requestPath, locations)
+                .map(resource -> StringUtils.getFilename(requestPath).equals(resource.getFilename())
+                        ? resource : new ImmutableResource(resource));
+    }
+
+    @Override
+    protected Mono<String> resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                                  ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    // Adds Cache-Control to the headers of the resource it wraps (the version's ETag);
+    // ResourceWebHandler applies these after its own. File access is delegated, so files still go
+    // out as zero-copy regions
+    private static final class ImmutableResource extends AbstractResource implements HttpResource {
+
+        private final Resource resource;
+
+        ImmutableResource(Resource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (resource instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.setCacheControl(IMMUTABLE);
+            return headers;
+        }
+
+        @Override
+        public boolean exists() {
+            return resource.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return resource.isReadable();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return resource.isOpen();
+        }
+
+        @Override
+        public boolean isFile() {
+            return resource.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return resource.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return resource.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return resource.getFile();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return resource.getInputStream();
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return resource.readableChannel();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return resource.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return resource.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return resource.createRelative(relativePath);
+        }
+
+        @Override
+        public String getFilename() {
+            return resource.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return resource.getDescription();
+        }
+    }
+}
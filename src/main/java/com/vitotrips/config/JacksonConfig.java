@@ -0,0 +1,19 @@
+package com.vitotrips.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson setup shared by the HTTP codecs and Boot's {@code ObjectMapper}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter, setter and constructor calls with generated lambdas. As a bean it is
+    // registered on Boot's ObjectMapper (bulk NDJSON, exports); WebConfig adds it to the WebFlux codecs
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,58 @@
+package com.vitotrips.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.vitotrips.persistence.SecondLevelCacheRegion;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Backs the Hibernate second-level cache with a Caffeine JCache manager of its own.
+ * <p>
+ * Every {@link SecondLevelCacheRegion} is created up front with its size bound and time-to-live
+ * ({@code vitotrips.jpa.l2.<key>.max-size} / {@code .ttl}); Hibernate is set to fail on any other
+ * region rather than create an unbounded one. The caches are per node, kept coherent across nodes
+ * by {@link com.vitotrips.persistence.SecondLevelCacheInvalidator}.
+ */
+@Configuration
+@Slf4j
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment) {
+        // One manager per application context: the provider shares managers by URI, test contexts must not
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:vitotrips:hibernate-l2:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (SecondLevelCacheRegion region : SecondLevelCacheRegion.values()) {
+            long maxSize = region.maxSize(environment);
+            Duration ttl = region.ttl(environment);
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            if (ttl != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            }
+            // Entries are Hibernate's own disassembled state, never mutated; copying them on each read is waste
+            configuration.setStoreByValue(false);
+            cacheManager.createCache(region.regionName(), configuration);
+            log.debug("Second-level cache region '{}' limited to {} entries, ttl {}", region.regionName(), maxSize, ttl);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
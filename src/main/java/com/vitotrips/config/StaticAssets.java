@@ -0,0 +1,63 @@
+package com.vitotrips.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.resource.ContentVersionStrategy;
+import org.springframework.web.reactive.resource.VersionResourceResolver;
+import org.springframework.web.reactive.resource.VersionStrategy;
+
+import java.util.List;
+
+/**
+ * Where the front end's static files are served from and how their URLs are versioned. A versioned
+ * URL carries the MD5 of the file's content ({@code /js/app-<md5>.js}), so a changed file gets a
+ * new URL and browsers may keep the old one for good. {@link WebConfig} serves them,
+ * {@code WebController} links them from the page.
+ * <p>
+ * {@code vitotrips.web.static-location} defaults to the jar's {@code static/}. Pointing it at a
+ * directory, as the Docker image does, lets Netty send files as zero-copy file regions, which
+ * resources inside a jar can't be.
+ */
+@Component
+public class StaticAssets {
+
+    // Each is served under /<directory>/**
+    static final List<String> DIRECTORIES = List.of("js", "css", "img", "dist");
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final VersionStrategy versionStrategy = new ContentVersionStrategy();
+
+    public StaticAssets(ResourceLoader resourceLoader,
+                        @Value("${vitotrips.web.static-location:classpath:/static/}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location.endsWith("/") ? location : location + "/";
+    }
+
+    String location(String directory) {
+        return location + directory + "/";
+    }
+
+    VersionResourceResolver versionResolver() {
+        return new VersionResourceResolver().addVersionStrategy(versionStrategy, "/**");
+    }
+
+    /**
+     * The versioned URL of an asset path such as {@code /js/app.js}; the path as given when it
+     * isn't a served file. Reads the file to hash it, so callers keep the result.
+     */
+    public String versioned(String path) {
+        int directoryEnd = path.indexOf('/', 1);
+        if (!path.startsWith("/") || directoryEnd < 0 || !DIRECTORIES.contains(path.substring(1, directoryEnd))) {
+            return path;
+        }
+        Resource resource = resourceLoader.getResource(location + path.substring(1));
+        if (!resource.exists()) {
+            return path;
+        }
+        String version = versionStrategy.getResourceVersion(resource).block();
+        return version == null ? path : versionStrategy.addVersion(path, version);
+    }
+}
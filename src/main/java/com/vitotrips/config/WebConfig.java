@@ -1,38 +1,63 @@
 package com.vitotrips.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.reactive.config.ResourceHandlerRegistry;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.resource.CachingResourceResolver;
+import org.springframework.web.reactive.resource.EncodedResourceResolver;
 import org.springframework.web.reactive.resource.PathResourceResolver;
 
 /**
- * WebFlux configuration for serving static resources
+ * WebFlux configuration for serving static resources and the JSON codecs
  */
 @Configuration
 @EnableWebFlux
 public class WebConfig implements WebFluxConfigurer {
 
+    private final BlackbirdModule blackbirdModule;
+    private final StaticAssets staticAssets;
+
+    public WebConfig(BlackbirdModule blackbirdModule, StaticAssets staticAssets) {
+        this.blackbirdModule = blackbirdModule;
+        this.staticAssets = staticAssets;
+    }
+
+    // @EnableWebFlux keeps Boot's codec customizers out, so this is Spring's default mapper (same
+    // modules and date format as before) with Blackbird added
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(blackbirdModule).build();
+        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+        configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+    }
+
+    // One handler per asset directory; index.html is WebController's. The chain serves the build's
+    // gzip / brotli variant the client accepts (see precompress-static.sh), strips the content
+    // version from versioned URLs and marks those immutable; plain paths are revalidated against
+    // Last-Modified. Resolutions are cached (the version check hashes the file), transformations
+    // are not: the transformer cache tells resources apart by description, which a versioned
+    // variant shares with the plain one
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Register resource handlers for static resources
-        registry.addResourceHandler("/**")
-                .addResourceLocations("classpath:/static/", "classpath:/templates/")
-                .resourceChain(true)
-                .addResolver(new PathResourceResolver());
-                
-        // Specific handlers for common static resource paths
-        registry.addResourceHandler("/js/**")
-                .addResourceLocations("classpath:/static/js/");
-                
-        registry.addResourceHandler("/img/**")
-                .addResourceLocations("classpath:/static/img/");
-                
-        registry.addResourceHandler("/css/**")
-                .addResourceLocations("classpath:/static/css/");
-                
-        // Handler for index.html
-        registry.addResourceHandler("/", "/index.html")
-                .addResourceLocations("classpath:/templates/");
+        for (String directory : StaticAssets.DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations(staticAssets.location(directory))
+                    .setCacheControl(CacheControl.noCache().cachePublic())
+                    .resourceChain(false)
+                    .addResolver(new CachingResourceResolver(new ConcurrentMapCache("static-" + directory)))
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new ImmutableVersionResolver())
+                    .addResolver(staticAssets.versionResolver())
+                    .addResolver(new PathResourceResolver());
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.vitotrips.controller;
+
+import com.vitotrips.DTO.DepartureCapacityRequest;
+import com.vitotrips.DTO.DepartureView;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.service.SeatInventoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/departures")
+public class AdminDepartureController {
+
+    private final SeatInventoryService seatInventoryService;
+    private final BlockingExecutor blockingExecutor;
+
+    public AdminDepartureController(SeatInventoryService seatInventoryService, BlockingExecutor blockingExecutor) {
+        this.seatInventoryService = seatInventoryService;
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    // Puts a departure under capacity control, or changes its capacity; bookings already on it count
+    @PutMapping("/{tourId}/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<DepartureView>> setCapacity(@PathVariable Long tourId,
+                                                           @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                           @RequestBody DepartureCapacityRequest request) {
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> seatInventoryService.setCapacity(tourId, date, request.capacity()))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{tourId}/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<DepartureView>> getDeparture(@PathVariable Long tourId,
+                                                            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> seatInventoryService.getDeparture(tourId, date))
+                .map(departure -> departure.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    // Recounts every upcoming departure now instead of waiting for SeatInventoryReconciliationJob
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Map<String, Long>>> reconcile() {
+        return blockingExecutor.call(Subsystem.BOOKINGS, seatInventoryService::reconcile)
+                .map(corrected -> ResponseEntity.ok(Map.of("corrected", corrected)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.vitotrips.controller;
+
+import com.vitotrips.DTO.TourImportReport;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.importer.ImportFormat;
+import com.vitotrips.importer.TourCatalogueImporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/v1/admin/imports")
+public class AdminImportController {
+
+    private final TourCatalogueImporter tourImporter;
+    private final BlockingExecutor blockingExecutor;
+    private final Path importDirectory;
+
+    public AdminImportController(TourCatalogueImporter tourImporter, BlockingExecutor blockingExecutor,
+                                 @Value("${vitotrips.import.directory:imports}") Path importDirectory) {
+        this.tourImporter = tourImporter;
+        this.blockingExecutor = blockingExecutor;
+        this.importDirectory = importDirectory.toAbsolutePath().normalize();
+    }
+
+    // Imports a feed already placed in vitotrips.import.directory; file is a name relative to it.
+    // Answers once the import has finished; a second import while one is running is queued, a third gets 503
+    @PostMapping("/tours")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<TourImportReport>> importTours(@RequestParam String file,
+                                                              @RequestParam(required = false) String format) {
+        Path path = importDirectory.resolve(file).normalize();
+        if (!path.startsWith(importDirectory)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "file must be inside the import directory");
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such import file: " + file);
+        }
+        ImportFormat importFormat;
+        try {
+            importFormat = ImportFormat.resolve(format, path);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return blockingExecutor.call(Subsystem.IMPORTS, () -> tourImporter.importTours(path, importFormat))
+                .map(ResponseEntity::ok)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.vitotrips.controller;
+
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.service.TourRatingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/ratings")
+public class AdminRatingController {
+
+    private final TourRatingService tourRatingService;
+    private final BlockingExecutor blockingExecutor;
+
+    public AdminRatingController(TourRatingService tourRatingService, BlockingExecutor blockingExecutor) {
+        this.tourRatingService = tourRatingService;
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    // Recounts every tour's rating aggregate now instead of waiting for TourRatingRepairJob
+    @PostMapping("/repair")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Map<String, Long>>> repairRatings() {
+        return blockingExecutor.call(Subsystem.REVIEWS, tourRatingService::repairRatings)
+                .map(corrected -> ResponseEntity.ok(Map.of("corrected", corrected)));
+    }
+}
@@ -1,7 +1,12 @@
 package com.vitotrips.controller;
 
 import com.vitotrips.DTO.RegistrationRequest;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.User;
+import com.vitotrips.model.UserRole;
+import com.vitotrips.security.AuthenticatedUser;
+import com.vitotrips.security.PasswordHashingExecutor;
 import com.vitotrips.security.jwt.JwtProvider;
 import com.vitotrips.service.UserService;
 import org.springframework.http.HttpStatus;
@@ -11,12 +16,13 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -26,67 +32,79 @@ public class AuthController {
     private final JwtProvider jwtProvider;
     private final ReactiveAuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
+    private final BlockingExecutor blockingExecutor;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     public AuthController(UserService userService,
                           JwtProvider jwtProvider,
                           ReactiveAuthenticationManager authenticationManager,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder,
+                          BlockingExecutor blockingExecutor,
+                          PasswordHashingExecutor passwordHashingExecutor) {
         this.userService = userService;
         this.jwtProvider = jwtProvider;
         this.authenticationManager = authenticationManager;
         this.passwordEncoder = passwordEncoder;
+        this.blockingExecutor = blockingExecutor;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     @PostMapping("/register")
     public Mono<ResponseEntity<Map<String, Object>>> register(@RequestBody RegistrationRequest request) {
-        return Mono.fromCallable(() -> {
-            try {
-                // Check if user already exists
-                if (userService.existsByEmail(request.getEmail())) {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("error", "Email already registered");
-                    return ResponseEntity
-                            .badRequest()
-                            .body(errorResponse);
-                }
+        // A taken email is turned away before any hashing; a free one is hashed on the bounded
+        // hashing pool, and the user saved on the users scheduler. Two registrations racing for
+        // one email both pass the check, the unique index refuses the second save
+        return blockingExecutor.call(Subsystem.USERS, () -> userService.existsByEmail(request.getEmail()))
+                .flatMap(exists -> {
+                    if (exists) {
+                        Map<String, Object> errorResponse = new HashMap<>();
+                        errorResponse.put("error", "Email already registered");
+                        return Mono.just(ResponseEntity.badRequest().body(errorResponse));
+                    }
+                    return passwordHashingExecutor.call(() -> passwordEncoder.encode(request.getPassword()))
+                            .flatMap(passwordHash -> blockingExecutor.call(Subsystem.USERS, () -> save(request, passwordHash)));
+                });
+    }
 
-                // Create new user using builder
-                LocalDateTime now = LocalDateTime.now();
-                User user = User.builder()
-                        .email(request.getEmail())
-                        .name(request.getName())
-                        .passwordHash(passwordEncoder.encode(request.getPassword()))
-                        .role(request.getRole())
-                        .createdAt(now)
-                        .updatedAt(now)
-                        .build();
+    private ResponseEntity<Map<String, Object>> save(RegistrationRequest request, String passwordHash) {
+        try {
+            // Create new user using builder
+            LocalDateTime now = LocalDateTime.now();
+            User user = User.builder()
+                    .email(request.getEmail())
+                    .name(request.getName())
+                    .passwordHash(passwordHash)
+                    .role(request.getRole())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
 
-                // Save user
-                User savedUser = userService.saveUser(user);
+            // Save user
+            User savedUser = userService.saveUser(user);
 
-                Map<String, Object> response = createAuthResponse(savedUser);
+            Map<String, Object> response =
+                    createAuthResponse(savedUser.getEmail(), savedUser.getRole(), savedUser.getName());
 
-                return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            } catch (Exception e) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("error", "Registration failed: " + e.getMessage());
-                return ResponseEntity
-                        .status(HttpStatus.BAD_REQUEST)
-                        .body(errorResponse);
-            }
-        });
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Registration failed: " + e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(errorResponse);
+        }
     }
 
-    private Map<String, Object> createAuthResponse(User savedUser) {
+    private Map<String, Object> createAuthResponse(String email, UserRole role, String name) {
         // Generate token
-        String token = jwtProvider.generateToken(savedUser.getEmail(), savedUser.getRole().name());
+        String token = jwtProvider.generateToken(email, role.name());
 
         // Create response
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
-        response.put("email", savedUser.getEmail());
-        response.put("role", savedUser.getRole().name());
-        response.put("name", savedUser.getName());
+        response.put("email", email);
+        response.put("role", role.name());
+        response.put("name", name);
         return response;
     }
 
@@ -95,18 +113,10 @@ public class AuthController {
         return authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(email, password)
         )
-        .flatMap(authentication -> {
-            try {
-                User user = userService.getUserByEmail(email);
-                Map<String, Object> response = createAuthResponse(user);
-                return Mono.just(ResponseEntity.ok(response));
-            } catch (Exception e) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("error", "An error occurred during authentication");
-                return Mono.just(ResponseEntity
-                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(errorResponse));
-            }
+        // The authenticated principal already carries the profile; no second user lookup
+        .map(authentication -> {
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            return ResponseEntity.ok(createAuthResponse(principal.getUsername(), principal.getRole(), principal.getName()));
         })
         .onErrorResume(AuthenticationException.class, e -> {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -115,6 +125,22 @@ public class AuthController {
                 .status(HttpStatus.UNAUTHORIZED)
                 .body(errorResponse));
         })
+        .onErrorResume(RejectedExecutionException.class, e -> {
+            // Hashing pool saturated: shed the login rather than queue it behind the storm
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Server busy, please retry");
+            return Mono.just(ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorResponse));
+        })
+        .onErrorResume(ResponseStatusException.class, e -> {
+            // The user lookup's subsystem saturated (503), or another status the executors chose
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getReason());
+            return Mono.just(ResponseEntity
+                .status(e.getStatusCode())
+                .body(errorResponse));
+        })
         .onErrorResume(e -> {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "An error occurred during authentication");
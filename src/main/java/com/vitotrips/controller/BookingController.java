@@ -1,10 +1,24 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.DTO.BookingBulkRow;
+import com.vitotrips.DTO.BookingView;
+import com.vitotrips.DTO.BulkLineResult;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.Booking;
 import com.vitotrips.service.BookingService;
+import com.vitotrips.service.ExportService;
+import com.vitotrips.service.SoldOutException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -12,34 +26,85 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
+    private final ExportService exportService;
+    private final NdjsonBulkWriter bulkWriter;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BlockingExecutor blockingExecutor,
+                             KeysetPagination pagination, ExportService exportService,
+                             NdjsonBulkWriter bulkWriter) {
         this.bookingService = bookingService;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
+        this.exportService = exportService;
+        this.bulkWriter = bulkWriter;
     }
 
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@RequestBody Booking booking) {
-        return ResponseEntity.ok(bookingService.createBooking(booking));
+    public Mono<ResponseEntity<Booking>> createBooking(@RequestBody Booking booking) {
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> bookingService.createBooking(booking))
+                .onErrorMap(SoldOutException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()))
+                .map(ResponseEntity::ok);
+    }
+
+    // One BookingBulkRow per line in, one BulkLineResult per line out, see NdjsonBulkWriter
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkLineResult> createBookings(@RequestBody Flux<DataBuffer> body) {
+        return bulkWriter.write(body, BookingBulkRow.class, Subsystem.BOOKINGS, bookingService::createBookings);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Booking> updateBooking(@PathVariable Long id, @RequestBody Booking updatedBooking) {
-        return ResponseEntity.ok(bookingService.updateBooking(id, updatedBooking));
+    public Mono<ResponseEntity<Booking>> updateBooking(@PathVariable Long id, @RequestBody Booking updatedBooking) {
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> bookingService.updateBooking(id, updatedBooking))
+                .onErrorMap(SoldOutException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()))
+                .map(ResponseEntity::ok);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getBookingById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.getBookingById(id));
+    public Mono<ResponseEntity<BookingView>> getBookingById(@PathVariable Long id) {
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> bookingService.getBookingById(id))
+                .map(ResponseEntity::ok);
     }
 
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        return ResponseEntity.ok(bookingService.getAllBookings());
+    public Mono<ResponseEntity<List<BookingView>>> getAllBookings(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        PageCursor before = pagination.cursor(cursor);
+        int pageSize = pagination.limit(limit);
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> before == null
+                        ? bookingService.getBookingsBefore(null, null, pageSize)
+                        : bookingService.getBookingsBefore(before.createdAt(), before.id(), pageSize))
+                .map(slice -> pagination.respond(slice, booking -> PageCursor.before(booking.createdAt(), booking.id())));
+    }
+
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingView> streamBookingsByUser(@PathVariable Long userId) {
+        return bookingService.streamBookingsByUser(userId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingView> streamBookingsByDateRange(
+            @RequestParam LocalDateTime startDate,
+            @RequestParam LocalDateTime endDate
+    ) {
+        return bookingService.streamBookingsByDateRange(startDate, endDate);
+    }
+
+    // Month-end export, format=ndjson|csv. Streams straight from a database cursor
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportBookings(
+            @RequestParam LocalDateTime startDate,
+            @RequestParam LocalDateTime endDate,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        return ExportResponses.attachment("bookings", format,
+                exportFormat -> exportService.exportBookings(startDate, endDate, exportFormat));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteBooking(@PathVariable Long id) {
-        boolean deleted = bookingService.deleteBooking(id);
-        return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    public Mono<ResponseEntity<Void>> deleteBooking(@PathVariable Long id) {
+        return blockingExecutor.call(Subsystem.BOOKINGS, () -> bookingService.deleteBooking(id))
+                .map(deleted -> deleted ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
     }
-}
\ No newline at end of file
+}
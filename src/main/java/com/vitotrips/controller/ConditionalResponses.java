@@ -0,0 +1,206 @@
+package com.vitotrips.controller;
+
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Conditional GETs for the catalogue read endpoints. What a response covers is first summarised
+ * as a {@link ChangeStamp} by one aggregate query; when the client's validators still match it the
+ * answer is 304 Not Modified and the rows themselves are never loaded.
+ * <p>
+ * The ETag is strong and made of the stamp alone (row count, highest id, latest modification), so
+ * an edit, an insert or a delete each change it. {@code Last-Modified} goes on single resources
+ * only: deleting a row from a list leaves the list's latest modification time where it was. A
+ * missing resource gets no validators, its 404 is unchanged.
+ * <p>
+ * Endpoints whose bodies come from an application cache use {@link #cachedItem}/{@link #cachedList}
+ * instead: the stamp is taken from the cached body, so neither a cache hit nor a 304 queries the
+ * database.
+ * <p>
+ * Lists may be reused without asking for {@code vitotrips.http.cache.list-max-age}; single
+ * resources are revalidated on every use. Outcomes are counted in {@value #METRIC}, tagged with
+ * the endpoint and {@code result} (not_modified, modified, unconditional) for the 304 ratio.
+ */
+@Component
+public class ConditionalResponses {
+
+    private static final String METRIC = "vitotrips.http.conditional";
+
+    /**
+     * Who may keep a copy: shared caches for the public catalogue, only the caller's own otherwise.
+     */
+    public enum Audience {
+        PUBLIC, PRIVATE
+    }
+
+    private enum Result {
+        NOT_MODIFIED, MODIFIED, UNCONDITIONAL
+    }
+
+    private final BlockingExecutor blockingExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Duration listMaxAge;
+
+    public ConditionalResponses(BlockingExecutor blockingExecutor, MeterRegistry meterRegistry,
+                                @Value("${vitotrips.http.cache.list-max-age:PT1M}") Duration listMaxAge) {
+        this.blockingExecutor = blockingExecutor;
+        this.meterRegistry = meterRegistry;
+        this.listMaxAge = listMaxAge;
+    }
+
+    /**
+     * Answers a GET for one resource; {@code stamp} has no rows when it doesn't exist.
+     */
+    public <T> Mono<ResponseEntity<T>> item(ServerWebExchange exchange, String endpoint, Audience audience,
+                                            Subsystem subsystem, Callable<ChangeStamp> stamp,
+                                            Callable<ResponseEntity<T>> load) {
+        return respond(exchange, endpoint, visibleTo(CacheControl.noCache(), audience), true, subsystem, stamp, load);
+    }
+
+    /**
+     * Answers a GET for a list or a page of one.
+     */
+    public <T> Mono<ResponseEntity<T>> list(ServerWebExchange exchange, String endpoint, Audience audience,
+                                            Subsystem subsystem, Callable<ChangeStamp> stamp,
+                                            Callable<ResponseEntity<T>> load) {
+        return respond(exchange, endpoint, visibleTo(CacheControl.maxAge(listMaxAge), audience), false, subsystem, stamp, load);
+    }
+
+    /**
+     * Answers a GET for one resource read from a cache, empty when it doesn't exist.
+     */
+    public <T> Mono<ResponseEntity<T>> cachedItem(ServerWebExchange exchange, String endpoint, Audience audience,
+                                                  Subsystem subsystem, Callable<Optional<T>> load,
+                                                  Function<T, ChangeStamp> stampOf) {
+        CacheControl cacheControl = visibleTo(CacheControl.noCache(), audience);
+        HttpHeaders request = exchange.getRequest().getHeaders();
+        return blockingExecutor.call(subsystem, () -> {
+            Optional<T> body = load.call();
+            if (body.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return answer(request, endpoint, cacheControl, true, stampOf.apply(body.get()), () -> ResponseEntity.ok(body.get()));
+        });
+    }
+
+    /**
+     * Answers a GET for a list read from a cache.
+     */
+    public <T> Mono<ResponseEntity<T>> cachedList(ServerWebExchange exchange, String endpoint, Audience audience,
+                                                  Subsystem subsystem, Callable<T> load,
+                                                  Function<T, ChangeStamp> stampOf) {
+        CacheControl cacheControl = visibleTo(CacheControl.maxAge(listMaxAge), audience);
+        HttpHeaders request = exchange.getRequest().getHeaders();
+        return blockingExecutor.call(subsystem, () -> {
+            T body = load.call();
+            return answer(request, endpoint, cacheControl, false, stampOf.apply(body), () -> ResponseEntity.ok(body));
+        });
+    }
+
+    private <T> Mono<ResponseEntity<T>> respond(ServerWebExchange exchange, String endpoint, CacheControl cacheControl,
+                                                boolean single, Subsystem subsystem, Callable<ChangeStamp> stamp,
+                                                Callable<ResponseEntity<T>> load) {
+        HttpHeaders request = exchange.getRequest().getHeaders();
+        return blockingExecutor.call(subsystem, () -> {
+            // Read before the rows: should they change in between, the body is newer than its
+            // ETag and the next request simply gets a full response
+            ChangeStamp current = stamp.call();
+            if (single && current.rows() == 0) {
+                return load.call();
+            }
+            return answer(request, endpoint, cacheControl, single, current, load);
+        });
+    }
+
+    private <T> ResponseEntity<T> answer(HttpHeaders request, String endpoint, CacheControl cacheControl, boolean single,
+                                         ChangeStamp current, Callable<ResponseEntity<T>> load) throws Exception {
+        String etag = etag(current);
+        Instant lastModified = single ? lastModified(current) : null;
+        Result result = evaluate(request, etag, lastModified);
+        counter(endpoint, result).increment();
+        if (result == Result.NOT_MODIFIED) {
+            return validators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified, cacheControl).build();
+        }
+        ResponseEntity<T> response = load.call();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return validators(ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()),
+                etag, lastModified, cacheControl).body(response.getBody());
+    }
+
+    private static Result evaluate(HttpHeaders request, String etag, Instant lastModified) {
+        List<String> ifNoneMatch;
+        long ifModifiedSince;
+        try {
+            ifNoneMatch = request.getIfNoneMatch();
+            ifModifiedSince = request.getIfModifiedSince();
+        } catch (IllegalArgumentException e) {
+            return Result.UNCONDITIONAL; // Malformed validators are ignored, as if absent
+        }
+        // If-None-Match wins over If-Modified-Since and is compared weakly (RFC 9110 13.1.2)
+        if (!ifNoneMatch.isEmpty()) {
+            boolean matches = ifNoneMatch.stream()
+                    .anyMatch(tag -> tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag));
+            return matches ? Result.NOT_MODIFIED : Result.MODIFIED;
+        }
+        if (ifModifiedSince == -1) {
+            return Result.UNCONDITIONAL;
+        }
+        // HTTP dates have whole seconds
+        boolean unchanged = lastModified != null && lastModified.getEpochSecond() <= ifModifiedSince / 1000;
+        return unchanged ? Result.NOT_MODIFIED : Result.MODIFIED;
+    }
+
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder response, String etag,
+                                                         Instant lastModified, CacheControl cacheControl) {
+        response.eTag(etag).cacheControl(cacheControl);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+
+    private static String etag(ChangeStamp stamp) {
+        Instant lastModified = lastModified(stamp);
+        long micros = lastModified == null ? 0 : ChronoUnit.MICROS.between(Instant.EPOCH, lastModified);
+        long lastId = stamp.lastId() == null ? 0 : stamp.lastId();
+        return "\"%x-%x-%x\"".formatted(stamp.rows(), lastId, micros);
+    }
+
+    // Timestamps are written as LocalDateTime.now(), in the JVM's zone
+    private static Instant lastModified(ChangeStamp stamp) {
+        return stamp.lastModified() == null ? null : stamp.lastModified().atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static CacheControl visibleTo(CacheControl cacheControl, Audience audience) {
+        return audience == Audience.PUBLIC ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+
+    private Counter counter(String endpoint, Result result) {
+        return Counter.builder(METRIC)
+                .tag("endpoint", endpoint)
+                .tag("result", result.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.vitotrips.controller;
+
+import com.vitotrips.DTO.ExportFormat;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Function;
+
+/**
+ * Response shape shared by the streaming export endpoints: a downloadable attachment whose
+ * body is written chunk by chunk as the export produces it.
+ */
+final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    static ResponseEntity<Flux<DataBuffer>> attachment(String baseName, String format,
+                                                       Function<ExportFormat, Flux<DataBuffer>> export) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(baseName + "." + exportFormat.extension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(export.apply(exportFormat));
+    }
+}
@@ -1,9 +1,13 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.DTO.GroupView;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.Group;
 import com.vitotrips.service.GroupService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -12,39 +16,47 @@ import java.util.List;
 public class GroupController {
 
     private final GroupService groupService;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
 
-    public GroupController(GroupService groupService) {
+    public GroupController(GroupService groupService, BlockingExecutor blockingExecutor,
+                           KeysetPagination pagination) {
         this.groupService = groupService;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
     }
 
     @PostMapping
-    public ResponseEntity<Group> saveGroup(@RequestBody Group group) {
-        Group savedGroup = groupService.saveGroup(group);
-        return ResponseEntity.ok(savedGroup);
+    public Mono<ResponseEntity<Group>> saveGroup(@RequestBody Group group) {
+        return blockingExecutor.call(Subsystem.GROUPS, () -> groupService.saveGroup(group))
+                .map(ResponseEntity::ok);
     }
 
     @GetMapping
-    public ResponseEntity<List<Group>> getAllGroups() {
-        List<Group> groups = groupService.getAllGroups();
-        return ResponseEntity.ok(groups);
+    public Mono<ResponseEntity<List<GroupView>>> getAllGroups(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        PageCursor after = pagination.cursor(cursor);
+        int pageSize = pagination.limit(limit);
+        return blockingExecutor.call(Subsystem.GROUPS, () -> groupService.getGroupsAfter(after == null ? 0L : after.id(), pageSize))
+                .map(slice -> pagination.respond(slice, group -> PageCursor.afterId(group.id())));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Group> getGroupById(@PathVariable Long id) {
-        return groupService.getGroupById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<GroupView>> getGroupById(@PathVariable Long id) {
+        return blockingExecutor.call(Subsystem.GROUPS, () -> groupService.getGroupById(id))
+                .map(group -> group.map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/leader/{leaderId}")
-    public ResponseEntity<List<Group>> getGroupsByLeader(@PathVariable Long leaderId) {
-        List<Group> groups = groupService.getGroupsByGroupLeader(leaderId);
-        return ResponseEntity.ok(groups);
+    public Mono<ResponseEntity<List<GroupView>>> getGroupsByLeader(@PathVariable Long leaderId) {
+        return blockingExecutor.call(Subsystem.GROUPS, () -> groupService.getGroupsByGroupLeader(leaderId))
+                .map(ResponseEntity::ok);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteGroup(@PathVariable Long id) {
-        groupService.deleteGroup(id);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> deleteGroup(@PathVariable Long id) {
+        return blockingExecutor.run(Subsystem.GROUPS, () -> groupService.deleteGroup(id))
+                .then(Mono.just(ResponseEntity.noContent().build()));
     }
-}
\ No newline at end of file
+}
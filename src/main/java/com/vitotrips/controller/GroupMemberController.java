@@ -1,9 +1,18 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.DTO.BulkLineResult;
+import com.vitotrips.DTO.GroupMemberBulkRow;
+import com.vitotrips.DTO.GroupMemberView;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.GroupMember;
 import com.vitotrips.service.GroupMemberService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -12,24 +21,37 @@ import java.util.List;
 public class GroupMemberController {
 
     private final GroupMemberService groupMemberService;
+    private final BlockingExecutor blockingExecutor;
+    private final NdjsonBulkWriter bulkWriter;
 
-    public GroupMemberController(GroupMemberService groupMemberService) {
+    public GroupMemberController(GroupMemberService groupMemberService, BlockingExecutor blockingExecutor,
+                                 NdjsonBulkWriter bulkWriter) {
         this.groupMemberService = groupMemberService;
+        this.blockingExecutor = blockingExecutor;
+        this.bulkWriter = bulkWriter;
     }
 
     @PostMapping
-    public ResponseEntity<GroupMember> addGroupMember(@RequestBody GroupMember member) {
-        return ResponseEntity.ok(groupMemberService.addGroupMember(member));
+    public Mono<ResponseEntity<GroupMember>> addGroupMember(@RequestBody GroupMember member) {
+        return blockingExecutor.call(Subsystem.GROUPS, () -> groupMemberService.addGroupMember(member))
+                .map(ResponseEntity::ok);
+    }
+
+    // Onboards a whole group in one request, see NdjsonBulkWriter
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkLineResult> addGroupMembers(@RequestBody Flux<DataBuffer> body) {
+        return bulkWriter.write(body, GroupMemberBulkRow.class, Subsystem.GROUPS, groupMemberService::addGroupMembers);
     }
 
     @GetMapping("/{groupId}")
-    public ResponseEntity<List<GroupMember>> getGroupMembers(@PathVariable Long groupId) {
-        return ResponseEntity.ok(groupMemberService.getGroupMembers(groupId));
+    public Mono<ResponseEntity<List<GroupMemberView>>> getGroupMembers(@PathVariable Long groupId) {
+        return blockingExecutor.call(Subsystem.GROUPS, () -> groupMemberService.getGroupMembers(groupId))
+                .map(ResponseEntity::ok);
     }
 
     @DeleteMapping("/{memberId}")
-    public ResponseEntity<Void> removeMember(@PathVariable Long memberId) {
-        groupMemberService.removeMember(memberId);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> removeMember(@PathVariable Long memberId) {
+        return blockingExecutor.run(Subsystem.GROUPS, () -> groupMemberService.removeMember(memberId))
+                .then(Mono.just(ResponseEntity.noContent().build()));
     }
-}
\ No newline at end of file
+}
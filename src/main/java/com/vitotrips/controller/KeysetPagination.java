@@ -0,0 +1,56 @@
+package com.vitotrips.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared page-size policy and response shape for keyset-paginated list endpoints.
+ * The body stays a plain JSON array; the cursor for the next page travels in the
+ * {@value #NEXT_CURSOR_HEADER} response header and is absent on the last page.
+ */
+@Component
+public class KeysetPagination {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public KeysetPagination(@Value("${vitotrips.pagination.default-limit:50}") int defaultLimit,
+                            @Value("${vitotrips.pagination.max-limit:200}") int maxLimit) {
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // Server-enforced page size: missing or non-positive -> default, anything larger than the cap -> cap
+    public int limit(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultLimit;
+        }
+        return Math.min(requested, maxLimit);
+    }
+
+    /**
+     * Decodes a client cursor.
+     *
+     * @throws ResponseStatusException 400 for malformed tokens
+     */
+    public PageCursor cursor(String token) {
+        return PageCursor.decode(token);
+    }
+
+    public <T> ResponseEntity<List<T>> respond(Slice<T> slice, Function<T, PageCursor> cursorOf) {
+        List<T> content = slice.getContent();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext() && !content.isEmpty()) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(content.get(content.size() - 1)).encode());
+        }
+        return response.body(content);
+    }
+}
@@ -0,0 +1,129 @@
+package com.vitotrips.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vitotrips.DTO.BulkLineResult;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared pipeline for the NDJSON bulk upload endpoints.
+ * <p>
+ * The request body is split into lines as it arrives; each line is parsed and bean-validated on
+ * its own, so one bad line is reported rather than failing the upload. Valid rows are inserted
+ * {@code vitotrips.bulk.batch-size} at a time, one transaction per batch, and the next batch is
+ * only read once the previous one is stored, so memory stays flat for any upload size. A batch
+ * the database rejects is retried row by row to pin the failure on its lines. Results stream
+ * back in input order, one {@link BulkLineResult} per non-blank line.
+ */
+@Component
+public class NdjsonBulkWriter {
+
+    private final StringDecoder lineDecoder = StringDecoder.allMimeTypes(List.of("\n"), true);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BlockingExecutor blockingExecutor;
+    private final int batchSize;
+
+    public NdjsonBulkWriter(ObjectMapper objectMapper, Validator validator, BlockingExecutor blockingExecutor,
+                            @Value("${vitotrips.bulk.batch-size:1000}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.blockingExecutor = blockingExecutor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param insert stores a batch of rows in one transaction and returns their ids in row order
+     */
+    public <R> Flux<BulkLineResult> write(Flux<DataBuffer> body, Class<R> rowType, Subsystem subsystem,
+                                          Function<List<R>, List<Long>> insert) {
+        return lineDecoder.decode(body, ResolvableType.forClass(String.class), null, null)
+                .index((index, line) -> parse(index + 1, line.strip(), rowType))
+                .filter(parsed -> parsed.row() != null || parsed.rejection() != null)
+                .buffer(batchSize)
+                .concatMap(batch -> store(batch, subsystem, insert));
+    }
+
+    private <R> Parsed<R> parse(long line, String text, Class<R> rowType) {
+        if (text.isEmpty()) {
+            return new Parsed<>(line, null, null);
+        }
+        R row;
+        try {
+            row = objectMapper.readValue(text, rowType);
+        } catch (JsonProcessingException e) {
+            return new Parsed<>(line, null, BulkLineResult.invalid(line, e.getOriginalMessage()));
+        }
+        Set<ConstraintViolation<R>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new Parsed<>(line, null, BulkLineResult.invalid(line, error));
+        }
+        return new Parsed<>(line, row, null);
+    }
+
+    private <R> Flux<BulkLineResult> store(List<Parsed<R>> batch, Subsystem subsystem,
+                                           Function<List<R>, List<Long>> insert) {
+        List<R> rows = batch.stream().map(Parsed::row).filter(row -> row != null).toList();
+        if (rows.isEmpty()) {
+            return Flux.fromIterable(batch).map(Parsed::rejection);
+        }
+        return blockingExecutor.call(subsystem, () -> insert.apply(rows))
+                .map(ids -> merge(batch, ids))
+                // Saturation (503) aborts the upload; a data error only sends this batch row by row
+                .onErrorResume(e -> !(e instanceof ResponseStatusException), e -> storeOneByOne(batch, subsystem, insert))
+                .flatMapIterable(results -> results);
+    }
+
+    private <R> Mono<List<BulkLineResult>> storeOneByOne(List<Parsed<R>> batch, Subsystem subsystem,
+                                                         Function<List<R>, List<Long>> insert) {
+        return Flux.fromIterable(batch)
+                .concatMap(parsed -> parsed.row() == null
+                        ? Mono.just(parsed.rejection())
+                        : blockingExecutor.call(subsystem, () -> insert.apply(List.of(parsed.row())))
+                                .map(ids -> BulkLineResult.created(parsed.line(), ids.get(0)))
+                                .onErrorResume(e -> !(e instanceof ResponseStatusException),
+                                        e -> Mono.just(BulkLineResult.failed(parsed.line(), rootMessage(e)))))
+                .collectList();
+    }
+
+    private static <R> List<BulkLineResult> merge(List<Parsed<R>> batch, List<Long> ids) {
+        List<BulkLineResult> results = new ArrayList<>(batch.size());
+        int next = 0;
+        for (Parsed<R> parsed : batch) {
+            results.add(parsed.row() == null ? parsed.rejection() : BulkLineResult.created(parsed.line(), ids.get(next++)));
+        }
+        return results;
+    }
+
+    // Driver messages can run over several lines of SQL detail; the first line names the problem
+    private static String rootMessage(Throwable e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message == null ? e.getClass().getSimpleName() : message.lines().findFirst().orElse(message);
+    }
+
+    private record Parsed<R>(long line, R row, BulkLineResult rejection) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.vitotrips.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of the last row a client has seen in a keyset-paginated list.
+ * Clients only ever see the opaque encoded form handed out in {@link KeysetPagination#NEXT_CURSOR_HEADER}.
+ *
+ * @param id        primary key of the last row
+ * @param createdAt creation time of the last row, for lists ordered by {@code createdAt}; otherwise {@code null}
+ */
+public record PageCursor(long id, LocalDateTime createdAt) {
+
+    private static final String VERSION = "v1";
+
+    public static PageCursor afterId(long id) {
+        return new PageCursor(id, null);
+    }
+
+    public static PageCursor before(LocalDateTime createdAt, long id) {
+        return new PageCursor(id, createdAt);
+    }
+
+    public String encode() {
+        String createdPart = createdAt == null ? "" : Long.toString(toEpochMicros(createdAt));
+        String raw = VERSION + ":" + id + ":" + createdPart;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for the first page
+     * @throws ResponseStatusException 400 when the token was not issued by this server
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            long id = Long.parseLong(parts[1]);
+            LocalDateTime createdAt = parts[2].isEmpty() ? null : fromEpochMicros(Long.parseLong(parts[2]));
+            return new PageCursor(id, createdAt);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    private static long toEpochMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -3,89 +3,127 @@ package com.vitotrips.controller;
 import com.stripe.exception.StripeException;
 import com.vitotrips.DTO.PaymentRequest;
 import com.vitotrips.DTO.PaymentResponse;
-import com.vitotrips.model.Payment;
+import com.vitotrips.DTO.PaymentView;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.service.ExportService;
 import com.vitotrips.service.PaymentService;
+import com.vitotrips.webhook.StripeWebhookIngestor;
 import jakarta.validation.Valid;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
+    private final ExportService exportService;
+    private final StripeWebhookIngestor webhookIngestor;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, BlockingExecutor blockingExecutor,
+                             KeysetPagination pagination, ExportService exportService,
+                             StripeWebhookIngestor webhookIngestor) {
         this.paymentService = paymentService;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
+        this.exportService = exportService;
+        this.webhookIngestor = webhookIngestor;
     }
 
     @PostMapping
-    public ResponseEntity<PaymentResponse> createPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
-        try {
-            PaymentResponse response = paymentService.createPayment(paymentRequest);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (StripeException e) {
-            PaymentResponse errorResponse = PaymentResponse.builder()
-                    .status("FAILED")
-                    .message("Payment processing failed: " + e.getMessage())
-                    .build();
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-        }
+    public Mono<ResponseEntity<PaymentResponse>> createPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
+        return blockingExecutor.call(Subsystem.PAYMENTS, () -> paymentService.createPayment(paymentRequest))
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .onErrorResume(StripeException.class, e -> {
+                    PaymentResponse errorResponse = PaymentResponse.builder()
+                            .status("FAILED")
+                            .message("Payment processing failed: " + e.getMessage())
+                            .build();
+                    return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+                });
     }
 
     @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    public Mono<ResponseEntity<List<PaymentView>>> getAllPayments(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        PageCursor before = pagination.cursor(cursor);
+        int pageSize = pagination.limit(limit);
+        return blockingExecutor.call(Subsystem.PAYMENTS, () -> before == null
+                        ? paymentService.getPaymentsBefore(null, null, pageSize)
+                        : paymentService.getPaymentsBefore(before.createdAt(), before.id(), pageSize))
+                .map(slice -> pagination.respond(slice, payment -> PageCursor.before(payment.createdAt(), payment.id())));
+    }
+
+    // Month-end export by creation time, format=ndjson|csv. Streams straight from a database cursor
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportPayments(
+            @RequestParam LocalDateTime startDate,
+            @RequestParam LocalDateTime endDate,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        return ExportResponses.attachment("payments", format,
+                exportFormat -> exportService.exportPayments(startDate, endDate, exportFormat));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPayment(@PathVariable Long id) {
-        return paymentService.getPaymentById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<PaymentView>> getPayment(@PathVariable Long id) {
+        return blockingExecutor.call(Subsystem.PAYMENTS, () -> paymentService.getPaymentById(id))
+                .map(payment -> payment.map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/booking/{bookingId}")
-    public ResponseEntity<?> getPaymentsByBookingId(@PathVariable Long bookingId) {
-        return ResponseEntity.ok(paymentService.getPaymentsByBookingId(bookingId));
+    public Mono<ResponseEntity<List<PaymentView>>> getPaymentsByBookingId(@PathVariable Long bookingId) {
+        return blockingExecutor.call(Subsystem.PAYMENTS, () -> paymentService.getPaymentsByBookingId(bookingId))
+                .map(ResponseEntity::ok);
     }
 
+    // Verified and queued only; StripeEventWorker applies it. Stripe retries anything but a 2xx
     @PostMapping("/webhook")
-    public ResponseEntity<?> handleStripeWebhook(@RequestBody String payload, @RequestHeader("Stripe-Signature") String signature) {
-        try {
-            // Process the webhook event
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "success");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+    public Mono<ResponseEntity<Map<String, String>>> handleStripeWebhook(@RequestBody String payload,
+                                                                        @RequestHeader("Stripe-Signature") String signature) {
+        return webhookIngestor.ingest(payload, signature)
+                .map(outcome -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("status", "success");
+                    response.put("outcome", outcome.name().toLowerCase());
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(errorResponse(e.getMessage())))
+                .onErrorResume(e -> !(e instanceof IllegalArgumentException), e -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("status", "error");
+                    response.put("message", "Event could not be queued, please retry");
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response));
+                });
     }
 
     @PostMapping("/{id}/refund")
-    public ResponseEntity<?> refundPayment(@PathVariable Long id) {
-        try {
-            Payment refundedPayment = paymentService.refundPayment(id);
-            return ResponseEntity.ok(refundedPayment);
-        } catch (StripeException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "error");
-            response.put("message", "Refund failed: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+    public Mono<ResponseEntity<?>> refundPayment(@PathVariable Long id) {
+        return blockingExecutor.call(Subsystem.PAYMENTS, () -> paymentService.refundPayment(id))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(StripeException.class, e ->
+                        Mono.just(errorResponse("Refund failed: " + e.getMessage())))
+                .onErrorResume(e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException, e ->
+                        Mono.just(errorResponse(e.getMessage())));
+    }
+
+    private ResponseEntity<Map<String, String>> errorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
-}
\ No newline at end of file
+}
@@ -1,47 +1,96 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.DTO.ReviewView;
+import com.vitotrips.DTO.TourRatingSummary;
+import com.vitotrips.controller.ConditionalResponses.Audience;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.Review;
 import com.vitotrips.service.ReviewService;
+import com.vitotrips.service.TourRatingService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/reviews")
 public class ReviewController {
 
     private final ReviewService reviewService;
+    private final TourRatingService tourRatingService;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
+    private final ConditionalResponses conditional;
 
-    public ReviewController(ReviewService reviewService) {
+    public ReviewController(ReviewService reviewService, TourRatingService tourRatingService,
+                            BlockingExecutor blockingExecutor, KeysetPagination pagination,
+                            ConditionalResponses conditional) {
         this.reviewService = reviewService;
+        this.tourRatingService = tourRatingService;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
+        this.conditional = conditional;
     }
 
     @PostMapping
-    public ResponseEntity<Review> saveReview(@RequestBody Review review) {
-        return ResponseEntity.ok(reviewService.saveReview(review));
+    public Mono<ResponseEntity<Review>> saveReview(@RequestBody Review review) {
+        return blockingExecutor.call(Subsystem.REVIEWS, () -> reviewService.saveReview(review))
+                .map(ResponseEntity::ok)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
     }
 
+    // Star ratings of many tours in one call (?tourIds=1,2,3), from the per-tour aggregates; at most
+    // the page-size cap of ids. Tours without reviews come back with a zero count
+    @GetMapping("/ratings")
+    public Mono<ResponseEntity<List<TourRatingSummary>>> getRatings(@RequestParam List<Long> tourIds) {
+        if (tourIds.size() > pagination.limit(Integer.MAX_VALUE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Too many tour ids, at most " + pagination.limit(Integer.MAX_VALUE));
+        }
+        return blockingExecutor.call(Subsystem.REVIEWS, () -> List.copyOf(tourRatingService.getRatings(tourIds).values()))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ratings/{tourId}")
+    public Mono<ResponseEntity<TourRatingSummary>> getRating(@PathVariable Long tourId) {
+        return blockingExecutor.call(Subsystem.REVIEWS, () -> tourRatingService.getRating(tourId))
+                .map(ResponseEntity::ok);
+    }
+
+    // Review GETs answer 304 to a matching If-None-Match without loading them, see ConditionalResponses
     @GetMapping
-    public ResponseEntity<List<Review>> getAllReviews() {
-        return ResponseEntity.ok(reviewService.getAllReviews());
+    public Mono<ResponseEntity<List<ReviewView>>> getAllReviews(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                ServerWebExchange exchange) {
+        PageCursor after = pagination.cursor(cursor);
+        long afterId = after == null ? 0L : after.id();
+        int pageSize = pagination.limit(limit);
+        return conditional.list(exchange, "reviews.page", Audience.PRIVATE, Subsystem.REVIEWS,
+                () -> reviewService.getReviewsAfterStamp(afterId, pageSize),
+                () -> pagination.respond(reviewService.getReviewsAfter(afterId, pageSize), review -> PageCursor.afterId(review.id())));
     }
 
     @GetMapping("/tour/{tourId}")
-    public ResponseEntity<List<Review>> getReviewsByTourId(@PathVariable Long tourId) {
-        return ResponseEntity.ok(reviewService.getReviewsByTourId(tourId));
+    public Mono<ResponseEntity<List<ReviewView>>> getReviewsByTourId(@PathVariable Long tourId, ServerWebExchange exchange) {
+        return conditional.list(exchange, "reviews.tour", Audience.PRIVATE, Subsystem.REVIEWS,
+                () -> reviewService.getReviewsByTourIdStamp(tourId),
+                () -> ResponseEntity.ok(reviewService.getReviewsByTourId(tourId)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Review> getReviewById(@PathVariable Long id) {
-        Optional<Review> review = reviewService.getReviewById(id);
-        return review.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<ReviewView>> getReviewById(@PathVariable Long id, ServerWebExchange exchange) {
+        return conditional.item(exchange, "reviews.item", Audience.PRIVATE, Subsystem.REVIEWS,
+                () -> reviewService.getReviewStamp(id),
+                () -> reviewService.getReviewById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteReview(@PathVariable Long id) {
-        reviewService.deleteReview(id);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> deleteReview(@PathVariable Long id) {
+        return blockingExecutor.run(Subsystem.REVIEWS, () -> reviewService.deleteReview(id))
+                .then(Mono.just(ResponseEntity.noContent().build()));
     }
-}
\ No newline at end of file
+}
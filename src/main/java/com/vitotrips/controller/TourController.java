@@ -1,9 +1,26 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.DTO.BulkLineResult;
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.TourBulkRow;
+import com.vitotrips.DTO.TourSearchHit;
+import com.vitotrips.DTO.TourSuggestion;
+import com.vitotrips.DTO.TourView;
+import com.vitotrips.controller.ConditionalResponses.Audience;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.Tour;
+import com.vitotrips.search.TourSearchService;
 import com.vitotrips.service.TourService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -12,39 +29,93 @@ import java.util.List;
 public class TourController {
 
     private final TourService tourService;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
+    private final NdjsonBulkWriter bulkWriter;
+    private final TourSearchService searchService;
+    private final ConditionalResponses conditional;
 
-    public TourController(TourService tourService) {
+    public TourController(TourService tourService, BlockingExecutor blockingExecutor,
+                          KeysetPagination pagination, NdjsonBulkWriter bulkWriter,
+                          TourSearchService searchService, ConditionalResponses conditional) {
         this.tourService = tourService;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
+        this.bulkWriter = bulkWriter;
+        this.searchService = searchService;
+        this.conditional = conditional;
     }
 
     @PostMapping
-    public ResponseEntity<Tour> saveTour(@RequestBody Tour tour) {
-        Tour savedTour = tourService.saveTour(tour);
-        return ResponseEntity.ok(savedTour);
+    public Mono<ResponseEntity<Tour>> saveTour(@RequestBody Tour tour) {
+        return blockingExecutor.call(Subsystem.TOURS, () -> tourService.saveTour(tour))
+                .map(ResponseEntity::ok);
     }
 
+    // See NdjsonBulkWriter
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkLineResult> saveTours(@RequestBody Flux<DataBuffer> body) {
+        return bulkWriter.write(body, TourBulkRow.class, Subsystem.TOURS, tourService::saveTours);
+    }
+
+    // GETs answer 304 to a matching If-None-Match without loading the tours, see ConditionalResponses
     @GetMapping
-    public ResponseEntity<List<Tour>> getAllTours() {
-        List<Tour> tours = tourService.getAllTours();
-        return ResponseEntity.ok(tours);
+    public Mono<ResponseEntity<List<Tour>>> getAllTours(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        ServerWebExchange exchange) {
+        PageCursor after = pagination.cursor(cursor);
+        long afterId = after == null ? 0L : after.id();
+        int pageSize = pagination.limit(limit);
+        return conditional.list(exchange, "tours.page", Audience.PUBLIC, Subsystem.TOURS,
+                () -> tourService.getToursAfterStamp(afterId, pageSize),
+                () -> pagination.respond(tourService.getToursAfter(afterId, pageSize), tour -> PageCursor.afterId(tour.getId())));
+    }
+
+    // Streams the catalogue as NDJSON straight from the R2DBC cursor, honouring client backpressure
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TourView> streamTours() {
+        return tourService.streamTours();
+    }
+
+    // Ranked full-text search over name, location and description, answered from the in-memory
+    // index on the calling thread (no database access)
+    @GetMapping("/search")
+    public ResponseEntity<List<TourSearchHit>> searchTours(@RequestParam("q") String query,
+                                                           @RequestParam(required = false) Integer limit) {
+        if (!searchService.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still loading, please retry");
+        }
+        return ResponseEntity.ok(searchService.search(query, pagination.limit(limit)));
+    }
+
+    // Typeahead: tour names and locations with a word starting with q, most booked first. Served
+    // from the in-memory trie on the calling thread, so it is cheap enough to call per keystroke
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<TourSuggestion>> autocompleteTours(@RequestParam("q") String prefix,
+                                                                 @RequestParam(required = false) Integer limit) {
+        if (!searchService.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still loading, please retry");
+        }
+        return ResponseEntity.ok(searchService.complete(prefix, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Tour> getTourById(@PathVariable Long id) {
-        return tourService.getTourById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<Tour>> getTourById(@PathVariable Long id, ServerWebExchange exchange) {
+        return conditional.cachedItem(exchange, "tours.item", Audience.PUBLIC, Subsystem.TOURS,
+                () -> tourService.getTourById(id),
+                tour -> ChangeStamp.of(List.of(tour), Tour::getId, Tour::getUpdatedAt));
     }
 
     @GetMapping("/location/{location}")
-    public ResponseEntity<List<Tour>> getToursByLocation(@PathVariable String location) {
-        List<Tour> tours = tourService.getToursByLocation(location);
-        return ResponseEntity.ok(tours);
+    public Mono<ResponseEntity<List<Tour>>> getToursByLocation(@PathVariable String location, ServerWebExchange exchange) {
+        return conditional.cachedList(exchange, "tours.location", Audience.PRIVATE, Subsystem.TOURS,
+                () -> tourService.getToursByLocation(location),
+                tours -> ChangeStamp.of(tours, Tour::getId, Tour::getUpdatedAt));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTour(@PathVariable Long id) {
-        tourService.deleteTour(id);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> deleteTour(@PathVariable Long id) {
+        return blockingExecutor.run(Subsystem.TOURS, () -> tourService.deleteTour(id))
+                .then(Mono.just(ResponseEntity.noContent().build()));
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.User;
 import com.vitotrips.model.UserRole;
 import com.vitotrips.service.UserService;
@@ -8,6 +10,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
 import java.util.List;
 
 
@@ -16,59 +20,61 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, BlockingExecutor blockingExecutor,
+                          KeysetPagination pagination) {
         this.userService = userService;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<User> saveUser(@Valid @RequestBody User user) {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(userService.saveUser(user));
+    public Mono<ResponseEntity<User>> saveUser(@Valid @RequestBody User user) {
+        return blockingExecutor.call(Subsystem.USERS, () -> userService.saveUser(user))
+                .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'TOUR_OPERATOR')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public Mono<ResponseEntity<List<User>>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit) {
+        PageCursor after = pagination.cursor(cursor);
+        int pageSize = pagination.limit(limit);
+        return blockingExecutor.call(Subsystem.USERS, () -> userService.getUsersAfter(after == null ? 0L : after.id(), pageSize))
+                .map(slice -> pagination.respond(slice, user -> PageCursor.afterId(user.getId())));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TOUR_OPERATOR', 'TRAVELER')")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return userService.getUserById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<User>> getUserById(@PathVariable Long id) {
+        return blockingExecutor.call(Subsystem.USERS, () -> userService.getUserById(id))
+                .map(user -> user.map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/email/{email}")
     @PreAuthorize("permitAll()")
-    public ResponseEntity<User>getUserByEmail(@PathVariable String email) {
-        try {
-            User user = userService.getUserByEmail(email);
-            return ResponseEntity.ok(user);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+    public Mono<ResponseEntity<User>> getUserByEmail(@PathVariable String email) {
+        return blockingExecutor.call(Subsystem.USERS, () -> userService.getUserByEmail(email))
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/role/{role}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getUsersByRole(@PathVariable UserRole role) {
-        List<User> users = userService.getUsersByRole(role);
-        return ResponseEntity.ok(users);
+    public Mono<ResponseEntity<List<User>>> getUsersByRole(@PathVariable UserRole role) {
+        return blockingExecutor.call(Subsystem.USERS, () -> userService.getUsersByRole(role))
+                .map(ResponseEntity::ok);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        try {
-            userService.deleteUser(id);
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        return blockingExecutor.run(Subsystem.USERS, () -> userService.deleteUser(id))
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,15 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.DTO.VolunteerOpportunityView;
+import com.vitotrips.controller.ConditionalResponses.Audience;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.model.VolunteerOpportunities;
 import com.vitotrips.service.VolunteerOpportunitiesService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,48 +19,66 @@ import java.util.List;
 public class VolunteerOpportunitiesController {
 
     private final VolunteerOpportunitiesService service;
+    private final BlockingExecutor blockingExecutor;
+    private final KeysetPagination pagination;
+    private final ConditionalResponses conditional;
 
-    public VolunteerOpportunitiesController(VolunteerOpportunitiesService service) {
+    public VolunteerOpportunitiesController(VolunteerOpportunitiesService service, BlockingExecutor blockingExecutor,
+                                            KeysetPagination pagination, ConditionalResponses conditional) {
         this.service = service;
+        this.blockingExecutor = blockingExecutor;
+        this.pagination = pagination;
+        this.conditional = conditional;
     }
 
     @PostMapping
-    public ResponseEntity<VolunteerOpportunities> saveOpportunity(@RequestBody VolunteerOpportunities opportunity) {
-        VolunteerOpportunities savedOpportunity = service.saveOpportunity(opportunity);
-        return ResponseEntity.ok(savedOpportunity);
+    public Mono<ResponseEntity<VolunteerOpportunities>> saveOpportunity(@RequestBody VolunteerOpportunities opportunity) {
+        return blockingExecutor.call(Subsystem.VOLUNTEER, () -> service.saveOpportunity(opportunity))
+                .map(ResponseEntity::ok);
     }
 
+    // GETs answer 304 to a matching If-None-Match without loading the opportunities, see ConditionalResponses
     @GetMapping
-    public ResponseEntity<List<VolunteerOpportunities>> getAllOpportunities() {
-        List<VolunteerOpportunities> opportunities = service.getAllOpportunities();
-        return ResponseEntity.ok(opportunities);
+    public Mono<ResponseEntity<List<VolunteerOpportunityView>>> getAllOpportunities(@RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(required = false) Integer limit,
+                                                                                     ServerWebExchange exchange) {
+        PageCursor after = pagination.cursor(cursor);
+        long afterId = after == null ? 0L : after.id();
+        int pageSize = pagination.limit(limit);
+        return conditional.list(exchange, "volunteer.page", Audience.PRIVATE, Subsystem.VOLUNTEER,
+                () -> service.getOpportunitiesAfterStamp(afterId, pageSize),
+                () -> pagination.respond(service.getOpportunitiesAfter(afterId, pageSize), opportunity -> PageCursor.afterId(opportunity.id())));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<VolunteerOpportunities> getOpportunityById(@PathVariable Long id) {
-        return service.getOpportunityById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<VolunteerOpportunityView>> getOpportunityById(@PathVariable Long id, ServerWebExchange exchange) {
+        return conditional.item(exchange, "volunteer.item", Audience.PRIVATE, Subsystem.VOLUNTEER,
+                () -> service.getOpportunityStamp(id),
+                () -> service.getOpportunityById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/tour/{tourId}")
-    public ResponseEntity<List<VolunteerOpportunities>> getOpportunitiesByTourId(@PathVariable Long tourId) {
-        List<VolunteerOpportunities> opportunities = service.getOpportunitiesByTourId(tourId);
-        return ResponseEntity.ok(opportunities);
+    public Mono<ResponseEntity<List<VolunteerOpportunityView>>> getOpportunitiesByTourId(@PathVariable Long tourId,
+                                                                                         ServerWebExchange exchange) {
+        return conditional.list(exchange, "volunteer.tour", Audience.PRIVATE, Subsystem.VOLUNTEER,
+                () -> service.getOpportunitiesByTourIdStamp(tourId),
+                () -> ResponseEntity.ok(service.getOpportunitiesByTourId(tourId)));
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<VolunteerOpportunities>> getOpportunitiesByDateRange(
+    public Mono<ResponseEntity<List<VolunteerOpportunityView>>> getOpportunitiesByDateRange(
             @RequestParam LocalDateTime startDate,
-            @RequestParam LocalDateTime endDate
+            @RequestParam LocalDateTime endDate,
+            ServerWebExchange exchange
     ) {
-        List<VolunteerOpportunities> opportunities = service.getOpportunitiesByDateRange(startDate, endDate);
-        return ResponseEntity.ok(opportunities);
+        return conditional.list(exchange, "volunteer.date_range", Audience.PRIVATE, Subsystem.VOLUNTEER,
+                () -> service.getOpportunitiesByDateRangeStamp(startDate, endDate),
+                () -> ResponseEntity.ok(service.getOpportunitiesByDateRange(startDate, endDate)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteOpportunity(@PathVariable Long id) {
-        service.deleteOpportunity(id);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> deleteOpportunity(@PathVariable Long id) {
+        return blockingExecutor.run(Subsystem.VOLUNTEER, () -> service.deleteOpportunity(id))
+                .then(Mono.just(ResponseEntity.noContent().build()));
     }
-}
\ No newline at end of file
+}
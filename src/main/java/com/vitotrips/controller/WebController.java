@@ -1,28 +1,66 @@
 package com.vitotrips.controller;
 
+import com.vitotrips.config.StaticAssets;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.ResponseBody;
-import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller for serving the Vue.js single-page application.
  * This controller handles all routes that should be handled by the frontend router.
+ * <p>
+ * The page is built once: its links to local assets are rewritten to their versioned URLs (see
+ * {@link StaticAssets}) and the result is kept in memory, plain and gzipped.
  */
 @Controller
 public class WebController {
 
+    // src / href attributes pointing at a served asset directory
+    private static final Pattern ASSET_LINK = Pattern.compile("((?:src|href)=\")(/[^\"/]+/[^\"]+)(\")");
+
+    private final byte[] page;
+    private final byte[] gzippedPage;
+    private final String etag;
+
+    public WebController(StaticAssets staticAssets) {
+        String template;
+        try {
+            template = new ClassPathResource("templates/index.html").getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read templates/index.html", e);
+        }
+        Matcher link = ASSET_LINK.matcher(template);
+        this.page = link.replaceAll(match -> Matcher.quoteReplacement(
+                match.group(1) + staticAssets.versioned(match.group(2)) + match.group(3))).getBytes(StandardCharsets.UTF_8);
+        this.gzippedPage = gzip(page);
+        this.etag = DigestUtils.md5DigestAsHex(page);
+    }
+
     /**
      * Forwards all routes to index.html so that the Vue.js router can handle them.
-     * This allows for client-side routing with history mode.
+     * This allows for client-side routing with history mode. Browsers revalidate the page on every
+     * use, so a deploy's new asset URLs reach them at once.
      *
-     * @return the index.html resource as a Mono
+     * @return the page, gzipped when the client accepts it
      */
     @GetMapping(value = {
             "/",
+            "/index.html",
             "/login",
             "/register",
             "/tours",
@@ -39,7 +77,29 @@ public class WebController {
             "/forgot-password"
     }, produces = MediaType.TEXT_HTML_VALUE)
     @ResponseBody
-    public Mono<Resource> forward() {
-        return Mono.just(new ClassPathResource("templates/index.html"));
+    public ResponseEntity<byte[]> forward(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Same test as EncodedResourceResolver for the assets
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.TEXT_HTML)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.eTag(etag).body(page);
+        }
+        // Each encoding is its own representation, with its own strong ETag
+        return response.eTag(etag + "-gzip")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(gzippedPage);
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
     }
-} 
\ No newline at end of file
+}
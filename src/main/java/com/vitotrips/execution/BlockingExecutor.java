@@ -0,0 +1,83 @@
+package com.vitotrips.execution;
+
+import com.vitotrips.persistence.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs blocking service-layer calls (JPA, JDBC) off the Netty event loop.
+ * Each {@link Subsystem} gets its own virtual-thread scheduler with a concurrency
+ * limit and a bounded queue, configured through
+ * {@code vitotrips.blocking.<subsystem>.max-concurrency} and {@code .max-queued}.
+ */
+@Component
+@Slf4j
+public class BlockingExecutor {
+
+    private final Map<Subsystem, BoundedVirtualThreadExecutor> executors = new EnumMap<>(Subsystem.class);
+    private final Map<Subsystem, Scheduler> schedulers = new EnumMap<>(Subsystem.class);
+
+    public BlockingExecutor(Environment environment, MeterRegistry meterRegistry) {
+        for (Subsystem subsystem : Subsystem.values()) {
+            String prefix = "vitotrips.blocking." + subsystem.key();
+            int maxConcurrency = environment.getProperty(prefix + ".max-concurrency", Integer.class,
+                    subsystem.defaultMaxConcurrency());
+            int maxQueued = environment.getProperty(prefix + ".max-queued", Integer.class, maxConcurrency * 50);
+
+            BoundedVirtualThreadExecutor executor =
+                    new BoundedVirtualThreadExecutor(subsystem.key(), maxConcurrency, maxQueued, meterRegistry);
+            executors.put(subsystem, executor);
+            schedulers.put(subsystem, Schedulers.fromExecutor(executor));
+            log.debug("Blocking scheduler '{}' limited to {} concurrent / {} queued tasks",
+                    subsystem.key(), maxConcurrency, maxQueued);
+        }
+    }
+
+    /**
+     * Defers the callable onto the subsystem's scheduler. A {@code null} result completes empty;
+     * a saturated queue surfaces as 503 so clients can back off. The SQL it sends counts against
+     * the request's statement budget, see {@link com.vitotrips.persistence.StatementBudgetFilter}.
+     */
+    public <T> Mono<T> call(Subsystem subsystem, Callable<T> task) {
+        return Mono.deferContextual(context -> {
+                    StatementCounter.Tally tally = context.getOrDefault(StatementCounter.Tally.class, null);
+                    return Mono.fromCallable(tally == null ? task : () -> StatementCounter.count(tally, task));
+                })
+                .subscribeOn(schedulers.get(subsystem))
+                .onErrorMap(RejectedExecutionException.class, e ->
+                        new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, please retry", e));
+    }
+
+    public Mono<Void> run(Subsystem subsystem, Runnable task) {
+        return call(subsystem, () -> {
+            task.run();
+            return null;
+        }).then();
+    }
+
+    public Scheduler scheduler(Subsystem subsystem) {
+        return schedulers.get(subsystem);
+    }
+
+    public BoundedVirtualThreadExecutor executor(Subsystem subsystem) {
+        return executors.get(subsystem);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        schedulers.values().forEach(Scheduler::dispose);
+    }
+}
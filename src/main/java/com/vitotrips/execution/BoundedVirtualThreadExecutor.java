@@ -0,0 +1,97 @@
+package com.vitotrips.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that starts every task on its own virtual thread but only lets
+ * {@code maxConcurrency} of them run at once. Tasks over the limit park on a
+ * semaphore (cheap for virtual threads) and count as queued; once
+ * {@code maxQueued} tasks are waiting, new submissions are rejected.
+ */
+public class BoundedVirtualThreadExecutor implements Executor {
+
+    private final String name;
+    private final int maxQueued;
+    private final Semaphore permits;
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public BoundedVirtualThreadExecutor(String name, int maxConcurrency, int maxQueued, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxQueued = maxQueued;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.threadFactory = Thread.ofVirtual().name("blocking-" + name + "-", 0).factory();
+
+        Gauge.builder("vitotrips.blocking.queued", queued, AtomicInteger::get)
+                .description("Tasks waiting for a concurrency permit")
+                .tag("subsystem", name)
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.blocking.active", active, AtomicInteger::get)
+                .description("Tasks currently running")
+                .tag("subsystem", name)
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.blocking.limit", () -> maxConcurrency)
+                .tag("subsystem", name)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("vitotrips.blocking.queue.wait")
+                .description("Time a task spent waiting for a concurrency permit")
+                .tag("subsystem", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("vitotrips.blocking.rejected")
+                .description("Tasks rejected because the queue was full")
+                .tag("subsystem", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Blocking executor '" + name + "' is saturated");
+        }
+        long enqueuedAt = System.nanoTime();
+        threadFactory.newThread(() -> runWithPermit(task, enqueuedAt)).start();
+    }
+
+    private void runWithPermit(Runnable task, long enqueuedAt) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        queued.decrementAndGet();
+        queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+}
@@ -0,0 +1,50 @@
+package com.vitotrips.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Installs a guard on every Spring Data repository at startup: a repository call made on a
+ * reactor-netty event loop (or any other Reactor non-blocking thread) fails immediately
+ * instead of silently stalling every connection served by that loop.
+ * Disable with {@code vitotrips.blocking.guard.enabled=false}.
+ */
+@Component
+@Slf4j
+public class RepositoryThreadGuard implements BeanPostProcessor, EnvironmentAware {
+
+    private boolean enabled = true;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.enabled = environment.getProperty("vitotrips.blocking.guard.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (enabled && bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(0, guard(repositoryInformation.getRepositoryInterface().getSimpleName()))));
+            log.debug("Event-loop guard installed on repository '{}'", beanName);
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor guard(String repositoryName) {
+        return invocation -> {
+            if (Schedulers.isInNonBlockingThread()) {
+                throw new IllegalStateException("Blocking repository call %s.%s() on non-blocking thread '%s'; use BlockingExecutor"
+                        .formatted(repositoryName, invocation.getMethod().getName(), Thread.currentThread().getName()));
+            }
+            return invocation.proceed();
+        };
+    }
+}
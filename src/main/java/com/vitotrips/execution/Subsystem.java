@@ -0,0 +1,36 @@
+package com.vitotrips.execution;
+
+/**
+ * Service areas whose blocking (JPA) work is isolated on its own bounded scheduler.
+ * A slow query in one area can only occupy that area's share of the connection pool.
+ */
+public enum Subsystem {
+    TOURS("tours", 10),
+    BOOKINGS("bookings", 8),
+    PAYMENTS("payments", 6),
+    USERS("users", 10),
+    GROUPS("groups", 4),
+    REVIEWS("reviews", 4),
+    VOLUNTEER("volunteer", 4),
+    // Long-running streaming exports; each one holds a connection for the whole transfer
+    EXPORTS("exports", 2),
+    // Catalogue imports; one at a time, each can run for minutes
+    IMPORTS("imports", 1);
+
+    private final String key;
+    private final int defaultMaxConcurrency;
+
+    Subsystem(String key, int defaultMaxConcurrency) {
+        this.key = key;
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+    }
+
+    // Property / metric tag name, e.g. vitotrips.blocking.tours.max-concurrency
+    public String key() {
+        return key;
+    }
+
+    public int defaultMaxConcurrency() {
+        return defaultMaxConcurrency;
+    }
+}
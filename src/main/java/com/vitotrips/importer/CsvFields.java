@@ -0,0 +1,45 @@
+package com.vitotrips.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits one RFC 4180 record into fields: comma separated, fields optionally double-quoted,
+ * {@code ""} inside quotes for a literal quote. Quoted fields may span lines.
+ */
+final class CsvFields {
+
+    private CsvFields() {
+    }
+
+    static List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
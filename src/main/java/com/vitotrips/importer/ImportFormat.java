@@ -0,0 +1,34 @@
+package com.vitotrips.importer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Input formats of the catalogue importer: CSV with a header row, or one JSON object per line.
+ */
+public enum ImportFormat {
+    CSV, NDJSON;
+
+    public static ImportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported import format '" + value + "', expected csv or ndjson");
+        }
+    }
+
+    // Explicit format if given, otherwise taken from the file extension (.csv, .ndjson / .jsonl)
+    public static ImportFormat resolve(String value, Path file) {
+        if (value != null && !value.isBlank()) {
+            return from(value);
+        }
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + file.getFileName() + ", pass csv or ndjson");
+    }
+}
@@ -0,0 +1,121 @@
+package com.vitotrips.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a text file record by record through a sliding memory-mapped window.
+ * <p>
+ * The file is mapped {@link #WINDOW_SIZE} bytes at a time and the window is moved forward to the
+ * start of the record that crosses its end, so a file of any size is read with a fixed mapping and
+ * one reusable line buffer; pages behind the window are left to the OS page cache. Records end at
+ * {@code \n} (a trailing {@code \r} is dropped). With {@code quoteAware} set, newlines inside
+ * double-quoted CSV fields do not end a record. Not thread-safe.
+ */
+class MappedRecordReader implements Closeable {
+
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final boolean quoteAware;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private byte[] record = new byte[8192];
+    private long recordNumber;
+
+    MappedRecordReader(Path file, boolean quoteAware) throws IOException {
+        this(file, quoteAware, WINDOW_SIZE);
+    }
+
+    // A window of a few bytes lets tests cross window boundaries without 64 MiB files
+    MappedRecordReader(Path file, boolean quoteAware, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.quoteAware = quoteAware;
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    /**
+     * Returns the next record, or {@code null} at end of file.
+     */
+    String next() throws IOException {
+        if (windowStart + window.position() >= fileSize) {
+            return null;
+        }
+        int start = window.position();
+        int end = findEnd(start);
+        if (end < 0) {
+            // The record runs past the window: slide the window to its first byte and look again
+            long recordStart = windowStart + start;
+            if (windowStart + window.limit() < fileSize) {
+                map(recordStart);
+                start = 0;
+                end = findEnd(start);
+            }
+            if (end < 0 && windowStart + window.limit() < fileSize) {
+                throw new IOException("Record " + (recordNumber + 1) + " is longer than " + windowSize + " bytes");
+            }
+            if (end < 0) {
+                end = window.limit();
+            }
+        }
+        int length = end - start;
+        window.position(Math.min(end + 1, window.limit()));
+        if (length > 0 && window.get(start + length - 1) == '\r') {
+            length--;
+        }
+        if (record.length < length) {
+            record = Arrays.copyOf(record, Math.max(length, record.length * 2));
+        }
+        window.get(start, record, 0, length);
+        recordNumber++;
+        return new String(record, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // 1-based number of the record last returned by next()
+    long recordNumber() {
+        return recordNumber;
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    long size() {
+        return fileSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Index of the record's terminating newline within the window, or -1 if the window ends first
+    private int findEnd(int from) {
+        boolean quoted = false;
+        int limit = window.limit();
+        for (int i = from; i < limit; i++) {
+            byte b = window.get(i);
+            if (b == '"' && quoteAware) {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, fileSize - offset));
+    }
+}
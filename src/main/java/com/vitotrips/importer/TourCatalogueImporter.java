@@ -0,0 +1,306 @@
+package com.vitotrips.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.vitotrips.DTO.TourBulkRow;
+import com.vitotrips.DTO.TourImportReport;
+import com.vitotrips.cache.CacheNames;
+import com.vitotrips.service.event.TourChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the tour catalogue from an operator feed on disk, upserting by the unique {@code tour_name}.
+ * <p>
+ * The file is read through {@link MappedRecordReader}; each record is parsed and bean-validated on
+ * its own and invalid ones are counted and skipped. Valid rows are written
+ * {@code vitotrips.import.batch-size} at a time as one JDBC batch of
+ * {@code INSERT ... ON CONFLICT (tour_name) DO UPDATE} in its own transaction, so memory stays flat
+ * and an interrupted import keeps the batches already written; re-running the same feed is harmless.
+ * A batch the database rejects is retried row by row. Progress is logged every
+ * {@code vitotrips.import.progress-interval}. Postgres only.
+ */
+@Service
+@Slf4j
+public class TourCatalogueImporter {
+
+    private static final String UPSERT = """
+            INSERT INTO tours (id, tour_name, location, description, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (tour_name) DO UPDATE
+            SET location = EXCLUDED.location, description = EXCLUDED.description, updated_at = EXCLUDED.updated_at""";
+
+    // Same pooled sequence and block size as Tour's id generator, so imported ids never collide with Hibernate's
+    private static final String NEXT_ID_BLOCKS = "SELECT nextval('tours_seq') FROM generate_series(1, ?)";
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ObjectReader ndjsonReader;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter upsertedRows;
+    private final Counter rejectedRows;
+    private final int batchSize;
+    private final Duration progressInterval;
+
+    public TourCatalogueImporter(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 CacheManager cacheManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${vitotrips.import.batch-size:1000}") int batchSize,
+                                 @Value("${vitotrips.import.progress-interval:PT5S}") Duration progressInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ndjsonReader = objectMapper.readerFor(TourBulkRow.class);
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.upsertedRows = Counter.builder("vitotrips.import.rows")
+                .description("Catalogue rows written by the tour importer")
+                .tag("outcome", "upserted")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("vitotrips.import.rows")
+                .description("Catalogue rows written by the tour importer")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    public TourImportReport importTours(Path file, ImportFormat format) throws IOException {
+        Run run = new Run(file, format);
+        log.info("Importing tours from {} ({}, {} bytes)", file, format, file.toFile().length());
+        try (MappedRecordReader reader = new MappedRecordReader(file, format == ImportFormat.CSV)) {
+            CsvColumns columns = format == ImportFormat.CSV ? CsvColumns.fromHeader(reader.next()) : null;
+            // Keyed by name: a feed listing a tour twice in one batch keeps the last entry, as a
+            // single INSERT ... ON CONFLICT statement may not touch the same row twice
+            Map<String, Row> batch = new LinkedHashMap<>();
+            String record;
+            while ((record = reader.next()) != null) {
+                if (record.isBlank()) {
+                    continue;
+                }
+                run.rowsRead++;
+                Row row = parse(reader.recordNumber(), record, columns, run);
+                if (row != null) {
+                    batch.put(row.values().tourName(), row);
+                }
+                if (batch.size() >= batchSize) {
+                    store(batch, run);
+                }
+                run.progress(reader);
+            }
+            store(batch, run);
+        } finally {
+            if (run.upserted > 0) {
+                evictTourCaches();
+                eventPublisher.publishEvent(TourChangedEvent.all());
+            }
+        }
+        TourImportReport report = run.report();
+        log.info("Imported {}: {} rows read, {} upserted, {} rejected in {} ms ({} rows/s)", file,
+                report.rowsRead(), report.upserted(), report.rejected(), report.elapsedMillis(), report.rowsPerSecond());
+        return report;
+    }
+
+    private Row parse(long line, String record, CsvColumns columns, Run run) {
+        TourBulkRow values;
+        try {
+            values = columns != null ? columns.row(record) : ndjsonReader.readValue(record);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            run.reject(line, e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<TourBulkRow>> violations = validator.validate(values);
+        if (!violations.isEmpty()) {
+            run.reject(line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return new Row(line, values);
+    }
+
+    private void store(Map<String, Row> batch, Run run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Row> rows = List.copyOf(batch.values());
+        batch.clear();
+        try {
+            transaction.executeWithoutResult(status -> upsert(rows));
+            run.upserted(rows.size());
+        } catch (DataAccessException e) {
+            log.debug("Import batch of {} rows failed, retrying row by row: {}", rows.size(), e.getMessage());
+            for (Row row : rows) {
+                try {
+                    transaction.executeWithoutResult(status -> upsert(List.of(row)));
+                    run.upserted(1);
+                } catch (DataAccessException rowFailure) {
+                    run.reject(row.line(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    private void upsert(List<Row> rows) {
+        Deque<Long> ids = allocateIds(rows.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> arguments = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            TourBulkRow values = row.values();
+            arguments.add(new Object[]{ids.pop(), values.tourName(), values.location(), values.description(), now, now});
+        }
+        jdbcTemplate.batchUpdate(UPSERT, arguments);
+    }
+
+    // Each sequence value v reserves ids (v - 50, v], the block Hibernate's pooled optimizer would
+    // use. Ids taken for rows that end up updating an existing tour are simply skipped
+    private Deque<Long> allocateIds(int count) {
+        Deque<Long> ids = new ArrayDeque<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            for (Long high : jdbcTemplate.queryForList(NEXT_ID_BLOCKS, Long.class, blocks)) {
+                for (long id = Math.max(1, high - ID_BLOCK_SIZE + 1); id <= high; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void evictTourCaches() {
+        for (String name : List.of(CacheNames.TOURS, CacheNames.TOURS_BY_LOCATION)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private record Row(long line, TourBulkRow values) {
+    }
+
+    // Column positions taken from the header row, so feeds may order or extend columns freely
+    private record CsvColumns(int tourName, int location, int description) {
+
+        static CsvColumns fromHeader(String header) {
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty, expected a header row");
+            }
+            List<String> names = CsvFields.split(header).stream()
+                    .map(name -> name.strip().toLowerCase(Locale.ROOT).replace("_", ""))
+                    .toList();
+            int tourName = names.indexOf("tourname");
+            int location = names.indexOf("location");
+            if (tourName < 0 || location < 0) {
+                throw new IllegalArgumentException("CSV header must name tour_name and location columns, got: " + header);
+            }
+            return new CsvColumns(tourName, location, names.indexOf("description"));
+        }
+
+        TourBulkRow row(String record) {
+            List<String> fields = CsvFields.split(record);
+            return new TourBulkRow(field(fields, tourName), field(fields, location), field(fields, description));
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).strip();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // Counters and progress for one importTours call
+    private final class Run {
+        private final Path file;
+        private final ImportFormat format;
+        private final long startedAt = System.nanoTime();
+        private final List<String> errors = new ArrayList<>();
+        private long nextProgressAt;
+        private long rowsRead;
+        private long upserted;
+        private long rejected;
+
+        Run(Path file, ImportFormat format) {
+            this.file = file;
+            this.format = format;
+            this.nextProgressAt = startedAt + progressInterval.toNanos();
+        }
+
+        void upserted(int rows) {
+            upserted += rows;
+            upsertedRows.increment(rows);
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            rejectedRows.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + line + ": " + reason);
+                log.warn("Import of {} skipped line {}: {}", file.getFileName(), line, reason);
+            }
+        }
+
+        void progress(MappedRecordReader reader) {
+            long now = System.nanoTime();
+            if (now < nextProgressAt) {
+                return;
+            }
+            nextProgressAt = now + progressInterval.toNanos();
+            log.info("Importing {}: {}% read, {} rows ({} upserted, {} rejected), {} rows/s", file.getFileName(),
+                    reader.size() == 0 ? 100 : reader.position() * 100 / reader.size(),
+                    rowsRead, upserted, rejected, rowsPerSecond(now));
+        }
+
+        TourImportReport report() {
+            long now = System.nanoTime();
+            return new TourImportReport(file.toString(), format.name().toLowerCase(Locale.ROOT), rowsRead, upserted,
+                    rejected, Duration.ofNanos(now - startedAt).toMillis(), rowsPerSecond(now), List.copyOf(errors));
+        }
+
+        private long rowsPerSecond(long now) {
+            long elapsed = Math.max(1, now - startedAt);
+            return rowsRead * 1_000_000_000L / elapsed;
+        }
+    }
+}
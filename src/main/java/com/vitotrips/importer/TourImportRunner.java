@@ -0,0 +1,57 @@
+package com.vitotrips.importer;
+
+import com.vitotrips.DTO.TourImportReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command-line catalogue import: runs {@link TourCatalogueImporter} for every
+ * {@code --import-tours=<file>} argument, then shuts the application down with exit code 0,
+ * or 1 if any file could not be imported. For example
+ * <pre>
+ * java -jar app.jar --spring.main.web-application-type=none --import-tours=tours.csv
+ * </pre>
+ * {@code --import-format=csv|ndjson} overrides the format taken from the file extension.
+ * Without {@code --import-tours} the application starts normally.
+ */
+@Component
+@Slf4j
+public class TourImportRunner implements ApplicationRunner {
+
+    private final TourCatalogueImporter importer;
+    private final ConfigurableApplicationContext context;
+
+    public TourImportRunner(TourCatalogueImporter importer, ConfigurableApplicationContext context) {
+        this.importer = importer;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("import-tours")) {
+            return;
+        }
+        List<String> formats = args.getOptionValues("import-format");
+        String format = formats == null || formats.isEmpty() ? null : formats.get(0);
+        boolean failed = false;
+        for (String file : args.getOptionValues("import-tours")) {
+            try {
+                Path path = Path.of(file);
+                TourImportReport report = importer.importTours(path, ImportFormat.resolve(format, path));
+                failed |= report.rowsRead() > 0 && report.upserted() == 0;
+            } catch (Exception e) {
+                log.error("Import of {} failed", file, e);
+                failed = true;
+            }
+        }
+        int exitCode = failed ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
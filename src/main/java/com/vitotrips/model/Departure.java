@@ -0,0 +1,37 @@
+package com.vitotrips.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One tour on one date with a seat capacity, split over its {@link DepartureBucket}s. The row is
+ * locked only by capacity changes and reconciliation; bookings move the buckets.
+ */
+@Entity
+@Table(name = "departures")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Departure {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tour_id", nullable = false)
+    private Long tourId;
+
+    @Column(name = "departure_date", nullable = false)
+    private LocalDate departureDate;
+
+    @Column(name = "capacity", nullable = false)
+    private int capacity;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.vitotrips.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A share of a {@link Departure}'s capacity. {@code reserved} is the sum of the
+ * {@link SeatReservation}s taken from this bucket, moved in place by {@code SeatInventoryService}
+ * in the same transaction as each booking, and recounted by its reconciliation.
+ */
+@Entity
+@Table(name = "departure_buckets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartureBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "departure_buckets_seq")
+    @SequenceGenerator(name = "departure_buckets_seq", sequenceName = "departure_buckets_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "departure_id", nullable = false)
+    private Long departureId;
+
+    @Column(name = "bucket", nullable = false)
+    private int bucket;
+
+    @Column(name = "capacity", nullable = false)
+    private int capacity;
+
+    @Column(name = "reserved", nullable = false)
+    private int reserved;
+}
@@ -1,9 +1,12 @@
 package com.vitotrips.model;
 
+import com.vitotrips.persistence.SecondLevelCacheRegion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -14,6 +17,10 @@ import java.util.List;
 
 @Entity
 @Table(name = "groups") // Explicit table name for clarity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.GROUPS)
+@NamedEntityGraph(name = Group.WITH_LEADER_AND_TOUR, attributeNodes = {
+        @NamedAttributeNode("leader"), @NamedAttributeNode("tour")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +28,8 @@ import java.util.List;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true) // Avoid recursive equals/hashCode
 public class Group {
 
+    public static final String WITH_LEADER_AND_TOUR = "Group.withLeaderAndTour";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @EqualsAndHashCode.Include // Only include id in hashCode/equals
@@ -42,6 +51,7 @@ public class Group {
     // Removed bookings (error-causing), no unnecessary relationships with Booking
 
     @OneToMany(mappedBy = "group", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.GROUP_MEMBER_LISTS)
     @Builder.Default // Ensure empty list upon creation
     private List<GroupMember> members = new ArrayList<>();
 
@@ -1,11 +1,17 @@
 package com.vitotrips.model;
 
-
+import com.vitotrips.persistence.SecondLevelCacheRegion;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "group_members")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.GROUP_MEMBERS)
+@NamedEntityGraph(name = GroupMember.WITH_GROUP_AND_USER, attributeNodes = {
+        @NamedAttributeNode("group"), @NamedAttributeNode("user")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,8 +19,12 @@ import lombok.*;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true) // Safer equals/hashCode
 public class GroupMember {
 
+    public static final String WITH_GROUP_AND_USER = "GroupMember.withGroupAndUser";
+
+    // Pooled sequence, see Booking
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_members_seq")
+    @SequenceGenerator(name = "group_members_seq", sequenceName = "group_members_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
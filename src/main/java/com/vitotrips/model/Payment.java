@@ -59,6 +59,15 @@ public class Payment {
     @Column(name = "refund_reason")
     private String refundReason;
 
+    // Set while a processor call is in flight; the recovery job finishes operations left here by a crash
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pending_operation")
+    private PendingOperation pendingOperation;
+
+    @Column(name = "operation_started_at")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime operationStartedAt;
+
     @CreatedDate
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -82,4 +91,18 @@ public class Payment {
     public enum PaymentStatus {
         PENDING, CONFIRMED, FAILED, REFUNDED
     }
+
+    /**
+     * Processor calls that may have happened without their outcome being recorded.
+     */
+    public enum PendingOperation {
+        CREATE, REFUND
+    }
+
+    /**
+     * Stripe idempotency key for an operation on this payment, so a retried call can't charge or refund twice.
+     */
+    public String idempotencyKey(PendingOperation operation) {
+        return "vitotrips-payment-" + id + "-" + operation.name().toLowerCase();
+    }
 }
\ No newline at end of file
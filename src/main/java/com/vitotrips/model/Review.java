@@ -4,14 +4,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "reviews") // Explicitly specify the table name
+// User and tour are eager; without the graph a list load fetches them with a select per distinct row
+@NamedEntityGraph(name = Review.WITH_USER_AND_TOUR, attributeNodes = {
+        @NamedAttributeNode("user"), @NamedAttributeNode("tour")})
+@EntityListeners(AuditingEntityListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Review {
 
+    public static final String WITH_USER_AND_TOUR = "Review.withUserAndTour";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id; // Unique identifier for the review
@@ -29,4 +39,8 @@ public class Review {
     @ManyToOne
     @JoinColumn(name = "tour_id", nullable = false)
     private Tour tour; // The tour the review is about
+
+    @LastModifiedDate // Set on insert and update, read by the HTTP validators
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.vitotrips.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Seats a booking holds on a {@link Departure}; the durable record behind the departure's
+ * {@code reserved} count.
+ */
+@Entity
+@Table(name = "seat_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatReservation {
+
+    // The booking's id, not generated
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "departure_id", nullable = false)
+    private Long departureId;
+
+    // The departure bucket the seats were taken from
+    @Column(name = "bucket", nullable = false)
+    private int bucket;
+
+    @Column(name = "seats", nullable = false)
+    private int seats;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,12 +1,16 @@
 package com.vitotrips.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.vitotrips.persistence.SecondLevelCacheRegion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
@@ -15,6 +19,10 @@ import java.util.List;
 
 @Entity
 @Table(name = "tours") // Explicit table name for clarity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.TOURS)
+// Fills the audit dates; without it updates left updatedAt at its insert time
+@EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,8 +30,10 @@ import java.util.List;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true) // Avoid recursive equals/hashCode
 public class Tour {
 
+    // Pooled sequence, see Booking
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tours_seq")
+    @SequenceGenerator(name = "tours_seq", sequenceName = "tours_seq", allocationSize = 50)
     @EqualsAndHashCode.Include // Only include id in hashCode/equals
     private Long id;
 
@@ -42,6 +52,7 @@ public class Tour {
     // Removed invalid bookings relationship (error-causing)
 
     @OneToMany(mappedBy = "tour", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.TOUR_GROUPS)
     @Builder.Default
     @JsonIgnore // Add this annotation to prevent LazyInitializationException
     private List<Group> groups = new ArrayList<>();
@@ -0,0 +1,49 @@
+package com.vitotrips.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running review totals of one tour: count, sum and a 1-5 star histogram, kept in step with the
+ * reviews table by {@code TourRatingService} in the same transaction as each review change.
+ */
+@Entity
+@Table(name = "tour_ratings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TourRating {
+
+    // The tour's id, not generated
+    @Id
+    @Column(name = "tour_id")
+    private Long tourId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "one_star", nullable = false)
+    private long oneStar;
+
+    @Column(name = "two_stars", nullable = false)
+    private long twoStars;
+
+    @Column(name = "three_stars", nullable = false)
+    private long threeStars;
+
+    @Column(name = "four_stars", nullable = false)
+    private long fourStars;
+
+    @Column(name = "five_stars", nullable = false)
+    private long fiveStars;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
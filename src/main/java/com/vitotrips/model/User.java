@@ -1,10 +1,13 @@
 package com.vitotrips.model;
 
+import com.vitotrips.persistence.SecondLevelCacheRegion;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -23,6 +26,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "users") // Explicit table name for clarity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.USERS)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -62,6 +67,7 @@ public class User implements UserDetails {
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime updatedAt;
 
+    // Not second-level cached, unlike the user: bookings change far more often than they are walked from here
     @JsonIgnore // Prevent fetching all bookings when serializing User
     @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Booking> bookings = new ArrayList<>();
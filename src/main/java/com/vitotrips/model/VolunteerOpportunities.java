@@ -1,13 +1,22 @@
 package com.vitotrips.model;
 
+import com.vitotrips.persistence.SecondLevelCacheRegion;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "volunteer_opportunities")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegion.Names.VOLUNTEER_OPPORTUNITIES)
+@NamedEntityGraph(name = VolunteerOpportunities.WITH_TOUR, attributeNodes = @NamedAttributeNode("tour"))
+@EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,6 +24,8 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true) // Safer equals/hashCode
 public class VolunteerOpportunities {
 
+    public static final String WITH_TOUR = "VolunteerOpportunities.withTour";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @EqualsAndHashCode.Include
@@ -35,6 +46,10 @@ public class VolunteerOpportunities {
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime endDate;
 
+    @LastModifiedDate // Set on insert and update, read by the HTTP validators
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
     /**
      * Ensures that startDate is before endDate.
      */
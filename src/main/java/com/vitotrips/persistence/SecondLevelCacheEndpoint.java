@@ -0,0 +1,53 @@
+package com.vitotrips.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/l2cache}: hits, misses and puts of each second-level cache region on this node,
+ * next to its configured size and time-to-live. The same counters are exported as the
+ * {@code hibernate.second.level.cache.*} meters.
+ */
+@Component
+@Endpoint(id = "l2cache")
+public class SecondLevelCacheEndpoint {
+
+    private final Statistics statistics;
+    private final Environment environment;
+
+    public SecondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory, Environment environment) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.environment = environment;
+    }
+
+    @ReadOperation
+    public Map<String, RegionReport> regions() {
+        Map<String, RegionReport> regions = new LinkedHashMap<>();
+        for (SecondLevelCacheRegion region : SecondLevelCacheRegion.values()) {
+            CacheRegionStatistics counts = statistics.getCacheRegionStatistics(region.regionName());
+            regions.put(region.regionName(), counts == null
+                    ? new RegionReport(0, 0, 0, 0, region.maxSize(environment), region.ttl(environment))
+                    : new RegionReport(counts.getHitCount(), counts.getMissCount(), counts.getPutCount(),
+                            hitRatio(counts), region.maxSize(environment), region.ttl(environment)));
+        }
+        return regions;
+    }
+
+    private static double hitRatio(CacheRegionStatistics counts) {
+        long lookups = counts.getHitCount() + counts.getMissCount();
+        return lookups == 0 ? 0 : (double) counts.getHitCount() / lookups;
+    }
+
+    public record RegionReport(long hits, long misses, long puts, double hitRatio, long maxSize, Duration ttl) {
+    }
+}
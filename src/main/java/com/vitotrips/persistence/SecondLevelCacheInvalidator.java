@@ -0,0 +1,132 @@
+package com.vitotrips.persistence;
+
+import com.vitotrips.cache.CacheInvalidationBus;
+import com.vitotrips.model.Tour;
+import com.vitotrips.service.event.TourChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.metamodel.mapping.EntityValuedModelPart;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the per-node Hibernate second-level caches coherent across nodes.
+ * <p>
+ * Each committed insert, update or delete of a cached entity is published on the
+ * {@link CacheInvalidationBus} as {@code <entity name>#<id>}. Every node then evicts that entity, the
+ * cached collections that can hold it and the query results. Writes that bypass Hibernate are
+ * published per entity type: the catalogue importer's JDBC upsert clears the whole tour region.
+ */
+@Component
+@Slf4j
+public class SecondLevelCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    static final String REGION = "hibernate-l2";
+
+    private final Cache cache;
+    private final CacheInvalidationBus invalidationBus;
+    // Cached collection roles by the entity they contain, e.g. Group -> Tour.groups
+    private final Map<String, List<String>> collectionRolesByElement = new HashMap<>();
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationBus invalidationBus) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.cache = sessionFactory.getCache();
+        this.invalidationBus = invalidationBus;
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (collection.hasCache() && collection.getAttributeMapping().getElementDescriptor() instanceof EntityValuedModelPart element) {
+                collectionRolesByElement.computeIfAbsent(element.getEntityMappingType().getEntityName(), name -> new ArrayList<>())
+                        .add(collection.getRole());
+            }
+        });
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        invalidationBus.subscribe(REGION, this::evict);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    // The transaction rolled back, so there is nothing to invalidate
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Only a whole-catalogue change (an import) bypasses Hibernate; single tours come through the listeners
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (event.tourIds() == null) {
+            invalidationBus.publish(REGION, Tour.class.getName());
+        }
+    }
+
+    private void publish(EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            invalidationBus.publish(REGION, persister.getEntityName() + "#" + id);
+        }
+    }
+
+    // Bus callback, here and on the other nodes: "<entity name>#<id>", an entity name alone, or null for everything
+    private void evict(String key) {
+        if (key == null) {
+            cache.evictAllRegions();
+            return;
+        }
+        int separator = key.indexOf('#');
+        String entityName = separator < 0 ? key : key.substring(0, separator);
+        if (separator < 0) {
+            cache.evictEntityData(entityName);
+        } else {
+            // Every cached entity has a Long id
+            cache.evictEntityData(entityName, Long.valueOf(key.substring(separator + 1)));
+        }
+        for (String role : collectionRolesByElement.getOrDefault(entityName, List.of())) {
+            cache.evictCollectionData(role);
+        }
+        cache.evictQueryRegions();
+        log.debug("Evicted {} from the second-level cache", key);
+    }
+}
@@ -0,0 +1,75 @@
+package com.vitotrips.persistence;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Regions of the Hibernate second-level cache and their default sizing, overridable through
+ * {@code vitotrips.jpa.l2.<key>.max-size} and {@code .ttl}. Entities and collections name their
+ * region with {@code @Cache(region = ...)} from {@link Names}.
+ */
+public enum SecondLevelCacheRegion {
+    TOURS("tours", Names.TOURS, 10_000, Duration.ofMinutes(30)),
+    TOUR_GROUPS("tour-groups", Names.TOUR_GROUPS, 10_000, Duration.ofMinutes(30)),
+    USERS("users", Names.USERS, 20_000, Duration.ofMinutes(10)),
+    GROUPS("groups", Names.GROUPS, 10_000, Duration.ofMinutes(30)),
+    GROUP_MEMBERS("group-members", Names.GROUP_MEMBERS, 50_000, Duration.ofMinutes(30)),
+    GROUP_MEMBER_LISTS("group-member-lists", Names.GROUP_MEMBER_LISTS, 10_000, Duration.ofMinutes(30)),
+    VOLUNTEER_OPPORTUNITIES("volunteer-opportunities", Names.VOLUNTEER_OPPORTUNITIES, 10_000, Duration.ofMinutes(30)),
+    // Query results go stale with any write to their tables, so they are kept briefly
+    QUERY_RESULTS("query-results", "default-query-results-region", 5_000, Duration.ofMinutes(5)),
+    // Last write time per table; must outlive every cached query result, so it never expires
+    UPDATE_TIMESTAMPS("update-timestamps", "default-update-timestamps-region", 10_000, null);
+
+    private final String key;
+    private final String regionName;
+    private final long defaultMaxSize;
+    private final Duration defaultTtl;
+
+    SecondLevelCacheRegion(String key, String regionName, long defaultMaxSize, Duration defaultTtl) {
+        this.key = key;
+        this.regionName = regionName;
+        this.defaultMaxSize = defaultMaxSize;
+        this.defaultTtl = defaultTtl;
+    }
+
+    // Property name, e.g. vitotrips.jpa.l2.tours.max-size
+    public String key() {
+        return key;
+    }
+
+    public String regionName() {
+        return regionName;
+    }
+
+    public long defaultMaxSize() {
+        return defaultMaxSize;
+    }
+
+    // Null for a region whose entries never expire
+    public Duration defaultTtl() {
+        return defaultTtl;
+    }
+
+    public long maxSize(Environment environment) {
+        return environment.getProperty("vitotrips.jpa.l2." + key + ".max-size", Long.class, defaultMaxSize);
+    }
+
+    public Duration ttl(Environment environment) {
+        return environment.getProperty("vitotrips.jpa.l2." + key + ".ttl", Duration.class, defaultTtl);
+    }
+
+    public static final class Names {
+        public static final String TOURS = "tours";
+        public static final String TOUR_GROUPS = "tours.groups";
+        public static final String USERS = "users";
+        public static final String GROUPS = "groups";
+        public static final String GROUP_MEMBERS = "group-members";
+        public static final String GROUP_MEMBER_LISTS = "groups.members";
+        public static final String VOLUNTEER_OPPORTUNITIES = "volunteer-opportunities";
+
+        private Names() {
+        }
+    }
+}
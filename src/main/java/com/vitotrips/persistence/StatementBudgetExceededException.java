@@ -0,0 +1,12 @@
+package com.vitotrips.persistence;
+
+/**
+ * A request sent more SQL statements than its budget allows, usually lazy associations loaded one
+ * row at a time. Only thrown when {@code vitotrips.jpa.statement-budget.enforce} is on.
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(int limit, String sql) {
+        super("More than " + limit + " SQL statements in one request, likely an N+1 fetch; over budget: " + sql);
+    }
+}
@@ -0,0 +1,64 @@
+package com.vitotrips.persistence;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives every {@code /api/} request a {@link StatementCounter.Tally} in its Reactor context and
+ * records the count per route as {@code vitotrips.jpa.statements}.
+ * <p>
+ * A request over {@code vitotrips.jpa.statement-budget.max} is logged as a likely N+1 fetch. With
+ * {@code vitotrips.jpa.statement-budget.enforce} (the test profile) the statement over the budget
+ * throws instead, so the endpoint fails rather than quietly getting slower.
+ */
+@Component
+@Slf4j
+public class StatementBudgetFilter implements WebFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+    private final boolean enforce;
+
+    public StatementBudgetFilter(MeterRegistry meterRegistry,
+                                 @Value("${vitotrips.jpa.statement-budget.max:10}") int budget,
+                                 @Value("${vitotrips.jpa.statement-budget.enforce:false}") boolean enforce) {
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+        this.enforce = enforce;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        StatementCounter.Tally tally = enforce ? new StatementCounter.Tally(budget) : StatementCounter.Tally.unlimited();
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(StatementCounter.Tally.class, tally))
+                .doFinally(signal -> record(exchange, tally.statements()));
+    }
+
+    private void record(ServerWebExchange exchange, int statements) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = exchange.getRequest().getMethod().name();
+        String uri = pattern == null ? "UNKNOWN" : pattern.getPatternString();
+        DistributionSummary.builder("vitotrips.jpa.statements")
+                .description("SQL statements sent through JPA per API request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        if (statements > budget) {
+            log.warn("{} {} sent {} SQL statements, budget is {}: likely an N+1 fetch", method, uri, statements, budget);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.vitotrips.persistence;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate {@link StatementInspector} that counts the SQL statements sent on behalf of a unit of work.
+ * <p>
+ * Nothing is counted unless a {@link Tally} is bound to the current thread with {@link #count}.
+ * {@link StatementBudgetFilter} creates one per API request and {@code BlockingExecutor} binds it
+ * around the request's blocking calls, so a tally covers every JPA statement an endpoint sends.
+ * Registered through {@code hibernate.session_factory.statement_inspector}; Hibernate creates the
+ * instance, hence the static state.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.record(sql);
+        }
+        return sql;
+    }
+
+    // Runs the task with the tally bound to this thread, restoring whatever was bound before
+    public static <T> T count(Tally tally, Callable<T> task) throws Exception {
+        Tally previous = CURRENT.get();
+        CURRENT.set(tally);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Statement count of one request, shared by the threads working on it. With a limit above zero,
+     * the statement that goes over it fails with {@link StatementBudgetExceededException}.
+     */
+    public static final class Tally {
+
+        private final int limit;
+        private final AtomicInteger statements = new AtomicInteger();
+
+        public Tally(int limit) {
+            this.limit = limit;
+        }
+
+        public static Tally unlimited() {
+            return new Tally(0);
+        }
+
+        public int statements() {
+            return statements.get();
+        }
+
+        private void record(String sql) {
+            int count = statements.incrementAndGet();
+            if (limit > 0 && count > limit) {
+                throw new StatementBudgetExceededException(limit, sql);
+            }
+        }
+    }
+}
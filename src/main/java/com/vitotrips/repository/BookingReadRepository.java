@@ -0,0 +1,73 @@
+package com.vitotrips.repository;
+
+import com.vitotrips.DTO.BookingView;
+import com.vitotrips.model.Booking;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking (R2DBC) read access to bookings, streamed with a bounded fetch size.
+ * Writes stay on {@link BookingRepository}.
+ */
+@Repository
+public class BookingReadRepository {
+
+    private static final String BOOKING_COLUMNS = """
+            SELECT id, tour_id, user_id, group_id, total_amount, paid_amount, installment_plan,
+                   payment_status, booking_date, special_instructions, booking_type, created_at, updated_at
+            FROM bookings
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public BookingReadRepository(DatabaseClient databaseClient,
+                                 @Value("${vitotrips.r2dbc.fetch-size:256}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    // Reactive counterpart of BookingRepository.findByUserId
+    public Flux<BookingView> findByUserId(Long userId) {
+        return databaseClient.sql(BOOKING_COLUMNS + "WHERE user_id = :userId ORDER BY id")
+                .bind("userId", userId)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(BookingReadRepository::toView)
+                .all();
+    }
+
+    // Reactive counterpart of BookingRepository.findByBookingDateBetween
+    public Flux<BookingView> findByBookingDateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return databaseClient.sql(BOOKING_COLUMNS + "WHERE booking_date BETWEEN :startDate AND :endDate ORDER BY booking_date, id")
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(BookingReadRepository::toView)
+                .all();
+    }
+
+    private static BookingView toView(Readable row) {
+        Boolean installmentPlan = row.get("installment_plan", Boolean.class);
+        return new BookingView(
+                row.get("id", Long.class),
+                row.get("tour_id", Long.class),
+                row.get("user_id", Long.class),
+                row.get("group_id", Long.class),
+                row.get("total_amount", BigDecimal.class),
+                row.get("paid_amount", BigDecimal.class),
+                Boolean.TRUE.equals(installmentPlan),
+                Booking.PaymentStatus.valueOf(row.get("payment_status", String.class)),
+                row.get("booking_date", LocalDateTime.class),
+                row.get("special_instructions", String.class),
+                Booking.BookingType.valueOf(row.get("booking_type", String.class)),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class)
+        );
+    }
+}
@@ -1,43 +1,137 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.BookingView;
+import com.vitotrips.DTO.TourBookingCount;
 import com.vitotrips.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    // Existing methods (retained)
-    List<Booking> findByTourId(Long tourId); // Find bookings by tour ID
-    List<Booking> findByUserId(Long userId); // Find bookings by user ID
+    // Read model for the API: the row's own columns and its foreign keys, no associations loaded
+    String VIEW = "select new com.vitotrips.DTO.BookingView(b.id, b.tour.id, b.user.id, g.id, b.totalAmount, " +
+            "b.paidAmount, b.installmentPlan, b.paymentStatus, b.bookingDate, b.specialInstructions, b.bookingType, " +
+            "b.createdAt, b.updatedAt) from Booking b left join b.group g ";
+
+    @Query(VIEW + "where b.id = :id")
+    Optional<BookingView> findViewById(@Param("id") Long id);
+
+    // Settlement in place: concurrent payments on one booking can't lose each other's amount,
+    // and the status is decided from the same row version the increment applies to
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.paidAmount = b.paidAmount + :amount, " +
+            "b.paymentStatus = case when b.paidAmount + :amount >= b.totalAmount then :paidStatus else :partialStatus end, " +
+            "b.updatedAt = :now where b.id = :id")
+    int addPaidAmount(@Param("id") Long id,
+                      @Param("amount") BigDecimal amount,
+                      @Param("paidStatus") Booking.PaymentStatus paidStatus,
+                      @Param("partialStatus") Booking.PaymentStatus partialStatus,
+                      @Param("now") LocalDateTime now);
+
+    // Refunded once nothing paid is left; a split payment with other payments standing is partly paid again
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.paidAmount = b.paidAmount - :amount, " +
+            "b.paymentStatus = case when b.paidAmount - :amount > 0 then :partialStatus else :refundedStatus end, " +
+            "b.updatedAt = :now where b.id = :id")
+    int subtractPaidAmount(@Param("id") Long id,
+                           @Param("amount") BigDecimal amount,
+                           @Param("refundedStatus") Booking.PaymentStatus refundedStatus,
+                           @Param("partialStatus") Booking.PaymentStatus partialStatus,
+                           @Param("now") LocalDateTime now);
+
+    // Entity lists load tour, user and group with the rows, see Booking#WITH_TOUR_USER_GROUP
+    @Override
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    List<Booking> findAll();
+
+    // Existing methods (retained). Filters on an association name its foreign key column: the derived
+    // form (findByTourId) joins the association and filters on its id, which keeps the column's index
+    // out of the plan and, with the entity graph, joins the table twice
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    @Query("select b from Booking b where b.tour.id = :tourId")
+    List<Booking> findByTourId(@Param("tourId") Long tourId); // Find bookings by tour ID
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    @Query("select b from Booking b where b.user.id = :userId")
+    List<Booking> findByUserId(@Param("userId") Long userId); // Find bookings by user ID
 
     // New methods (enhanced and general-purpose queries)
 
     // Find bookings by booking type (e.g., INDIVIDUAL, GROUP)
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
     List<Booking> findByBookingType(Booking.BookingType bookingType);
 
     // Find bookings within a specific date range (e.g., analytics, reporting)
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
     List<Booking> findByBookingDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
     // Find bookings by group ID (useful for group-oriented features)
-    List<Booking> findByGroup_Id(Long groupId);
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    @Query("select b from Booking b where b.group.id = :groupId")
+    List<Booking> findByGroup_Id(@Param("groupId") Long groupId);
 
     // Find bookings by payment status (e.g., PENDING, CONFIRMED, CANCELLED)
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
     List<Booking> findByPaymentStatus(Booking.PaymentStatus paymentStatus);
 
     // Find bookings with a specific payment status for a user
-    List<Booking> findByUserIdAndPaymentStatus(Long userId, Booking.PaymentStatus paymentStatus);
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    @Query("select b from Booking b where b.user.id = :userId and b.paymentStatus = :paymentStatus")
+    List<Booking> findByUserIdAndPaymentStatus(@Param("userId") Long userId,
+                                               @Param("paymentStatus") Booking.PaymentStatus paymentStatus);
 
     // Optional: Combine filters for complex use cases
     // Example: Filter bookings by tour, user, and a date range
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    @Query("select b from Booking b where b.tour.id = :tourId and b.user.id = :userId " +
+            "and b.bookingDate between :startDate and :endDate")
     List<Booking> findByTourIdAndUserIdAndBookingDateBetween(
-            Long tourId,
-            Long userId,
-            LocalDateTime startDate,
-            LocalDateTime endDate
+            @Param("tourId") Long tourId,
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
     );
 
     // Optional: Fetch bookings for a specific tour with payment status
-    List<Booking> findByTourIdAndPaymentStatus(Long tourId, Booking.PaymentStatus paymentStatus);
+    @EntityGraph(Booking.WITH_TOUR_USER_GROUP)
+    @Query("select b from Booking b where b.tour.id = :tourId and b.paymentStatus = :paymentStatus")
+    List<Booking> findByTourIdAndPaymentStatus(@Param("tourId") Long tourId,
+                                               @Param("paymentStatus") Booking.PaymentStatus paymentStatus);
+
+    // Popularity of every booked tour, for the typeahead ranking
+    @Query("select new com.vitotrips.DTO.TourBookingCount(b.tour.id, count(b)) from Booking b group by b.tour.id")
+    List<TourBookingCount> countBookingsByTour();
+
+    // Keyset pagination, newest first. Slice fetches one extra row instead of issuing COUNT(*)
+    @Query(VIEW + "order by b.createdAt desc, b.id desc")
+    Slice<BookingView> findViewSlice(Pageable pageable);
+
+    // The leading createdAt <= bound is what lets the (created_at, id) index seek; the OR alone would not
+    @Query(VIEW + "where b.createdAt <= :createdAt and (b.createdAt < :createdAt or b.id < :id) " +
+            "order by b.createdAt desc, b.id desc")
+    Slice<BookingView> findViewSliceBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                           Pageable pageable);
+
+    // Export cursor: constructor projection (nothing enters the persistence context) read with a fixed JDBC fetch size.
+    // Must be consumed inside a transaction and closed by the caller
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(VIEW + "where b.bookingDate between :startDate and :endDate order by b.bookingDate, b.id")
+    Stream<BookingView> streamViewsByBookingDateBetween(@Param("startDate") LocalDateTime startDate,
+                                                        @Param("endDate") LocalDateTime endDate);
 }
\ No newline at end of file
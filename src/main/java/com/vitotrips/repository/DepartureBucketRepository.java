@@ -0,0 +1,35 @@
+package com.vitotrips.repository;
+
+import com.vitotrips.model.DepartureBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface DepartureBucketRepository extends JpaRepository<DepartureBucket, Long> {
+
+    List<DepartureBucket> findByDepartureIdOrderByBucket(Long departureId);
+
+    // Capacity changes and reconciliation: bookings of the departure wait until they commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<DepartureBucket> findLockedByDepartureIdOrderByBucket(Long departureId);
+
+    @Query("select coalesce(sum(b.reserved), 0) from DepartureBucket b where b.departureId = :departureId")
+    long sumReservedByDepartureId(@Param("departureId") Long departureId);
+
+    // Takes seats in place only while the bucket has them, so nodes whose counters are behind
+    // can't oversell between them. 0 when the bucket is full
+    @Modifying(flushAutomatically = true)
+    @Query("update DepartureBucket b set b.reserved = b.reserved + :seats " +
+            "where b.departureId = :departureId and b.bucket = :bucket and b.reserved + :seats <= b.capacity")
+    int reserveSeats(@Param("departureId") Long departureId, @Param("bucket") int bucket, @Param("seats") int seats);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update DepartureBucket b set b.reserved = b.reserved - :seats " +
+            "where b.departureId = :departureId and b.bucket = :bucket and b.reserved >= :seats")
+    int releaseSeats(@Param("departureId") Long departureId, @Param("bucket") int bucket, @Param("seats") int seats);
+}
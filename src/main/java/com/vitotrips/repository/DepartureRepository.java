@@ -0,0 +1,29 @@
+package com.vitotrips.repository;
+
+import com.vitotrips.model.Departure;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DepartureRepository extends JpaRepository<Departure, Long> {
+
+    Optional<Departure> findByTourIdAndDepartureDate(Long tourId, LocalDate departureDate);
+
+    // Capacity changes and reconciliation: bookings of the departure wait until they commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Departure> findLockedByTourIdAndDepartureDate(Long tourId, LocalDate departureDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Departure> findLockedById(Long id);
+
+    // Reconciliation: the next departures from the given date on, by id
+    @Query("select d.id from Departure d where d.departureDate >= :from and d.id > :after order by d.id")
+    List<Long> findIdsFrom(@Param("from") LocalDate from, @Param("after") Long after, Pageable pageable);
+}
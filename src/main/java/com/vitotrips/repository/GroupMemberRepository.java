@@ -1,12 +1,27 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.GroupMemberView;
 import com.vitotrips.model.GroupMember;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface GroupMemberRepository extends JpaRepository<GroupMember, Long> {
-    List<GroupMember> findByGroupId(Long groupId);
+    // Entity lists load group and user with the rows, see GroupMember#WITH_GROUP_AND_USER.
+    // Filtered on the foreign key column, see BookingRepository#findByTourId
+    @EntityGraph(GroupMember.WITH_GROUP_AND_USER)
+    @Query("select m from GroupMember m where m.group.id = :groupId")
+    List<GroupMember> findByGroupId(@Param("groupId") Long groupId);
 
-    List<GroupMember> findByGroup_Id(Long groupId);
+    @EntityGraph(GroupMember.WITH_GROUP_AND_USER)
+    @Query("select m from GroupMember m where m.group.id = :groupId")
+    List<GroupMember> findByGroup_Id(@Param("groupId") Long groupId);
+
+    // Members with their display names in one join, nothing else of the user row
+    @Query("select new com.vitotrips.DTO.GroupMemberView(m.id, m.group.id, u.id, u.name) " +
+            "from GroupMember m join m.user u where m.group.id = :groupId order by m.id")
+    List<GroupMemberView> findViewsByGroupId(@Param("groupId") Long groupId);
 }
\ No newline at end of file
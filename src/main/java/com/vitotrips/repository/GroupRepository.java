@@ -1,16 +1,50 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.GroupView;
 import com.vitotrips.model.Group;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Optional;
 
 public interface GroupRepository extends JpaRepository<Group, Long> {
 
-    // Find groups based on the group leader (user)
-    List<Group> findByLeader_Id(Long userId);
+    // Entity lists load leader and tour with the rows, see Group#WITH_LEADER_AND_TOUR
+    @Override
+    @EntityGraph(Group.WITH_LEADER_AND_TOUR)
+    List<Group> findAll();
+
+    // Find groups based on the group leader (user), by the foreign key column, see BookingRepository#findByTourId
+    @EntityGraph(Group.WITH_LEADER_AND_TOUR)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select g from Group g where g.leader.id = :userId")
+    List<Group> findByLeader_Id(@Param("userId") Long userId);
 
     // Removed error-causing: List<Group> findByBookings_Id(Long bookingId);
 
     // Optional: Fetch based on specific group attributes
+    @EntityGraph(Group.WITH_LEADER_AND_TOUR)
     List<Group> findByGroupNameContaining(String name); // Example for searching by name
+
+    // Read model for the API: leader and tour as ids, the members collection not touched
+    String VIEW = "select new com.vitotrips.DTO.GroupView(g.id, g.groupName, g.leader.id, g.tour.id, g.createdAt, " +
+            "g.updatedAt) from Group g ";
+
+    @Query(VIEW + "where g.id = :id")
+    Optional<GroupView> findViewById(@Param("id") Long id);
+
+    // Keyset page: groups after the given id, without COUNT(*)
+    @Query(VIEW + "where g.id > :id order by g.id")
+    Slice<GroupView> findViewsAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(VIEW + "where g.leader.id = :leaderId order by g.id")
+    List<GroupView> findViewsByLeaderId(@Param("leaderId") Long leaderId);
 }
\ No newline at end of file
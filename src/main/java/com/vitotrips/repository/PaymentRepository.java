@@ -1,17 +1,86 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.PaymentView;
 import com.vitotrips.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    List<Payment> findByBookingId(Long bookingId);
+    // On the foreign key column, see BookingRepository#findByTourId
+    @Query("select p from Payment p where p.booking.id = :bookingId")
+    List<Payment> findByBookingId(@Param("bookingId") Long bookingId);
 
-    List<Payment> findByBooking_Id(Long bookingId);
+    @Query("select p from Payment p where p.booking.id = :bookingId")
+    List<Payment> findByBooking_Id(@Param("bookingId") Long bookingId);
+
+    // Read model for the API, see BookingRepository#VIEW
+    String VIEW = "select new com.vitotrips.DTO.PaymentView(p.id, p.booking.id, p.amount, p.paymentStatus, " +
+            "p.processorPaymentId, p.processorFee, p.paymentMethod, p.paymentDate, p.refundDate, p.refundAmount, " +
+            "p.refundReason, p.createdAt, p.updatedAt) from Payment p ";
+
+    @Query(VIEW + "where p.id = :id")
+    Optional<PaymentView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "where p.booking.id = :bookingId order by p.id")
+    List<PaymentView> findViewsByBookingId(@Param("bookingId") Long bookingId);
 
     Optional<Payment> findByProcessorPaymentId(String processorPaymentId);
+
+    // One query for a whole batch of processor events, bookings included
+    @Query("select p from Payment p join fetch p.booking where p.processorPaymentId in :processorPaymentIds")
+    List<Payment> findWithBookingByProcessorPaymentIdIn(@Param("processorPaymentIds") Collection<String> processorPaymentIds);
+
+    // Claims a payment for an in-flight processor call; 0 rows means another caller got there first
+    @Modifying
+    @Query("update Payment p set p.pendingOperation = :operation, p.operationStartedAt = :startedAt " +
+            "where p.id = :id and p.paymentStatus = :status and p.pendingOperation is null")
+    int claimOperation(@Param("id") Long id,
+                       @Param("status") Payment.PaymentStatus status,
+                       @Param("operation") Payment.PendingOperation operation,
+                       @Param("startedAt") LocalDateTime startedAt);
+
+    // Status compare-and-set; 0 rows means the payment was not in one of the expected states
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.paymentStatus = :to, p.updatedAt = :now where p.id = :id and p.paymentStatus in :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Collection<Payment.PaymentStatus> from,
+                         @Param("to") Payment.PaymentStatus to,
+                         @Param("now") LocalDateTime now);
+
+    @Query("select p.id from Payment p where p.pendingOperation is not null and p.operationStartedAt < :startedBefore " +
+            "order by p.operationStartedAt")
+    List<Long> findIdsWithOperationStartedBefore(@Param("startedBefore") LocalDateTime startedBefore, Pageable pageable);
+
+    // Keyset pagination, newest first. Slice fetches one extra row instead of issuing COUNT(*)
+    @Query(VIEW + "order by p.createdAt desc, p.id desc")
+    Slice<PaymentView> findViewSlice(Pageable pageable);
+
+    @Query(VIEW + "where p.createdAt <= :createdAt and (p.createdAt < :createdAt or p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    Slice<PaymentView> findViewSliceBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                           Pageable pageable);
+
+    // Export cursor, see BookingRepository#streamViewsByBookingDateBetween
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(VIEW + "where p.createdAt between :startDate and :endDate order by p.createdAt, p.id")
+    Stream<PaymentView> streamViewsByCreatedAtBetween(@Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate);
 }
\ No newline at end of file
@@ -1,11 +1,83 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.ReviewView;
+import com.vitotrips.DTO.TourRatingCounts;
 import com.vitotrips.model.Review;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    List<Review> findByTourId(Long tourId); // Get reviews for a specific tour
-    List<Review> findByUserId(Long userId); // Get reviews by a specific user
+    // Entity lists join the eager user and tour instead of selecting them row by row, see Review#WITH_USER_AND_TOUR
+    @Override
+    @EntityGraph(Review.WITH_USER_AND_TOUR)
+    List<Review> findAll();
+
+    // Filtered on the foreign key columns, see BookingRepository#findByTourId
+    @EntityGraph(Review.WITH_USER_AND_TOUR)
+    @Query("select r from Review r where r.tour.id = :tourId")
+    List<Review> findByTourId(@Param("tourId") Long tourId); // Get reviews for a specific tour
+    @EntityGraph(Review.WITH_USER_AND_TOUR)
+    @Query("select r from Review r where r.user.id = :userId")
+    List<Review> findByUserId(@Param("userId") Long userId); // Get reviews by a specific user
+
+    // Read model for the API. Review's user and tour are eager, so loading entities costs a
+    // select per distinct author and tour; this reads the author's name in the same join instead
+    String VIEW = "select new com.vitotrips.DTO.ReviewView(r.id, r.tour.id, u.id, u.name, r.rating, r.content) " +
+            "from Review r join r.user u ";
+
+    @Query(VIEW + "where r.id = :id")
+    Optional<ReviewView> findViewById(@Param("id") Long id);
+
+    // Keyset page: reviews after the given id, without COUNT(*)
+    @Query(VIEW + "where r.id > :id order by r.id")
+    Slice<ReviewView> findViewsAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(VIEW + "where r.tour.id = :tourId order by r.id")
+    List<ReviewView> findViewsByTourId(@Param("tourId") Long tourId);
+
+    // Validators of the views above, see ConditionalResponses. A view carries the author's name,
+    // so renaming the author counts as a change to the review
+    String LAST_MODIFIED = "case when u.updatedAt > r.updatedAt then u.updatedAt else r.updatedAt end";
+    String STAMP = "select new com.vitotrips.DTO.ChangeStamp(count(r), max(r.id), max(" + LAST_MODIFIED + ")) " +
+            "from Review r join r.user u ";
+
+    @Query(STAMP + "where r.id = :id")
+    ChangeStamp findStampById(@Param("id") Long id);
+
+    // Covers the rows of a keyset page plus the one telling whether another page follows
+    @Query("select new com.vitotrips.DTO.ChangeStamp(count(*), max(p.id), max(p.updatedAt)) from (select r.id id, " +
+            LAST_MODIFIED + " updatedAt from Review r join r.user u where r.id > :id order by r.id limit :rows) p")
+    ChangeStamp findStampAfter(@Param("id") Long id, @Param("rows") int rows);
+
+    @Query(STAMP + "where r.tour.id = :tourId")
+    ChangeStamp findStampByTourId(@Param("tourId") Long tourId);
+
+    // Edits and deletes lock the review first, so two changes to it can't both take back its old rating
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Review r where r.id = :id")
+    Optional<Review> findForUpdateById(@Param("id") Long id);
+
+    // Rating totals of the given tours, counted from scratch
+    @Query("select new com.vitotrips.DTO.TourRatingCounts(r.tour.id, count(r), sum(r.rating), " +
+            "sum(case when r.rating = 1 then 1 else 0 end), sum(case when r.rating = 2 then 1 else 0 end), " +
+            "sum(case when r.rating = 3 then 1 else 0 end), sum(case when r.rating = 4 then 1 else 0 end), " +
+            "sum(case when r.rating = 5 then 1 else 0 end)) " +
+            "from Review r where r.tour.id in :tourIds group by r.tour.id")
+    List<TourRatingCounts> countRatingsByTourIds(@Param("tourIds") Collection<Long> tourIds);
+
+    // Reviewed tours that have no rating row yet, in id order
+    @Query("select distinct r.tour.id from Review r where r.tour.id > :afterId " +
+            "and not exists (select 1 from TourRating t where t.tourId = r.tour.id) order by r.tour.id")
+    List<Long> findUnratedTourIds(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
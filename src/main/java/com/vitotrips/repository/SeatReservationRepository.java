@@ -0,0 +1,53 @@
+package com.vitotrips.repository;
+
+import com.vitotrips.DTO.BucketSeats;
+import com.vitotrips.model.Booking;
+import com.vitotrips.model.SeatReservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SeatReservationRepository extends JpaRepository<SeatReservation, Long> {
+
+    // A plain INSERT: save() would select the assigned id first. The native-spaces hint names the
+    // table written, else Hibernate evicts the whole second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "seat_reservations"))
+    @Query(value = "insert into seat_reservations (booking_id, departure_id, bucket, seats, created_at) " +
+            "values (:bookingId, :departureId, :bucket, :seats, :now)", nativeQuery = true)
+    void insert(@Param("bookingId") Long bookingId, @Param("departureId") Long departureId,
+                @Param("bucket") int bucket, @Param("seats") int seats, @Param("now") LocalDateTime now);
+
+    @Query("select new com.vitotrips.DTO.BucketSeats(r.bucket, sum(r.seats)) from SeatReservation r " +
+            "where r.departureId = :departureId group by r.bucket")
+    List<BucketSeats> sumSeatsByBucket(@Param("departureId") Long departureId);
+
+    // Reconciliation: reservations of the departure whose booking is gone, released, or now
+    // travels on another tour or date
+    @Modifying(flushAutomatically = true)
+    @Query("delete from SeatReservation r where r.departureId = :departureId and not exists (" +
+            "select 1 from Booking b where b.id = r.bookingId and b.tour.id = :tourId " +
+            "and b.bookingDate >= :from and b.bookingDate < :to and b.paymentStatus not in :released)")
+    int deleteStale(@Param("departureId") Long departureId,
+                    @Param("tourId") Long tourId,
+                    @Param("from") LocalDateTime from,
+                    @Param("to") LocalDateTime to,
+                    @Param("released") Collection<Booking.PaymentStatus> released);
+
+    // Reconciliation: bookings on the departure holding no seats, made outside the inventory
+    @Query("select b.id from Booking b where b.tour.id = :tourId " +
+            "and b.bookingDate >= :from and b.bookingDate < :to and b.paymentStatus not in :released " +
+            "and not exists (select 1 from SeatReservation r where r.bookingId = b.id)")
+    List<Long> findUnreservedBookingIds(@Param("tourId") Long tourId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("released") Collection<Booking.PaymentStatus> released);
+}
@@ -0,0 +1,50 @@
+package com.vitotrips.repository;
+
+import com.vitotrips.model.TourRating;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TourRatingRepository extends JpaRepository<TourRating, Long> {
+
+    List<TourRating> findByTourIdIn(Collection<Long> tourIds);
+
+    // A plain INSERT, never a merge: a creator that lost the race must fail, not reset the winner's row.
+    // The native-spaces hint names the table written, else Hibernate evicts the whole second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tour_ratings"))
+    @Query(value = "insert into tour_ratings (tour_id, review_count, rating_sum, one_star, two_stars, three_stars, " +
+            "four_stars, five_stars, updated_at) values (:tourId, 0, 0, 0, 0, 0, 0, 0, :now)", nativeQuery = true)
+    void insertEmpty(@Param("tourId") Long tourId, @Param("now") LocalDateTime now);
+
+    // Adds (delta = 1) or takes back (delta = -1) one review of the given rating in place, so
+    // concurrent reviews of a tour can't lose each other's counts. 0 when the tour has no row yet
+    @Modifying(flushAutomatically = true)
+    @Query("update TourRating r set r.reviewCount = r.reviewCount + :delta, " +
+            "r.ratingSum = r.ratingSum + :delta * :rating, " +
+            "r.oneStar = r.oneStar + case when :rating = 1 then :delta else 0 end, " +
+            "r.twoStars = r.twoStars + case when :rating = 2 then :delta else 0 end, " +
+            "r.threeStars = r.threeStars + case when :rating = 3 then :delta else 0 end, " +
+            "r.fourStars = r.fourStars + case when :rating = 4 then :delta else 0 end, " +
+            "r.fiveStars = r.fiveStars + case when :rating = 5 then :delta else 0 end, " +
+            "r.updatedAt = :now where r.tourId = :tourId")
+    int addReview(@Param("tourId") Long tourId,
+                  @Param("rating") int rating,
+                  @Param("delta") int delta,
+                  @Param("now") LocalDateTime now);
+
+    // Repair: the next rows by tour id, locked so review changes to those tours wait for the fix
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<TourRating> findByTourIdGreaterThanOrderByTourIdAsc(Long tourId, Pageable pageable);
+}
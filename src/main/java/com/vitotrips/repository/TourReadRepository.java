@@ -0,0 +1,51 @@
+package com.vitotrips.repository;
+
+import com.vitotrips.DTO.TourView;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking (R2DBC) read access to the tour catalogue. Rows are pulled from a server-side
+ * cursor in chunks of {@code vitotrips.r2dbc.fetch-size}, so demand from the HTTP response
+ * propagates all the way to the database. Writes stay on {@link TourRepository}.
+ */
+@Repository
+public class TourReadRepository {
+
+    private static final String SELECT_TOURS = """
+            SELECT id, tour_name, location, description, created_at, updated_at
+            FROM tours
+            ORDER BY id""";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public TourReadRepository(DatabaseClient databaseClient,
+                              @Value("${vitotrips.r2dbc.fetch-size:256}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Flux<TourView> findAll() {
+        return databaseClient.sql(SELECT_TOURS)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(TourReadRepository::toView)
+                .all();
+    }
+
+    private static TourView toView(Readable row) {
+        return new TourView(
+                row.get("id", Long.class),
+                row.get("tour_name", String.class),
+                row.get("location", String.class),
+                row.get("description", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class)
+        );
+    }
+}
@@ -1,17 +1,32 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.ChangeStamp;
 import com.vitotrips.model.Tour;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface TourRepository extends JpaRepository<Tour, Long> {
 
     // Find tours based on the location
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Tour> findByLocation(String location);
 
-    // Optional: Fetch based on keywords in the name
-    List<Tour> findByTourNameContaining(String name); // Example for searching by name
+    // Keyset page: tours after the given id; Slice fetches one extra row instead of issuing COUNT(*)
+    Slice<Tour> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Validator of the keyset page, read before the tours themselves, see ConditionalResponses;
+    // covers the rows of a keyset page plus the one telling whether another page follows
+    @Query("select new com.vitotrips.DTO.ChangeStamp(count(*), max(p.id), max(p.updatedAt)) " +
+            "from (select t.id id, t.updatedAt updatedAt from Tour t where t.id > :id order by t.id limit :rows) p")
+    ChangeStamp findStampAfter(@Param("id") Long id, @Param("rows") int rows);
 
     // Removed error-causing method: List<Tour> findByBookings_Group_Id(Long groupId);
 }
\ No newline at end of file
@@ -1,16 +1,72 @@
 package com.vitotrips.repository;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.VolunteerOpportunityView;
 import com.vitotrips.model.VolunteerOpportunities;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface VolunteerOpportunitiesRepository extends JpaRepository<VolunteerOpportunities, Long> {
 
-    // Find opportunities by associated tour
-    List<VolunteerOpportunities> findByTour_Id(Long tourId);
+    // Entity lists load the tour with the rows, see VolunteerOpportunities#WITH_TOUR
+    @Override
+    @EntityGraph(VolunteerOpportunities.WITH_TOUR)
+    List<VolunteerOpportunities> findAll();
+
+    // Find opportunities by associated tour, by the foreign key column, see BookingRepository#findByTourId
+    @EntityGraph(VolunteerOpportunities.WITH_TOUR)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select v from VolunteerOpportunities v where v.tour.id = :tourId")
+    List<VolunteerOpportunities> findByTour_Id(@Param("tourId") Long tourId);
 
     // Find opportunities within a specific date range
+    @EntityGraph(VolunteerOpportunities.WITH_TOUR)
     List<VolunteerOpportunities> findByStartDateBetween(LocalDateTime start, LocalDateTime end);
+
+    // Read model for the API: the tour as its id
+    String VIEW = "select new com.vitotrips.DTO.VolunteerOpportunityView(v.id, v.tour.id, v.description, " +
+            "v.startDate, v.endDate) from VolunteerOpportunities v ";
+
+    @Query(VIEW + "where v.id = :id")
+    Optional<VolunteerOpportunityView> findViewById(@Param("id") Long id);
+
+    // Keyset page: opportunities after the given id, without COUNT(*)
+    @Query(VIEW + "where v.id > :id order by v.id")
+    Slice<VolunteerOpportunityView> findViewsAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(VIEW + "where v.tour.id = :tourId order by v.id")
+    List<VolunteerOpportunityView> findViewsByTourId(@Param("tourId") Long tourId);
+
+    @Query(VIEW + "where v.startDate between :start and :end order by v.startDate, v.id")
+    List<VolunteerOpportunityView> findViewsByStartDateBetween(@Param("start") LocalDateTime start,
+                                                               @Param("end") LocalDateTime end);
+
+    // Validators of the views above, see ConditionalResponses
+    String STAMP = "select new com.vitotrips.DTO.ChangeStamp(count(v), max(v.id), max(v.updatedAt)) " +
+            "from VolunteerOpportunities v ";
+
+    @Query(STAMP + "where v.id = :id")
+    ChangeStamp findStampById(@Param("id") Long id);
+
+    // Covers the rows of a keyset page plus the one telling whether another page follows
+    @Query("select new com.vitotrips.DTO.ChangeStamp(count(*), max(p.id), max(p.updatedAt)) from (select v.id id, " +
+            "v.updatedAt updatedAt from VolunteerOpportunities v where v.id > :id order by v.id limit :rows) p")
+    ChangeStamp findStampAfter(@Param("id") Long id, @Param("rows") int rows);
+
+    @Query(STAMP + "where v.tour.id = :tourId")
+    ChangeStamp findStampByTourId(@Param("tourId") Long tourId);
+
+    @Query(STAMP + "where v.startDate between :start and :end")
+    ChangeStamp findStampByStartDateBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
\ No newline at end of file
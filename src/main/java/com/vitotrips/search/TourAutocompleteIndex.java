@@ -0,0 +1,505 @@
+package com.vitotrips.search;
+
+import com.vitotrips.DTO.TourSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over tour names and locations for typeahead, ranked by booking count.
+ * <p>
+ * Keys are the tokenised text (folded and lower-cased like the search index, words joined by one
+ * space), entered once from the start of each of the first {@value #MAX_WORD_STARTS} words, so
+ * "rain" completes "Amazon Rainforest Trek". A location is one suggestion however many tours share
+ * it and weighs the bookings of all of them.
+ * <p>
+ * The trie is path-compressed: each edge is a run of characters kept in one shared {@code char}
+ * pool, so a key costs at most two nodes plus its unshared tail. Nodes live in parallel primitive
+ * arrays (first child / next sibling) rather than objects, and each carries the highest weight
+ * below it, so the top completions are found best-first without visiting the rest of the subtree.
+ * Nodes and pool space left behind by removals are only reclaimed by building a new index;
+ * {@link #nodeCount()} lets the owner decide when. Thread-safe: completions share a read
+ * lock, updates take the write lock.
+ */
+public class TourAutocompleteIndex {
+
+    public static final String TOUR = "tour";
+    public static final String LOCATION = "location";
+
+    private static final int MAX_WORD_STARTS = 4;
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int NONE = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Trie nodes; node 0 is the root. The edge into a node is labelLengths chars of pool at labelStarts
+    private char[] pool = new char[4096];
+    private int poolSize;
+    private int[] labelStarts = new int[1024];
+    private int[] labelLengths = new int[1024];
+    private int[] parents = new int[1024];
+    private int[] firstChildren = new int[1024];
+    private int[] nextSiblings = new int[1024];
+    private int[] firstLinks = new int[1024];
+    // Highest weight of any entry at or below the node, NONE if there is none
+    private int[] best = new int[1024];
+    private int nodeCount;
+
+    // Links chain the entries whose key ends at a node
+    private int[] linkEntries = new int[1024];
+    private int[] nextLinks = new int[1024];
+    private int linkCount;
+    private int freeLink = NONE;
+
+    // Entries: one per tour and one per distinct location
+    private String[] texts = new String[256];
+    // NONE for location entries
+    private long[] tourIds = new long[256];
+    private int[] weights = new int[256];
+    // Tour entries: their location entry. Location entries: how many tours reference them
+    private int[] locationRefs = new int[256];
+    private int entryCount;
+    private int freeEntry = NONE;
+    private long textBytes;
+
+    private final Map<Long, Integer> tourEntries = new HashMap<>();
+    private final Map<String, Integer> locationEntries = new HashMap<>();
+
+    public TourAutocompleteIndex() {
+        nodeCount = 1;
+        parents[0] = NONE;
+        firstChildren[0] = NONE;
+        nextSiblings[0] = NONE;
+        firstLinks[0] = NONE;
+        best[0] = NONE;
+    }
+
+    /**
+     * Adds or replaces a tour; a tour already present keeps its booking count.
+     */
+    public void put(long tourId, String tourName, String location) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = tourEntries.get(tourId);
+            int bookings = existing == null ? 0 : weights[existing];
+            if (existing != null) {
+                removeTour(tourId, existing);
+            }
+            String locationKey = key(location);
+            int locationEntry = NONE;
+            if (!locationKey.isEmpty()) {
+                Integer found = locationEntries.get(locationKey);
+                if (found == null) {
+                    locationEntry = addEntry(location.strip(), NONE, 0);
+                    locationEntries.put(locationKey, locationEntry);
+                    link(locationEntry);
+                } else {
+                    locationEntry = found;
+                }
+                locationRefs[locationEntry]++;
+            }
+            int entry = addEntry(tourName.strip(), tourId, bookings);
+            locationRefs[entry] = locationEntry;
+            tourEntries.put(tourId, entry);
+            link(entry);
+            if (locationEntry != NONE && bookings > 0) {
+                reweigh(locationEntry, weights[locationEntry] + bookings);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long tourId) {
+        lock.writeLock().lock();
+        try {
+            Integer entry = tourEntries.get(tourId);
+            if (entry != null) {
+                removeTour(tourId, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the booking counts of the given tours, and of their locations accordingly.
+     */
+    public void setBookings(Map<Long, Integer> bookingsByTour) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Integer> bookings : bookingsByTour.entrySet()) {
+                Integer entry = tourEntries.get(bookings.getKey());
+                int count = Math.max(0, bookings.getValue());
+                if (entry == null || weights[entry] == count) {
+                    continue;
+                }
+                int delta = count - weights[entry];
+                reweigh(entry, count);
+                int locationEntry = locationRefs[entry];
+                if (locationEntry != NONE) {
+                    reweigh(locationEntry, weights[locationEntry] + delta);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The most booked tours and locations having a word that starts with {@code prefix}, best first.
+     * A prefix ending in a separator completes whole words only.
+     */
+    public List<TourSuggestion> complete(String prefix, int limit) {
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (!Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) {
+            key = key + ' ';
+        }
+        lock.readLock().lock();
+        try {
+            int node = find(key, true);
+            if (node == NONE || best[node] == NONE) {
+                return List.of();
+            }
+            List<TourSuggestion> suggestions = new ArrayList<>(limit);
+            Set<Integer> seen = new HashSet<>();
+            // Candidates ordered by weight; at equal weight entries come out before nodes
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> a[0] != b[0]
+                    ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+            queue.add(new long[]{best[node], 0, node});
+            while (!queue.isEmpty() && suggestions.size() < limit) {
+                long[] candidate = queue.poll();
+                int index = (int) candidate[2];
+                if (candidate[1] == 1) {
+                    if (seen.add(index)) {
+                        suggestions.add(suggestion(index));
+                    }
+                    continue;
+                }
+                for (int link = firstLinks[index]; link != NONE; link = nextLinks[link]) {
+                    int entry = linkEntries[link];
+                    queue.add(new long[]{weights[entry], 1, entry});
+                }
+                for (int child = firstChildren[index]; child != NONE; child = nextSiblings[child]) {
+                    if (best[child] != NONE) {
+                        queue.add(new long[]{best[child], 0, child});
+                    }
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tourEntries.size() + locationEntries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap held by the index: allocated array capacity plus the suggestion strings.
+     */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long nodes = (long) parents.length * 7 * Integer.BYTES + (long) pool.length * Character.BYTES;
+            long links = (long) linkEntries.length * 2 * Integer.BYTES;
+            long entries = (long) texts.length * (4 + Long.BYTES + 2 * Integer.BYTES);
+            // Hash map entries: node, boxed key and value
+            long maps = (long) (tourEntries.size() + locationEntries.size()) * 64;
+            return nodes + links + entries + maps + textBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TourSuggestion suggestion(int entry) {
+        return tourIds[entry] == NONE
+                ? new TourSuggestion(texts[entry], LOCATION, null, weights[entry])
+                : new TourSuggestion(texts[entry], TOUR, tourIds[entry], weights[entry]);
+    }
+
+    private void removeTour(long tourId, int entry) {
+        tourEntries.remove(tourId);
+        unlink(entry);
+        int locationEntry = locationRefs[entry];
+        if (locationEntry != NONE) {
+            if (--locationRefs[locationEntry] == 0) {
+                locationEntries.remove(key(texts[locationEntry]));
+                unlink(locationEntry);
+                freeEntry(locationEntry);
+            } else if (weights[entry] > 0) {
+                reweigh(locationEntry, weights[locationEntry] - weights[entry]);
+            }
+        }
+        freeEntry(entry);
+    }
+
+    private int addEntry(String text, long tourId, int weight) {
+        int entry;
+        if (freeEntry != NONE) {
+            entry = freeEntry;
+            freeEntry = locationRefs[entry];
+        } else {
+            if (entryCount == texts.length) {
+                int capacity = texts.length * 2;
+                texts = Arrays.copyOf(texts, capacity);
+                tourIds = Arrays.copyOf(tourIds, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                locationRefs = Arrays.copyOf(locationRefs, capacity);
+            }
+            entry = entryCount++;
+        }
+        texts[entry] = text;
+        tourIds[entry] = tourId;
+        weights[entry] = weight;
+        locationRefs[entry] = 0;
+        textBytes += 40 + 2L * text.length();
+        return entry;
+    }
+
+    // Free entries are chained through locationRefs
+    private void freeEntry(int entry) {
+        textBytes -= 40 + 2L * texts[entry].length();
+        texts[entry] = null;
+        locationRefs[entry] = freeEntry;
+        freeEntry = entry;
+    }
+
+    private void link(int entry) {
+        for (String key : keys(texts[entry])) {
+            int node = insert(key);
+            int link = allocateLink();
+            linkEntries[link] = entry;
+            nextLinks[link] = firstLinks[node];
+            firstLinks[node] = link;
+            raise(node, weights[entry]);
+        }
+    }
+
+    private void unlink(int entry) {
+        for (String key : keys(texts[entry])) {
+            int node = find(key, false);
+            int previous = NONE;
+            for (int link = firstLinks[node]; link != NONE; previous = link, link = nextLinks[link]) {
+                if (linkEntries[link] == entry) {
+                    if (previous == NONE) {
+                        firstLinks[node] = nextLinks[link];
+                    } else {
+                        nextLinks[previous] = nextLinks[link];
+                    }
+                    nextLinks[link] = freeLink;
+                    freeLink = link;
+                    break;
+                }
+            }
+            recompute(node);
+        }
+    }
+
+    private void reweigh(int entry, int weight) {
+        int old = weights[entry];
+        weights[entry] = weight;
+        for (String key : keys(texts[entry])) {
+            int node = find(key, false);
+            if (weight > old) {
+                raise(node, weight);
+            } else {
+                recompute(node);
+            }
+        }
+    }
+
+    // A weight went up: lift the bound along the path until it is already high enough
+    private void raise(int node, int weight) {
+        for (; node != NONE && best[node] < weight; node = parents[node]) {
+            best[node] = weight;
+        }
+    }
+
+    // A weight went down or an entry left: recompute bounds upwards while they change
+    private void recompute(int node) {
+        for (; node != NONE; node = parents[node]) {
+            int value = NONE;
+            for (int link = firstLinks[node]; link != NONE; link = nextLinks[link]) {
+                value = Math.max(value, weights[linkEntries[link]]);
+            }
+            for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+                value = Math.max(value, best[child]);
+            }
+            if (value == best[node]) {
+                return;
+            }
+            best[node] = value;
+        }
+    }
+
+    // The node the key ends at. With partial, a key ending inside an edge yields the node below it
+    // (every key there starts with it); otherwise such a key is not found
+    private int find(String key, boolean partial) {
+        int node = 0;
+        int i = 0;
+        while (i < key.length()) {
+            node = child(node, key.charAt(i));
+            if (node == NONE) {
+                return NONE;
+            }
+            int matched = matchLabel(node, key, i);
+            if (matched < labelLengths[node]) {
+                return partial && i + matched == key.length() ? node : NONE;
+            }
+            i += matched;
+        }
+        return node;
+    }
+
+    private int insert(String key) {
+        int node = 0;
+        int i = 0;
+        while (i < key.length()) {
+            int child = child(node, key.charAt(i));
+            if (child == NONE) {
+                return allocateNode(node, appendToPool(key, i), key.length() - i);
+            }
+            int matched = matchLabel(child, key, i);
+            if (matched < labelLengths[child]) {
+                child = split(child, matched);
+            }
+            node = child;
+            i += matched;
+        }
+        return node;
+    }
+
+    // How many chars of the edge into node match the key from offset on
+    private int matchLabel(int node, String key, int offset) {
+        int start = labelStarts[node];
+        int length = Math.min(labelLengths[node], key.length() - offset);
+        int matched = 0;
+        while (matched < length && pool[start + matched] == key.charAt(offset + matched)) {
+            matched++;
+        }
+        return matched;
+    }
+
+    // Cuts the edge into node after length chars: a new node takes the head of the edge and its
+    // place among the siblings, node keeps the tail below it
+    private int split(int node, int length) {
+        int parent = parents[node];
+        int head = allocateNode(parent, labelStarts[node], length);
+        // allocateNode put head first among the children; take node out of that list
+        for (int child = head; ; child = nextSiblings[child]) {
+            if (nextSiblings[child] == node) {
+                nextSiblings[child] = nextSiblings[node];
+                break;
+            }
+        }
+        labelStarts[node] += length;
+        labelLengths[node] -= length;
+        parents[node] = head;
+        nextSiblings[node] = NONE;
+        firstChildren[head] = node;
+        best[head] = best[node];
+        return head;
+    }
+
+    private int child(int node, char label) {
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            if (pool[labelStarts[child]] == label) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int appendToPool(String key, int offset) {
+        int length = key.length() - offset;
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+        }
+        key.getChars(offset, key.length(), pool, poolSize);
+        poolSize += length;
+        return poolSize - length;
+    }
+
+    private int allocateNode(int parent, int labelStart, int labelLength) {
+        if (nodeCount == parents.length) {
+            int capacity = parents.length * 2;
+            labelStarts = Arrays.copyOf(labelStarts, capacity);
+            labelLengths = Arrays.copyOf(labelLengths, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            firstLinks = Arrays.copyOf(firstLinks, capacity);
+            best = Arrays.copyOf(best, capacity);
+        }
+        int node = nodeCount++;
+        labelStarts[node] = labelStart;
+        labelLengths[node] = labelLength;
+        parents[node] = parent;
+        firstChildren[node] = NONE;
+        firstLinks[node] = NONE;
+        best[node] = NONE;
+        nextSiblings[node] = firstChildren[parent];
+        firstChildren[parent] = node;
+        return node;
+    }
+
+    private int allocateLink() {
+        if (freeLink != NONE) {
+            int link = freeLink;
+            freeLink = nextLinks[link];
+            return link;
+        }
+        if (linkCount == linkEntries.length) {
+            linkEntries = Arrays.copyOf(linkEntries, linkCount * 2);
+            nextLinks = Arrays.copyOf(nextLinks, linkCount * 2);
+        }
+        return linkCount++;
+    }
+
+    // The key from each of the first words on; duplicates (a repeated word) collapse
+    private static Set<String> keys(String text) {
+        String key = key(text);
+        Set<String> keys = new HashSet<>();
+        int start = 0;
+        for (int word = 0; word < MAX_WORD_STARTS && start < key.length(); word++) {
+            keys.add(key.substring(start));
+            int space = key.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private static String key(String text) {
+        String key = String.join(" ", Tokenizer.tokens(text));
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
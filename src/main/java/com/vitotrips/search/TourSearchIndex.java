@@ -0,0 +1,614 @@
+package com.vitotrips.search;
+
+import com.vitotrips.DTO.TourSearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over tour name, location and description, ranked with BM25F.
+ * <p>
+ * Every indexed version of a tour gets a fresh document number, so posting lists stay sorted by
+ * appending and the other query terms can be probed with galloping cursors while the rarest one is
+ * scanned. Posting lists are cut into blocks of {@value #BLOCK_SIZE} that record the best score any of
+ * their documents could reach; once {@code limit} hits are collected, blocks that cannot beat the
+ * weakest of them are skipped, so frequent terms do not cost a full scan.
+ * <p>
+ * Updating or removing a tour only marks its old document dead; dead documents are skipped at query
+ * time and squeezed out once they make up a quarter of the index. Document frequencies include dead
+ * documents until then, which shifts idf slightly and is corrected by the compaction.
+ * <p>
+ * Query terms must all match (AND). The last term, unless the query ends in a separator, is still
+ * being typed and also matches the indexed terms it is a prefix of, at a discount; a document scores
+ * its best match among those, and each of them is scanned on its own into the same top hits.
+ * Thread-safe: searches share a read lock, updates take the write lock.
+ */
+public class TourSearchIndex {
+
+    enum Field {
+        NAME(3.0f, 0.75f), LOCATION(2.0f, 0.5f), DESCRIPTION(1.0f, 0.75f);
+
+        final float weight;
+        final float lengthNormalisation;
+
+        Field(float weight, float lengthNormalisation) {
+            this.weight = weight;
+            this.lengthNormalisation = lengthNormalisation;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    private static final int FIELD_COUNT = FIELDS.length;
+
+    private static final float K1 = 1.2f;
+    private static final int TF_BITS = 10;
+    private static final int TF_MASK = (1 << TF_BITS) - 1;
+    private static final int BLOCK_SHIFT = 7;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Prefix expansions: the most frequent MAX_EXPANSIONS of the first EXPANSION_SCAN matching terms
+    private static final int MAX_EXPANSIONS = 16;
+    private static final int EXPANSION_SCAN = 1024;
+    private static final float PREFIX_BOOST = 0.6f;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> documents = new HashMap<>();
+    private long[] tourIds = new long[1024];
+    private String[] tourNames = new String[1024];
+    private String[] locations = new String[1024];
+    // Indexed token count of each field, FIELD_COUNT entries per document
+    private int[] lengths = new int[1024 * FIELD_COUNT];
+    private boolean[] live = new boolean[1024];
+    private final long[] liveLengths = new long[FIELD_COUNT];
+    private int documentCount;
+    private int liveCount;
+
+    /**
+     * Indexes a tour, replacing any earlier version of it.
+     */
+    public void put(long tourId, String tourName, String location, String description) {
+        String[] values = {tourName, location, description};
+        Map<String, int[]> frequencies = new HashMap<>();
+        int[] fieldLengths = new int[FIELD_COUNT];
+        for (Field field : FIELDS) {
+            for (String token : Tokenizer.tokens(values[field.ordinal()])) {
+                if (!Tokenizer.isStopword(token)) {
+                    frequencies.computeIfAbsent(token, t -> new int[FIELD_COUNT])[field.ordinal()]++;
+                    fieldLengths[field.ordinal()]++;
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = documents.get(tourId);
+            if (previous != null) {
+                kill(previous);
+            }
+            int doc = documentCount++;
+            ensureCapacity(documentCount);
+            tourIds[doc] = tourId;
+            tourNames[doc] = tourName;
+            locations[doc] = location;
+            live[doc] = true;
+            liveCount++;
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                lengths[doc * FIELD_COUNT + f] = fieldLengths[f];
+                liveLengths[f] += fieldLengths[f];
+            }
+            documents.put(tourId, doc);
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings())
+                        .add(doc, pack(entry.getValue()), lengths, doc * FIELD_COUNT);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long tourId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = documents.remove(tourId);
+            if (doc != null) {
+                kill(doc);
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} tours matching every term of the query, highest score first.
+     */
+    public List<TourSearchHit> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean typing = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        String prefix = typing ? tokens.get(tokens.size() - 1) : null;
+        Set<String> exact = new LinkedHashSet<>();
+        for (String token : typing ? tokens.subList(0, tokens.size() - 1) : tokens) {
+            if (!Tokenizer.isStopword(token)) {
+                exact.add(token);
+            }
+        }
+        if (prefix != null && exact.contains(prefix)) {
+            prefix = null;
+        }
+        if (exact.isEmpty() && prefix == null) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            float[] averages = averageLengths();
+            List<Term[]> groups = new ArrayList<>(exact.size() + 1);
+            for (String token : exact) {
+                Postings postings = terms.get(token);
+                if (postings == null) {
+                    return List.of();
+                }
+                groups.add(new Term[]{new Term(postings, 1.0f, idf(postings))});
+            }
+            if (prefix != null) {
+                Term[] group = resolvePrefix(prefix);
+                if (group.length == 0) {
+                    return List.of();
+                }
+                groups.add(group);
+            }
+            groups.sort((a, b) -> Long.compare(cost(a), cost(b)));
+
+            // Scan the cheapest group, strongest term first so the threshold rises early
+            Term[] driver = groups.get(0).clone();
+            Arrays.sort(driver, (a, b) -> Float.compare(upperBound(b, averages), upperBound(a, averages)));
+            List<Term[]> others = groups.subList(1, groups.size());
+            TopK top = new TopK(limit);
+            for (Term term : driver) {
+                scan(term, new Probe(others, averages), averages, top);
+            }
+            return top.hits();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The token itself if indexed, plus the most frequent terms it is a prefix of
+    private Term[] resolvePrefix(String token) {
+        List<Term> group = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            group.add(new Term(exact, 1.0f, idf(exact)));
+        }
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            List<Postings> expansions = new ArrayList<>();
+            Iterator<Postings> matches = terms.subMap(token, false, token + Character.MAX_VALUE, false).values().iterator();
+            for (int scanned = 0; matches.hasNext() && scanned < EXPANSION_SCAN; scanned++) {
+                expansions.add(matches.next());
+            }
+            expansions.sort((a, b) -> Integer.compare(b.size, a.size));
+            for (Postings postings : expansions.subList(0, Math.min(MAX_EXPANSIONS, expansions.size()))) {
+                group.add(new Term(postings, PREFIX_BOOST, idf(postings)));
+            }
+        }
+        return group.toArray(Term[]::new);
+    }
+
+    // Walks one posting list block by block, skipping blocks that cannot make the top hits
+    private void scan(Term term, Probe others, float[] averages, TopK top) {
+        Postings postings = term.postings;
+        for (int block = 0, blocks = postings.blockCount(); block < blocks; block++) {
+            int start = block << BLOCK_SHIFT;
+            int end = Math.min(postings.size, start + BLOCK_SIZE);
+            float restBound = others.bound(postings.docs[start], postings.docs[end - 1]);
+            if (restBound < 0 || top.isFull() && bm25f(term, postings.blockMaxFrequencies[block],
+                    postings.blockMinLengths, block * FIELD_COUNT, averages) + restBound <= top.threshold()) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                int doc = postings.docs[i];
+                if (!live[doc]) {
+                    continue;
+                }
+                float score = bm25f(term, postings.frequencies[i], lengths, doc * FIELD_COUNT, averages);
+                if (top.isFull() && score + restBound <= top.threshold()) {
+                    continue;
+                }
+                float rest = others.match(doc);
+                if (rest >= 0) {
+                    top.offer(doc, score + rest);
+                }
+            }
+        }
+    }
+
+    /*
+     * BM25F: per-field frequencies are length-normalised and weighted, then saturated once.
+     * Given a block's highest frequencies and shortest lengths it yields the block's upper bound;
+     * both uses must stay one code path so equal inputs round identically.
+     */
+    private static float bm25f(Term term, int packedFrequencies, int[] fieldLengths, int offset, float[] averages) {
+        float frequency = 0;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            int tf = (packedFrequencies >>> (f * TF_BITS)) & TF_MASK;
+            if (tf == 0) {
+                continue;
+            }
+            float b = FIELDS[f].lengthNormalisation;
+            frequency += FIELDS[f].weight * tf / (1 - b + b * fieldLengths[offset + f] / averages[f]);
+        }
+        return term.boost * term.idf * frequency / (K1 + frequency);
+    }
+
+    private static float upperBound(Term term, float[] averages) {
+        return bm25f(term, term.postings.maxFrequencies, term.postings.minLengths, 0, averages);
+    }
+
+    private float[] averageLengths() {
+        float[] averages = new float[FIELD_COUNT];
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            averages[f] = liveCount == 0 ? 1 : Math.max(1f, (float) liveLengths[f] / liveCount);
+        }
+        return averages;
+    }
+
+    private float idf(Postings postings) {
+        int documentFrequency = postings.size;
+        int total = Math.max(liveCount, documentFrequency);
+        return (float) Math.log(1 + (total - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static long cost(Term[] group) {
+        long cost = 0;
+        for (Term term : group) {
+            cost += term.postings.size;
+        }
+        return cost;
+    }
+
+    private void kill(int doc) {
+        live[doc] = false;
+        liveCount--;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            liveLengths[f] -= lengths[doc * FIELD_COUNT + f];
+        }
+    }
+
+    // Renumbers live documents densely (keeping their order) and drops dead postings
+    private void compactIfSparse() {
+        int dead = documentCount - liveCount;
+        if (dead < MIN_DEAD_FOR_COMPACTION || dead * 4 < documentCount) {
+            return;
+        }
+        int[] renumbered = new int[documentCount];
+        int next = 0;
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (live[doc]) {
+                renumbered[doc] = next;
+                tourIds[next] = tourIds[doc];
+                tourNames[next] = tourNames[doc];
+                locations[next] = locations[doc];
+                System.arraycopy(lengths, doc * FIELD_COUNT, lengths, next * FIELD_COUNT, FIELD_COUNT);
+                live[next] = true;
+                next++;
+            } else {
+                renumbered[doc] = -1;
+            }
+        }
+        Arrays.fill(live, next, documentCount, false);
+        Arrays.fill(tourNames, next, documentCount, null);
+        Arrays.fill(locations, next, documentCount, null);
+        documentCount = next;
+        documents.clear();
+        for (int doc = 0; doc < documentCount; doc++) {
+            documents.put(tourIds[doc], doc);
+        }
+        for (Iterator<Postings> iterator = terms.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().renumber(renumbered, lengths) == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= tourIds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, tourIds.length + (tourIds.length >> 1));
+        tourIds = Arrays.copyOf(tourIds, grown);
+        tourNames = Arrays.copyOf(tourNames, grown);
+        locations = Arrays.copyOf(locations, grown);
+        live = Arrays.copyOf(live, grown);
+        lengths = Arrays.copyOf(lengths, grown * FIELD_COUNT);
+    }
+
+    private static int pack(int[] frequencies) {
+        int packed = 0;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            packed |= Math.min(frequencies[f], TF_MASK) << (f * TF_BITS);
+        }
+        return packed;
+    }
+
+    // Field-wise maximum of two packed frequency sets
+    private static int maxPacked(int a, int b) {
+        int packed = 0;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            int shift = f * TF_BITS;
+            packed |= Math.max((a >>> shift) & TF_MASK, (b >>> shift) & TF_MASK) << shift;
+        }
+        return packed;
+    }
+
+    private record Term(Postings postings, float boost, float idf) {
+    }
+
+    /*
+     * Documents containing one term, ascending, with the term's packed per-field frequencies.
+     * Per block of BLOCK_SIZE postings: the field-wise highest frequencies and shortest field
+     * lengths, which bound the score of every document in the block; the whole list's bound
+     * is kept the same way.
+     */
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int[] blockMaxFrequencies = new int[1];
+        private int[] blockMinLengths = new int[FIELD_COUNT];
+        private int maxFrequencies;
+        private final int[] minLengths = new int[FIELD_COUNT];
+        private int size;
+
+        void add(int doc, int packedFrequencies, int[] fieldLengths, int offset) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int block = size >> BLOCK_SHIFT;
+            if (block == blockMaxFrequencies.length) {
+                blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, block * 2);
+                blockMinLengths = Arrays.copyOf(blockMinLengths, block * 2 * FIELD_COUNT);
+            }
+            boolean firstInBlock = (size & (BLOCK_SIZE - 1)) == 0;
+            blockMaxFrequencies[block] = firstInBlock ? packedFrequencies : maxPacked(blockMaxFrequencies[block], packedFrequencies);
+            maxFrequencies = size == 0 ? packedFrequencies : maxPacked(maxFrequencies, packedFrequencies);
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                int length = fieldLengths[offset + f];
+                int slot = block * FIELD_COUNT + f;
+                blockMinLengths[slot] = firstInBlock ? length : Math.min(blockMinLengths[slot], length);
+                minLengths[f] = size == 0 ? length : Math.min(minLengths[f], length);
+            }
+            docs[size] = doc;
+            frequencies[size] = packedFrequencies;
+            size++;
+        }
+
+        int blockCount() {
+            return (size + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        }
+
+        // Rewrites the list in place for the new document numbers; block bounds are rebuilt as it goes
+        int renumber(int[] renumbered, int[] fieldLengths) {
+            int previousSize = size;
+            size = 0;
+            for (int i = 0; i < previousSize; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    add(doc, frequencies[i], fieldLengths, doc * FIELD_COUNT);
+                }
+            }
+            if (size > 0 && size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, size);
+                frequencies = Arrays.copyOf(frequencies, size);
+            }
+            return size;
+        }
+
+        // First position at or after from whose document is >= doc (galloping, then binary search)
+        int advance(int from, int doc) {
+            int bound = 1;
+            while (from + bound < size && docs[from + bound] < doc) {
+                bound <<= 1;
+            }
+            int low = from + (bound >> 1);
+            int high = Math.min(from + bound, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < doc) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Checks the remaining query groups for documents visited in ascending order
+    private final class Probe {
+        private final List<Term[]> groups;
+        private final int[][] cursors;
+        private final float[] averages;
+
+        Probe(List<Term[]> groups, float[] averages) {
+            this.groups = groups;
+            this.averages = averages;
+            this.cursors = new int[groups.size()][];
+            for (int g = 0; g < groups.size(); g++) {
+                cursors[g] = new int[groups.get(g).length];
+            }
+        }
+
+        // Most the remaining groups can add to a document in [from, to], from their block bounds;
+        // -1 if one of the groups has no document in that range
+        float bound(int from, int to) {
+            float total = 0;
+            for (int g = 0; g < cursors.length; g++) {
+                Term[] group = groups.get(g);
+                int[] positions = cursors[g];
+                float best = -1;
+                for (int t = 0; t < group.length; t++) {
+                    Postings postings = group[t].postings;
+                    if (positions[t] >= postings.size) {
+                        continue;
+                    }
+                    positions[t] = postings.advance(positions[t], from);
+                    int start = positions[t];
+                    if (start >= postings.size || postings.docs[start] > to) {
+                        continue;
+                    }
+                    int last = postings.advance(start, to + 1) - 1;
+                    for (int block = start >> BLOCK_SHIFT; block <= last >> BLOCK_SHIFT; block++) {
+                        best = Math.max(best, bm25f(group[t], postings.blockMaxFrequencies[block],
+                                postings.blockMinLengths, block * FIELD_COUNT, averages));
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        // Summed best score per remaining group, or -1 if the document misses one of the groups
+        float match(int doc) {
+            float total = 0;
+            for (int g = 0; g < cursors.length; g++) {
+                Term[] group = groups.get(g);
+                int[] positions = cursors[g];
+                float best = -1;
+                for (int t = 0; t < group.length; t++) {
+                    Postings postings = group[t].postings;
+                    if (positions[t] >= postings.size) {
+                        continue;
+                    }
+                    positions[t] = postings.advance(positions[t], doc);
+                    if (positions[t] < postings.size && postings.docs[positions[t]] == doc) {
+                        best = Math.max(best, bm25f(group[t], postings.frequencies[positions[t]], lengths, doc * FIELD_COUNT, averages));
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            return total;
+        }
+    }
+
+    // Min-heap of the best documents seen so far; on equal scores the earlier document stays.
+    // A document offered again (through another prefix expansion) keeps its best score
+    private final class TopK {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopK(int limit) {
+            docs = new int[limit];
+            scores = new float[limit];
+        }
+
+        boolean isFull() {
+            return size == docs.length;
+        }
+
+        float threshold() {
+            return scores[0];
+        }
+
+        void offer(int doc, float score) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    if (score > scores[i]) {
+                        scores[i] = score;
+                        siftDown(i, size);
+                    }
+                    return;
+                }
+            }
+            if (!isFull()) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0, size);
+            }
+        }
+
+        List<TourSearchHit> hits() {
+            TourSearchHit[] hits = new TourSearchHit[size];
+            for (int remaining = size; remaining > 0; remaining--) {
+                int doc = docs[0];
+                hits[remaining - 1] = new TourSearchHit(tourIds[doc], tourNames[doc], locations[doc], scores[0]);
+                swap(0, remaining - 1);
+                siftDown(0, remaining - 1);
+            }
+            return Arrays.asList(hits);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (scores[parent] <= scores[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int heapSize) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < heapSize && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < heapSize && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.vitotrips.search;
+
+import com.vitotrips.DTO.TourBookingCount;
+import com.vitotrips.DTO.TourSearchHit;
+import com.vitotrips.DTO.TourSuggestion;
+import com.vitotrips.cache.CacheInvalidationBus;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.model.Tour;
+import com.vitotrips.repository.BookingRepository;
+import com.vitotrips.repository.TourReadRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.service.event.TourChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a {@link TourSearchIndex} and a {@link TourAutocompleteIndex} of the catalogue on every node.
+ * <p>
+ * Both are built from the R2DBC tour stream once the application is ready; searches before that
+ * report {@link #isReady()} false. Afterwards committed tour changes are applied incrementally:
+ * the ids travel over the {@link CacheInvalidationBus} so every node re-reads those tours from the
+ * database, and a whole-catalogue change (an import) rebuilds the indexes in the background and
+ * swaps them in. Changes that arrive during a rebuild are replayed onto the new indexes.
+ * <p>
+ * Typeahead ranks by booking count, re-read every {@code vitotrips.autocomplete.popularity-refresh};
+ * that pass also rebuilds once removals have left the trie twice the size it was built at.
+ */
+@Service
+@Slf4j
+public class TourSearchService {
+
+    static final String REGION = "tour-search";
+
+    private final TourReadRepository tourReadRepository;
+    private final TourRepository tourRepository;
+    private final BookingRepository bookingRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final Executor executor;
+    private final Scheduler scheduler;
+    private final Timer searchTimer;
+    private final Timer autocompleteTimer;
+    private final int maxSuggestions;
+
+    private volatile Indexes indexes = new Indexes(new TourSearchIndex(), new TourAutocompleteIndex(), 0);
+    private volatile boolean ready;
+    // Guarded by this: ids changed while a rebuild runs, and whether another rebuild was requested
+    private Set<Long> changedDuringRebuild;
+    private boolean rebuildRequested;
+
+    public TourSearchService(TourReadRepository tourReadRepository, TourRepository tourRepository,
+                             BookingRepository bookingRepository, CacheInvalidationBus invalidationBus,
+                             BlockingExecutor blockingExecutor, MeterRegistry meterRegistry,
+                             @Value("${vitotrips.autocomplete.max-suggestions:10}") int maxSuggestions) {
+        this.tourReadRepository = tourReadRepository;
+        this.tourRepository = tourRepository;
+        this.bookingRepository = bookingRepository;
+        this.invalidationBus = invalidationBus;
+        this.maxSuggestions = maxSuggestions;
+        this.executor = blockingExecutor.executor(Subsystem.TOURS);
+        this.scheduler = blockingExecutor.scheduler(Subsystem.TOURS);
+        this.searchTimer = Timer.builder("vitotrips.search.latency")
+                .description("Time to answer a tour search from the index")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.search.documents", this, service -> service.indexes.search().size())
+                .description("Tours in the search index")
+                .register(meterRegistry);
+        this.autocompleteTimer = Timer.builder("vitotrips.autocomplete.latency")
+                .description("Time to answer a typeahead request from the trie")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.autocomplete.entries", this, service -> service.indexes.autocomplete().size())
+                .description("Tour names and locations in the typeahead trie")
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.autocomplete.nodes", this, service -> service.indexes.autocomplete().nodeCount())
+                .description("Nodes in the typeahead trie")
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.autocomplete.memory", this, service -> service.indexes.autocomplete().memoryBytes())
+                .description("Approximate heap held by the typeahead trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        invalidationBus.subscribe(REGION, this::onInvalidation);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<TourSearchHit> search(String query, int limit) {
+        return searchTimer.record(() -> indexes.search().search(query, limit));
+    }
+
+    // At most vitotrips.autocomplete.max-suggestions, 1 if limit is below that
+    public List<TourSuggestion> complete(String prefix, Integer limit) {
+        int count = limit == null ? maxSuggestions : Math.max(1, Math.min(limit, maxSuggestions));
+        return autocompleteTimer.record(() -> indexes.autocomplete().complete(prefix, count));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // After commit, so the re-read below sees the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (event.tourIds() == null) {
+            invalidationBus.publish(REGION, null);
+        } else if (!event.tourIds().isEmpty()) {
+            invalidationBus.publish(REGION, event.tourIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+
+    // Bus callback, here and on the other nodes: a comma-separated id list, or null for everything
+    private void onInvalidation(String key) {
+        if (key == null) {
+            rebuild();
+            return;
+        }
+        List<Long> ids = Arrays.stream(key.split(",")).map(Long::valueOf).toList();
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(ids);
+            }
+        }
+        try {
+            executor.execute(() -> refresh(indexes, ids));
+        } catch (RejectedExecutionException e) {
+            log.warn("Search index update for tours {} dropped, rebuilding: {}", key, e.getMessage());
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vitotrips.autocomplete.popularity-refresh:PT5M}",
+            initialDelayString = "${vitotrips.autocomplete.popularity-refresh:PT5M}")
+    public void refreshPopularity() {
+        if (!ready) {
+            return;
+        }
+        Indexes current = indexes;
+        try {
+            current.autocomplete().setBookings(bookingCounts());
+        } catch (RuntimeException e) {
+            log.warn("Refreshing typeahead popularity failed: {}", e.getMessage());
+            return;
+        }
+        if (current.autocomplete().nodeCount() > 2 * Math.max(current.autocompleteNodes(), 1024)) {
+            log.info("Typeahead trie grew to {} nodes from {}, rebuilding", current.autocomplete().nodeCount(),
+                    current.autocompleteNodes());
+            rebuild();
+        }
+    }
+
+    private Map<Long, Integer> bookingCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (TourBookingCount count : bookingRepository.countBookingsByTour()) {
+            counts.put(count.tourId(), (int) Math.min(Integer.MAX_VALUE, count.bookings()));
+        }
+        return counts;
+    }
+
+    private void refresh(Indexes target, List<Long> ids) {
+        try {
+            Set<Long> missing = new HashSet<>(ids);
+            for (Tour tour : tourRepository.findAllById(ids)) {
+                target.search().put(tour.getId(), tour.getTourName(), tour.getLocation(), tour.getDescription());
+                target.autocomplete().put(tour.getId(), tour.getTourName(), tour.getLocation());
+                missing.remove(tour.getId());
+            }
+            for (Long id : missing) {
+                target.search().remove(id);
+                target.autocomplete().remove(id);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Search index update for tours {} failed: {}", ids, e.getMessage());
+        }
+    }
+
+    private void rebuild() {
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                rebuildRequested = true;
+                return;
+            }
+            changedDuringRebuild = new HashSet<>();
+        }
+        long startedAt = System.nanoTime();
+        TourSearchIndex search = new TourSearchIndex();
+        TourAutocompleteIndex autocomplete = new TourAutocompleteIndex();
+        Mono.fromCallable(this::bookingCounts)
+                .subscribeOn(scheduler)
+                .flatMapMany(counts -> tourReadRepository.findAll()
+                        .publishOn(scheduler)
+                        .doOnNext(tour -> {
+                            search.put(tour.id(), tour.tourName(), tour.location(), tour.description());
+                            autocomplete.put(tour.id(), tour.tourName(), tour.location());
+                        })
+                        .doOnComplete(() -> autocomplete.setBookings(counts)))
+                .subscribe(
+                        null,
+                        error -> {
+                            log.error("Building the tour search index failed", error);
+                            finishRebuild(null);
+                        },
+                        () -> {
+                            log.info("Tour search index built: {} tours, {} typeahead entries ({} KiB) in {} ms",
+                                    search.size(), autocomplete.size(), autocomplete.memoryBytes() / 1024,
+                                    (System.nanoTime() - startedAt) / 1_000_000);
+                            finishRebuild(new Indexes(search, autocomplete, autocomplete.nodeCount()));
+                        });
+    }
+
+    private void finishRebuild(Indexes fresh) {
+        List<Long> replay;
+        boolean again;
+        synchronized (this) {
+            if (fresh != null) {
+                indexes = fresh;
+                ready = true;
+            }
+            replay = new ArrayList<>(changedDuringRebuild);
+            again = rebuildRequested;
+            changedDuringRebuild = null;
+            rebuildRequested = false;
+        }
+        if (fresh != null && !replay.isEmpty()) {
+            try {
+                executor.execute(() -> refresh(fresh, replay));
+            } catch (RejectedExecutionException e) {
+                log.warn("Search index replay of {} tours dropped: {}", replay.size(), e.getMessage());
+            }
+        }
+        if (again) {
+            rebuild();
+        }
+    }
+
+    // Swapped together, so a rebuild never pairs a new search index with a stale trie
+    private record Indexes(TourSearchIndex search, TourAutocompleteIndex autocomplete, int autocompleteNodes) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.vitotrips.security;
+
+import com.vitotrips.model.UserRole;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+
+/**
+ * Spring Security principal that also carries the profile fields the API hands back after login,
+ * so callers holding an authenticated principal don't need to reload the user.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+    private final String name;
+    private final UserRole role;
+
+    public AuthenticatedUser(Long id, String email, String passwordHash, String name, UserRole role) {
+        // UserRole names already carry the ROLE_ prefix
+        super(email, passwordHash, Collections.singletonList(new SimpleGrantedAuthority(role.getAuthority())));
+        this.id = id;
+        this.name = name;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+}
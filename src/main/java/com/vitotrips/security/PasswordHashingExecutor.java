@@ -0,0 +1,88 @@
+package com.vitotrips.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedicated platform-thread pool for BCrypt. Hashing is pure CPU, so the pool is sized to the
+ * core count and virtual threads buy nothing; the bounded queue turns a login storm into fast
+ * 503s instead of starving every other request of CPU.
+ * <p>
+ * Sized through {@code vitotrips.security.hashing.threads} and {@code .max-queued}.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${vitotrips.security.hashing.threads:0}") int threads,
+                                   @Value("${vitotrips.security.hashing.max-queued:0}") int maxQueued) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int queueSize = maxQueued > 0 ? maxQueued : poolSize * 16;
+        Counter rejected = Counter.builder("vitotrips.password.hashing.rejected")
+                .description("Hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory(),
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Password hashing queue is full");
+                });
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+
+        Gauge.builder("vitotrips.password.hashing.queued", executor, pool -> pool.getQueue().size())
+                .description("Hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing tasks currently running")
+                .register(meterRegistry);
+        log.debug("Password hashing pool sized to {} threads / {} queued tasks", poolSize, queueSize);
+    }
+
+    /**
+     * Runs the hashing work on the pool; a full queue surfaces as 503 so clients can back off.
+     */
+    public <T> Mono<T> call(Callable<T> task) {
+        return Mono.fromCallable(task)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, PasswordHashingExecutor::busy);
+    }
+
+    /**
+     * Scheduler for components that hop threads themselves, such as the authentication manager.
+     */
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    public static ResponseStatusException busy(RejectedExecutionException e) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, please retry", e);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
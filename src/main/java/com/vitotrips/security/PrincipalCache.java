@@ -0,0 +1,74 @@
+package com.vitotrips.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vitotrips.cache.CacheInvalidationBus;
+import com.vitotrips.model.User;
+import com.vitotrips.model.UserRole;
+import com.vitotrips.service.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived, size-bounded near-cache of principals by email, in front of the users table.
+ * <p>
+ * Entries are immutable snapshots; every lookup builds a fresh {@link AuthenticatedUser}, so
+ * credential erasure on one authentication can't leak into the next. User changes evict the entry
+ * after commit on this node and, through {@link CacheInvalidationBus}, on every other node.
+ */
+@Component
+public class PrincipalCache {
+
+    static final String REGION = "principals";
+
+    private final Cache<String, Snapshot> principals;
+    private final CacheInvalidationBus invalidationBus;
+
+    public PrincipalCache(CacheInvalidationBus invalidationBus,
+                          MeterRegistry meterRegistry,
+                          @Value("${vitotrips.security.principal-cache.ttl:PT30S}") Duration ttl,
+                          @Value("${vitotrips.security.principal-cache.max-size:10000}") long maxSize) {
+        this.invalidationBus = invalidationBus;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, REGION);
+        invalidationBus.subscribe(REGION, email -> {
+            if (email == null) {
+                principals.invalidateAll();
+            } else {
+                principals.invalidate(email);
+            }
+        });
+    }
+
+    public Optional<AuthenticatedUser> get(String email) {
+        return Optional.ofNullable(principals.getIfPresent(email)).map(Snapshot::toPrincipal);
+    }
+
+    public AuthenticatedUser put(User user) {
+        Snapshot snapshot = new Snapshot(user.getId(), user.getEmail(), user.getPasswordHash(), user.getName(), user.getRole());
+        principals.put(user.getEmail(), snapshot);
+        return snapshot.toPrincipal();
+    }
+
+    // After commit, so a concurrent reload can't repopulate the cache with the pre-change row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        event.emails().forEach(email -> invalidationBus.publish(REGION, email));
+    }
+
+    private record Snapshot(Long id, String email, String passwordHash, String name, UserRole role) {
+        AuthenticatedUser toPrincipal() {
+            return new AuthenticatedUser(id, email, passwordHash, name, role);
+        }
+    }
+}
@@ -1,45 +1,53 @@
 package com.vitotrips.security;
 
-import com.vitotrips.model.User;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
 import com.vitotrips.service.UserService;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.Collections;
-
 @Service
-public class ReactiveUserDetailsServiceImpl implements ReactiveUserDetailsService {
+@Slf4j
+public class ReactiveUserDetailsServiceImpl implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
 
     private final UserService userService;
+    private final BlockingExecutor blockingExecutor;
+    private final PrincipalCache principalCache;
 
-    public ReactiveUserDetailsServiceImpl(UserService userService) {
+    public ReactiveUserDetailsServiceImpl(UserService userService, BlockingExecutor blockingExecutor,
+                                          PrincipalCache principalCache) {
         this.userService = userService;
+        this.blockingExecutor = blockingExecutor;
+        this.principalCache = principalCache;
     }
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        try {
-            User user = userService.getUserByEmail(username);
-            
-            // Create a UserDetails object from the User entity
-            org.springframework.security.core.userdetails.User userDetails = 
-                new org.springframework.security.core.userdetails.User(
-                    user.getEmail(),
-                    user.getPasswordHash(),
-                    Collections.singletonList(
-                        new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-                    )
-                );
-            
-            return Mono.just(userDetails);
-        } catch (UsernameNotFoundException e) {
-            return Mono.empty();
-        } catch (Exception e) {
-            return Mono.error(e);
-        }
+        // Near-cache hit answers on the calling thread; only misses go to the database
+        return Mono.justOrEmpty(principalCache.get(username))
+                .<UserDetails>cast(UserDetails.class)
+                .switchIfEmpty(Mono.defer(() ->
+                        blockingExecutor.call(Subsystem.USERS, () -> principalCache.put(userService.getUserByEmail(username)))))
+                .onErrorResume(UsernameNotFoundException.class, e -> Mono.empty());
+    }
+
+    /**
+     * Stores a hash re-encoded at the current cost factor after a successful login. A failed
+     * upgrade must not fail the login, so errors fall back to the already authenticated principal.
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        return blockingExecutor.call(Subsystem.USERS,
+                        () -> principalCache.put(userService.updatePasswordHash(user.getUsername(), newPassword)))
+                .<UserDetails>cast(UserDetails.class)
+                .onErrorResume(e -> {
+                    log.warn("Could not upgrade password hash for {}: {}", user.getUsername(), e.getMessage());
+                    return Mono.just(user);
+                });
     }
-} 
\ No newline at end of file
+}
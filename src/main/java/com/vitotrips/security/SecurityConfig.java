@@ -2,6 +2,8 @@ package com.vitotrips.security;
 
 import com.vitotrips.security.jwt.JwtAuthenticationEntryPoint;
 import com.vitotrips.security.jwt.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,8 +13,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
@@ -26,13 +28,25 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final ReactiveUserDetailsService userDetailsService;
+    private final ReactiveUserDetailsPasswordService userDetailsPasswordService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${vitotrips.security.bcrypt.strength:10}")
+    private int bcryptStrength;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
                           JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-                          ReactiveUserDetailsService userDetailsService) {
+                          ReactiveUserDetailsService userDetailsService,
+                          ReactiveUserDetailsPasswordService userDetailsPasswordService,
+                          PasswordHashingExecutor passwordHashingExecutor,
+                          MeterRegistry meterRegistry) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -54,8 +68,12 @@ public class SecurityConfig {
                         // Public API endpoints - new routes with /api/v1/ prefix
                         .pathMatchers("/api/v1/auth/login").permitAll()
                         .pathMatchers("/api/v1/auth/register").permitAll()
+                        // Stripe authenticates with its signature header, verified by the ingestor
+                        .pathMatchers(HttpMethod.POST.name(), "/api/v1/payments/webhook").permitAll()
                         .pathMatchers(HttpMethod.GET.name(), "/api/v1/users/email/{email}").permitAll()
                         .pathMatchers(HttpMethod.GET.name(), "/api/v1/tours").permitAll()
+                        .pathMatchers(HttpMethod.GET.name(), "/api/v1/tours/search").permitAll()
+                        .pathMatchers(HttpMethod.GET.name(), "/api/v1/tours/autocomplete").permitAll()
                         .pathMatchers(HttpMethod.GET.name(), "/api/v1/tours/{id}").permitAll()
                         
                         // Block old API endpoints to ensure they're not accessible
@@ -88,6 +106,10 @@ public class SecurityConfig {
                         .pathMatchers(HttpMethod.POST.name(), "/api/v1/users").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.GET.name(), "/api/v1/users/role/**").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.DELETE.name(), "/api/v1/users/**").hasRole("ADMIN")
+                        // Departure capacities too: tours have no owner an operator could be held to
+                        .pathMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                        // Month-end exports carry every customer's bookings and payments
+                        .pathMatchers(HttpMethod.GET.name(), "/api/v1/bookings/export", "/api/v1/payments/export").hasRole("ADMIN")
 
                         // Tour Operator and Admin endpoints
                         .pathMatchers(HttpMethod.GET.name(), "/api/v1/users").hasAnyRole("ADMIN", "TOUR_OPERATOR")
@@ -107,7 +129,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new MeteredBCryptPasswordEncoder(bcryptStrength, meterRegistry);
     }
 
     @Bean
@@ -115,6 +137,9 @@ public class SecurityConfig {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = 
             new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
         authenticationManager.setPasswordEncoder(passwordEncoder());
+        // BCrypt checks (and rehashes at a changed cost) run on the bounded hashing pool, never the event loop
+        authenticationManager.setScheduler(passwordHashingExecutor.scheduler());
+        authenticationManager.setUserDetailsPasswordService(userDetailsPasswordService);
         return authenticationManager;
     }
 }
\ No newline at end of file
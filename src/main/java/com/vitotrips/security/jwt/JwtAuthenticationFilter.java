@@ -1,6 +1,6 @@
 package com.vitotrips.security.jwt;
 
-import com.vitotrips.service.UserService;
+import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -11,6 +11,9 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter implements WebFilter {
@@ -34,20 +37,21 @@ public class JwtAuthenticationFilter implements WebFilter {
         
         String token = extractToken(request);
         
-        if (token != null && jwtProvider.validateToken(token)) {
-            String userEmail = jwtProvider.extractEmail(token);
+        // One verification per token; repeat requests are served from the provider's claims cache
+        Optional<Claims> claims = jwtProvider.parseClaims(token);
+        if (claims.isPresent()) {
+            String userEmail = claims.get().getSubject();
             
             return userDetailsService.findByUsername(userEmail)
                 .map(userDetails -> {
                     UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
-                    return authentication;
+                    return ReactiveSecurityContextHolder.withAuthentication(authentication);
                 })
-                .flatMap(authentication -> 
-                    chain.filter(exchange)
-                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
-                );
+                // A valid token for a user that no longer exists continues unauthenticated
+                .defaultIfEmpty(Context.empty())
+                .flatMap(securityContext -> chain.filter(exchange).contextWrite(securityContext));
         }
         
         return chain.filter(exchange);
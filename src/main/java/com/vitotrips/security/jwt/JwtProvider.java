@@ -1,24 +1,56 @@
 package com.vitotrips.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
 
 @Component
 public class JwtProvider {
 
     @Value("${jwt.secret}")
     private String secretKey; // Hardcoding for demo; replace with environment variables in production
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+    @Value("${jwt.claims-cache.max-ttl:PT5M}")
+    private Duration claimsCacheMaxTtl;
+
+    private final MeterRegistry meterRegistry;
     private Key signingKey;
+    private JwtParser parser;
+    // Verified claims keyed by SHA-256 of the compact token; entries expire no later than the token's exp
+    private Cache<String, Claims> verifiedClaims;
+
+    public JwtProvider(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @PostConstruct
     public void init() {
         signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        // JwtParser is immutable and thread-safe once built
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new ClaimsExpiry(claimsCacheMaxTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwt.claims");
     }
 
     // Generate a JWT token for a user
@@ -32,33 +64,82 @@ public class JwtProvider {
                 .compact();
     }
 
-    // Validate the given token
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the token and returns its claims, or empty if the signature, format or expiry is invalid.
+     * Successfully verified tokens are cached, so repeat requests with the same token skip the HMAC check.
+     * Failures are never cached.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String digest = digest(token);
+        Claims cached = verifiedClaims.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedClaims.put(digest, claims);
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
+    // Validate the given token
+    public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
+    }
+
     // Extract email (subject) from the token
     public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verifiedClaimsOf(token).getSubject();
     }
 
     // Extract role from the token
     public String extractRole(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+        return verifiedClaimsOf(token).get("role", String.class);
+    }
+
+    private Claims verifiedClaimsOf(String token) {
+        return parseClaims(token).orElseThrow(() -> new MalformedJwtException("Invalid JWT token"));
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Per-entry lifetime: until the token's exp, capped at {@code jwt.claims-cache.max-ttl}.
+     * Reads never extend it.
+     */
+    private record ClaimsExpiry(Duration maxTtl) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long maxNanos = maxTtl.toNanos();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxNanos;
+            }
+            long untilExpiry = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,22 @@
 package com.vitotrips.service;
 
+import com.vitotrips.DTO.BookingBulkRow;
+import com.vitotrips.DTO.BookingView;
 import com.vitotrips.model.Booking;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
     Booking createBooking(Booking booking);
+    List<Long> createBookings(List<BookingBulkRow> rows);
     Booking updateBooking(Long bookingId, Booking updatedBooking);
-    Booking getBookingById(Long bookingId);
+    BookingView getBookingById(Long bookingId);
     List<Booking> getAllBookings();
+    Slice<BookingView> getBookingsBefore(LocalDateTime createdAt, Long id, int limit);
     boolean deleteBooking(Long bookingId);
+    Flux<BookingView> streamBookingsByUser(Long userId);
+    Flux<BookingView> streamBookingsByDateRange(LocalDateTime startDate, LocalDateTime endDate);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.vitotrips.service;
+
+import com.vitotrips.DTO.ExportFormat;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface ExportService {
+
+    // Bookings whose bookingDate falls in the range, ordered by bookingDate
+    Flux<DataBuffer> exportBookings(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format);
+
+    // Payments created in the range, ordered by createdAt
+    Flux<DataBuffer> exportPayments(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format);
+}
@@ -1,11 +1,14 @@
 package com.vitotrips.service;
 
+import com.vitotrips.DTO.GroupMemberBulkRow;
+import com.vitotrips.DTO.GroupMemberView;
 import com.vitotrips.model.GroupMember;
 
 import java.util.List;
 
 public interface GroupMemberService {
     GroupMember addGroupMember(GroupMember member);
-    List<GroupMember> getGroupMembers(Long groupId);
+    List<Long> addGroupMembers(List<GroupMemberBulkRow> rows);
+    List<GroupMemberView> getGroupMembers(Long groupId);
     void removeMember(Long memberId);
 }
\ No newline at end of file
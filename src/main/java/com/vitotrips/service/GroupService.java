@@ -1,6 +1,8 @@
 package com.vitotrips.service;
 
+import com.vitotrips.DTO.GroupView;
 import com.vitotrips.model.Group;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -8,7 +10,8 @@ import java.util.Optional;
 public interface GroupService {
     Group saveGroup(Group group);
     List<Group> getAllGroups();
-    Optional<Group> getGroupById(Long groupId);
-    List<Group> getGroupsByGroupLeader(Long groupLeaderId);
+    Slice<GroupView> getGroupsAfter(Long afterId, int limit);
+    Optional<GroupView> getGroupById(Long groupId);
+    List<GroupView> getGroupsByGroupLeader(Long groupLeaderId);
     void deleteGroup(Long groupId);
 }
\ No newline at end of file
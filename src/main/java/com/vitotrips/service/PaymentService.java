@@ -1,10 +1,14 @@
 package com.vitotrips.service;
 
 import com.stripe.exception.StripeException;
+import com.vitotrips.DTO.PaymentProcessorEvent;
 import com.vitotrips.DTO.PaymentRequest;
 import com.vitotrips.DTO.PaymentResponse;
+import com.vitotrips.DTO.PaymentView;
 import com.vitotrips.model.Payment;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +18,11 @@ public interface PaymentService {
     
     List<Payment> getAllPayments();
     
-    Optional<Payment> getPaymentById(Long paymentId);
+    Slice<PaymentView> getPaymentsBefore(LocalDateTime createdAt, Long id, int limit);
     
-    List<Payment> getPaymentsByBookingId(Long bookingId);
+    Optional<PaymentView> getPaymentById(Long paymentId);
+    
+    List<PaymentView> getPaymentsByBookingId(Long bookingId);
     
     void deletePayment(Long paymentId);
     
@@ -26,6 +32,12 @@ public interface PaymentService {
     Payment processSuccessfulPayment(String paymentIntentId) throws StripeException;
     
     Payment processFailedPayment(String paymentIntentId, String errorMessage);
+
+    void applyProcessorEvents(List<PaymentProcessorEvent> events);
     
     Payment refundPayment(Long paymentId) throws StripeException;
+
+    void recoverPendingOperation(Long paymentId) throws StripeException;
+
+    List<Long> getPaymentIdsWithOperationStartedBefore(LocalDateTime startedBefore, int limit);
 } 
\ No newline at end of file
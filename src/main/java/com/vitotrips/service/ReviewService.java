@@ -1,6 +1,9 @@
 package com.vitotrips.service;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.ReviewView;
 import com.vitotrips.model.Review;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -8,7 +11,12 @@ import java.util.Optional;
 public interface ReviewService {
     Review saveReview(Review review);
     List<Review> getAllReviews();
-    List<Review> getReviewsByTourId(Long tourId);
-    Optional<Review> getReviewById(Long reviewId);
+    Slice<ReviewView> getReviewsAfter(Long afterId, int limit);
+    List<ReviewView> getReviewsByTourId(Long tourId);
+    Optional<ReviewView> getReviewById(Long reviewId);
+    // HTTP validators of the reads above, see ConditionalResponses
+    ChangeStamp getReviewStamp(Long reviewId);
+    ChangeStamp getReviewsAfterStamp(Long afterId, int limit);
+    ChangeStamp getReviewsByTourIdStamp(Long tourId);
     void deleteReview(Long reviewId);
 }
\ No newline at end of file
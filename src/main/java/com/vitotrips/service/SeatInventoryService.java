@@ -0,0 +1,22 @@
+package com.vitotrips.service;
+
+import com.vitotrips.DTO.DepartureView;
+import com.vitotrips.model.Booking;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+public interface SeatInventoryService {
+    // Bookings in these states hold no seats
+    Set<Booking.PaymentStatus> RELEASED = Collections.unmodifiableSet(
+            EnumSet.of(Booking.PaymentStatus.FAILED, Booking.PaymentStatus.REFUNDED));
+
+    void reserve(Booking booking);
+    void release(Long bookingId);
+    DepartureView setCapacity(Long tourId, LocalDate departureDate, int capacity);
+    Optional<DepartureView> getDeparture(Long tourId, LocalDate departureDate);
+    long reconcile();
+}
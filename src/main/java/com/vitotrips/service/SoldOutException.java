@@ -0,0 +1,13 @@
+package com.vitotrips.service;
+
+import java.time.LocalDate;
+
+/**
+ * A booking asked for more seats than its tour departure has left.
+ */
+public class SoldOutException extends RuntimeException {
+
+    public SoldOutException(Long tourId, LocalDate departureDate) {
+        super("Tour " + tourId + " has no seats left on " + departureDate);
+    }
+}
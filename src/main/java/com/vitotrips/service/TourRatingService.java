@@ -0,0 +1,14 @@
+package com.vitotrips.service;
+
+import com.vitotrips.DTO.TourRatingSummary;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface TourRatingService {
+    TourRatingSummary getRating(Long tourId);
+    Map<Long, TourRatingSummary> getRatings(Collection<Long> tourIds);
+    void addReview(Long tourId, int rating);
+    void removeReview(Long tourId, int rating);
+    long repairRatings();
+}
@@ -1,14 +1,24 @@
 package com.vitotrips.service;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.TourBulkRow;
+import com.vitotrips.DTO.TourView;
 import com.vitotrips.model.Tour;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface TourService {
     Tour saveTour(Tour tour);
+    List<Long> saveTours(List<TourBulkRow> rows);
     List<Tour> getAllTours();
+    Slice<Tour> getToursAfter(Long afterId, int limit);
     Optional<Tour> getTourById(Long tourId);
     List<Tour> getToursByLocation(String location);
+    // HTTP validator of getToursAfter, see ConditionalResponses; the cached reads carry their own
+    ChangeStamp getToursAfterStamp(Long afterId, int limit);
     void deleteTour(Long tourId);
+    Flux<TourView> streamTours();
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.vitotrips.service;
 
 import com.vitotrips.model.User;
 import com.vitotrips.model.UserRole;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.List;
@@ -11,8 +12,10 @@ public interface UserService {
     User saveUser(User user);
     List<User> getUsersByRole(UserRole role);
     User getUserByEmail(String email) throws UsernameNotFoundException;
+    User updatePasswordHash(String email, String passwordHash) throws UsernameNotFoundException;
     Optional<User> getUserById(Long id);
     List<User> getAllUsers();
+    Slice<User> getUsersAfter(Long afterId, int limit);
     void deleteUser(Long id);
     boolean existsByEmail(String email);
 }
\ No newline at end of file
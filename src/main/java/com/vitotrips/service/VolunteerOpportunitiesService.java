@@ -1,6 +1,9 @@
 package com.vitotrips.service;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.VolunteerOpportunityView;
 import com.vitotrips.model.VolunteerOpportunities;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,11 +15,22 @@ public interface VolunteerOpportunitiesService {
 
     List<VolunteerOpportunities> getAllOpportunities();
 
-    Optional<VolunteerOpportunities> getOpportunityById(Long id);
+    Slice<VolunteerOpportunityView> getOpportunitiesAfter(Long afterId, int limit);
 
-    List<VolunteerOpportunities> getOpportunitiesByTourId(Long tourId);
+    Optional<VolunteerOpportunityView> getOpportunityById(Long id);
 
-    List<VolunteerOpportunities> getOpportunitiesByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    List<VolunteerOpportunityView> getOpportunitiesByTourId(Long tourId);
+
+    List<VolunteerOpportunityView> getOpportunitiesByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+
+    // HTTP validators of the reads above, see ConditionalResponses
+    ChangeStamp getOpportunityStamp(Long id);
+
+    ChangeStamp getOpportunitiesAfterStamp(Long afterId, int limit);
+
+    ChangeStamp getOpportunitiesByTourIdStamp(Long tourId);
+
+    ChangeStamp getOpportunitiesByDateRangeStamp(LocalDateTime startDate, LocalDateTime endDate);
 
     void deleteOpportunity(Long id);
 }
\ No newline at end of file
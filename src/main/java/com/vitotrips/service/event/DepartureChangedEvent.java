@@ -0,0 +1,10 @@
+package com.vitotrips.service.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published when seats of a departure are given back, its capacity changes or reconciliation
+ * corrects it, so every node re-reads its seat counter.
+ */
+public record DepartureChangedEvent(Long tourId, LocalDate departureDate) {
+}
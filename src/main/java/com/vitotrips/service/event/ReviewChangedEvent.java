@@ -0,0 +1,14 @@
+package com.vitotrips.service.event;
+
+import java.util.Collection;
+
+/**
+ * Published when reviews are created, updated or deleted, with the tours whose rating they moved.
+ * {@code tourIds == null} means any tour's rating may have changed.
+ */
+public record ReviewChangedEvent(Collection<Long> tourIds) {
+
+    public static ReviewChangedEvent all() {
+        return new ReviewChangedEvent(null);
+    }
+}
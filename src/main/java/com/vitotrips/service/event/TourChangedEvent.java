@@ -0,0 +1,14 @@
+package com.vitotrips.service.event;
+
+import java.util.Collection;
+
+/**
+ * Published when tours are created, updated or deleted, so derived views like the search index
+ * can refresh them. {@code tourIds == null} means the whole catalogue may have changed.
+ */
+public record TourChangedEvent(Collection<Long> tourIds) {
+
+    public static TourChangedEvent all() {
+        return new TourChangedEvent(null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.vitotrips.service.event;
+
+import java.util.Set;
+
+/**
+ * Published when a user is created, updated or deleted. Carries every email the change affects
+ * (the old one too, when an update renames the account) so principal caches can be evicted.
+ */
+public record UserChangedEvent(Long userId, Set<String> emails) {
+}
@@ -1,43 +1,130 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.DTO.BookingBulkRow;
+import com.vitotrips.DTO.BookingView;
+import com.vitotrips.cache.CacheNames;
 import com.vitotrips.model.Booking;
+import com.vitotrips.repository.BookingReadRepository;
 import com.vitotrips.repository.BookingRepository;
+import com.vitotrips.repository.GroupRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.repository.UserRepository;
 import com.vitotrips.service.BookingService;
+import com.vitotrips.service.SeatInventoryService;
+import jakarta.transaction.Transactional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
+    private final BookingReadRepository bookingReadRepository;
+    private final TourRepository tourRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final SeatInventoryService seatInventoryService;
 
     // Constructor injection
-    public BookingServiceImpl(BookingRepository bookingRepository) {
+    public BookingServiceImpl(BookingRepository bookingRepository, BookingReadRepository bookingReadRepository,
+                              TourRepository tourRepository, UserRepository userRepository,
+                              GroupRepository groupRepository, SeatInventoryService seatInventoryService) {
         this.bookingRepository = bookingRepository;
+        this.bookingReadRepository = bookingReadRepository;
+        this.tourRepository = tourRepository;
+        this.userRepository = userRepository;
+        this.groupRepository = groupRepository;
+        this.seatInventoryService = seatInventoryService;
     }
 
+    // A sold-out departure rolls the booking back
     @Override
+    @Transactional
     public Booking createBooking(Booking booking) {
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        if (!SeatInventoryService.RELEASED.contains(saved.getPaymentStatus())) {
+            seatInventoryService.reserve(saved);
+        }
+        return saved;
     }
 
+    // Related rows are attached as references, not loaded: a bad id surfaces as a foreign key
+    // violation at flush, and the pooled sequence lets Hibernate send the inserts as JDBC batches.
+    // Each booking then takes its seat as a single one would: a sold-out departure rolls the batch
+    // back, and NdjsonBulkWriter's row-by-row retry reports just the rows that found no seat
     @Override
+    @Transactional
+    public List<Long> createBookings(List<BookingBulkRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = rows.stream()
+                .map(row -> Booking.builder()
+                        .tour(tourRepository.getReferenceById(row.tourId()))
+                        .user(userRepository.getReferenceById(row.userId()))
+                        .group(row.groupId() == null ? null : groupRepository.getReferenceById(row.groupId()))
+                        .totalAmount(row.totalAmount())
+                        .paidAmount(row.paidAmount() == null ? BigDecimal.ZERO : row.paidAmount())
+                        .installmentPlan(row.installmentPlan())
+                        .paymentStatus(row.paymentStatus() == null ? Booking.PaymentStatus.PENDING : row.paymentStatus())
+                        .bookingDate(row.bookingDate())
+                        .specialInstructions(row.specialInstructions())
+                        .bookingType(row.bookingType())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        List<Booking> saved = bookingRepository.saveAllAndFlush(bookings);
+        for (Booking booking : saved) {
+            if (!SeatInventoryService.RELEASED.contains(booking.getPaymentStatus())) {
+                seatInventoryService.reserve(booking);
+            }
+        }
+        return saved.stream().map(Booking::getId).toList();
+    }
+
+    // A booking moved to another date, or failed / refunded, gives its seat back; a move to a
+    // sold-out date rolls the update back
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKINGS, key = "#bookingId")
     public Booking updateBooking(Long bookingId, Booking updatedBooking) {
         Optional<Booking> existingBooking = bookingRepository.findById(bookingId);
         if (existingBooking.isPresent()) {
             Booking booking = existingBooking.get();
+            boolean heldSeats = !SeatInventoryService.RELEASED.contains(booking.getPaymentStatus());
+            LocalDate departedOn = departureDate(booking);
             booking.setPaymentStatus(updatedBooking.getPaymentStatus());
             booking.setBookingDate(updatedBooking.getBookingDate());
             // Update other fields as required
-            return bookingRepository.save(booking);
+            Booking saved = bookingRepository.save(booking);
+            boolean holdsSeats = !SeatInventoryService.RELEASED.contains(saved.getPaymentStatus());
+            boolean moved = !Objects.equals(departedOn, departureDate(saved));
+            if (heldSeats && (!holdsSeats || moved)) {
+                seatInventoryService.release(bookingId);
+            }
+            if (holdsSeats && (!heldSeats || moved)) {
+                seatInventoryService.reserve(saved);
+            }
+            return saved;
         }
         throw new RuntimeException("Booking not found.");
     }
 
+    // Cached as the flat view: no associations to load, and a small Redis entry
     @Override
-    public Booking getBookingById(Long bookingId) {
-        return bookingRepository.findById(bookingId)
+    @Cacheable(cacheNames = CacheNames.BOOKINGS, key = "#bookingId", sync = true)
+    public BookingView getBookingById(Long bookingId) {
+        return bookingRepository.findViewById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found."));
     }
 
@@ -47,11 +134,37 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    public Slice<BookingView> getBookingsBefore(LocalDateTime createdAt, Long id, int limit) {
+        // Newest first; a null position means the first page
+        if (createdAt == null) {
+            return bookingRepository.findViewSlice(PageRequest.ofSize(limit));
+        }
+        return bookingRepository.findViewSliceBefore(createdAt, id, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKINGS, key = "#bookingId")
     public boolean deleteBooking(Long bookingId) {
         if (bookingRepository.existsById(bookingId)) {
+            seatInventoryService.release(bookingId);
             bookingRepository.deleteById(bookingId);
             return true;
         }
         return false;
     }
+
+    @Override
+    public Flux<BookingView> streamBookingsByUser(Long userId) {
+        return bookingReadRepository.findByUserId(userId);
+    }
+
+    @Override
+    public Flux<BookingView> streamBookingsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return bookingReadRepository.findByBookingDateBetween(startDate, endDate);
+    }
+
+    private static LocalDate departureDate(Booking booking) {
+        return booking.getBookingDate() == null ? null : booking.getBookingDate().toLocalDate();
+    }
 }
\ No newline at end of file
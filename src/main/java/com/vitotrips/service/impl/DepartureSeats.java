@@ -0,0 +1,72 @@
+package com.vitotrips.service.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A node's count of the seats left in each bucket of one departure, in front of the
+ * departure_buckets rows. Taking seats is a compare-and-set on one bucket's slot, starting from a
+ * random bucket, so threads selling one departure spread over its buckets just as their
+ * transactions spread over the bucket rows. Departures never contend with each other, and once a
+ * departure is full every further attempt is turned away after one read per bucket.
+ * <p>
+ * The counts are a cache: the bucket rows stay the arbiter between nodes, see
+ * {@link SeatInventoryServiceImpl}.
+ */
+final class DepartureSeats {
+
+    // Departures without a capacity: bookings are taken without counting
+    static final DepartureSeats UNCONTROLLED = new DepartureSeats(null, new int[0]);
+
+    private final Long departureId;
+    private final AtomicIntegerArray available;
+
+    DepartureSeats(Long departureId, int[] available) {
+        this.departureId = departureId;
+        this.available = new AtomicIntegerArray(available.length);
+        for (int bucket = 0; bucket < available.length; bucket++) {
+            this.available.set(bucket, Math.max(0, available[bucket]));
+        }
+    }
+
+    Long departureId() {
+        return departureId;
+    }
+
+    boolean controlled() {
+        return departureId != null;
+    }
+
+    int available() {
+        int total = 0;
+        for (int bucket = 0; bucket < available.length(); bucket++) {
+            total += available.get(bucket);
+        }
+        return total;
+    }
+
+    // The bucket the seats were taken from; -1, and nothing taken, when no bucket has that many left
+    int tryTake(int seats) {
+        int buckets = available.length();
+        int first = buckets > 1 ? ThreadLocalRandom.current().nextInt(buckets) : 0;
+        for (int i = 0; i < buckets; i++) {
+            int bucket = (first + i) % buckets;
+            int left;
+            while ((left = available.get(bucket)) >= seats) {
+                if (available.compareAndSet(bucket, left, left - seats)) {
+                    return bucket;
+                }
+            }
+        }
+        return -1;
+    }
+
+    void giveBack(int bucket, int seats) {
+        available.addAndGet(bucket, seats);
+    }
+
+    // The bucket's row turned out to have no seats left; none are offered from it until re-read
+    void empty(int bucket) {
+        available.set(bucket, 0);
+    }
+}
@@ -0,0 +1,234 @@
+package com.vitotrips.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vitotrips.DTO.BookingView;
+import com.vitotrips.DTO.ExportFormat;
+import com.vitotrips.DTO.PaymentView;
+import com.vitotrips.execution.BlockingExecutor;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.repository.BookingRepository;
+import com.vitotrips.repository.PaymentRepository;
+import com.vitotrips.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams large result sets to the client without materialising them.
+ * <p>
+ * Each export runs on one virtual thread of the {@link Subsystem#EXPORTS} executor inside a read-only
+ * transaction: rows come off a JDBC cursor with a fixed fetch size, are encoded into chunks of
+ * {@code vitotrips.export.chunk-size} bytes, and a chunk is only handed to the response once the
+ * subscriber has requested it. A slow client therefore stalls the cursor instead of growing the heap;
+ * one that stops reading for longer than {@code vitotrips.export.stall-timeout} aborts the export.
+ */
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private static final String BOOKING_CSV_HEADER = "id,tourId,userId,groupId,totalAmount,paidAmount,installmentPlan," +
+            "paymentStatus,bookingDate,specialInstructions,bookingType,createdAt,updatedAt\n";
+    private static final String PAYMENT_CSV_HEADER = "id,bookingId,amount,paymentStatus,processorPaymentId,processorFee," +
+            "paymentMethod,paymentDate,refundDate,refundAmount,refundReason,createdAt,updatedAt\n";
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor executor;
+    private final ObjectWriter jsonWriter;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final int chunkSize;
+    private final Duration stallTimeout;
+
+    public ExportServiceImpl(BookingRepository bookingRepository,
+                             PaymentRepository paymentRepository,
+                             PlatformTransactionManager transactionManager,
+                             BlockingExecutor blockingExecutor,
+                             ObjectMapper objectMapper,
+                             @Value("${vitotrips.export.chunk-size:32768}") int chunkSize,
+                             @Value("${vitotrips.export.stall-timeout:PT2M}") Duration stallTimeout) {
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = blockingExecutor.executor(Subsystem.EXPORTS);
+        this.jsonWriter = objectMapper.writer();
+        this.chunkSize = chunkSize;
+        this.stallTimeout = stallTimeout;
+    }
+
+    @Override
+    public Flux<DataBuffer> exportBookings(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format) {
+        return export(() -> bookingRepository.streamViewsByBookingDateBetween(startDate, endDate),
+                format, BOOKING_CSV_HEADER, ExportServiceImpl::bookingCsvRow);
+    }
+
+    @Override
+    public Flux<DataBuffer> exportPayments(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format) {
+        return export(() -> paymentRepository.streamViewsByCreatedAtBetween(startDate, endDate),
+                format, PAYMENT_CSV_HEADER, ExportServiceImpl::paymentCsvRow);
+    }
+
+    private <T> Flux<DataBuffer> export(Supplier<Stream<T>> rows, ExportFormat format,
+                                        String csvHeader, CsvRow<T> csvRow) {
+        return Flux.create(sink -> {
+            Demand demand = new Demand();
+            sink.onRequest(demand::add);
+            sink.onDispose(demand::cancel);
+            try {
+                executor.execute(() -> produce(rows, format, csvHeader, csvRow, sink, demand));
+            } catch (RejectedExecutionException e) {
+                sink.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports running, please retry", e));
+            }
+        });
+    }
+
+    private <T> void produce(Supplier<Stream<T>> rows, ExportFormat format, String csvHeader, CsvRow<T> csvRow,
+                             FluxSink<DataBuffer> sink, Demand demand) {
+        try {
+            boolean finished = Boolean.TRUE.equals(readOnlyTransaction.execute(status -> {
+                try (Stream<T> stream = rows.get()) {
+                    ByteArrayOutputStream chunk = new ByteArrayOutputStream(chunkSize + 1024);
+                    if (format == ExportFormat.CSV) {
+                        chunk.writeBytes(csvHeader.getBytes(StandardCharsets.UTF_8));
+                    }
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        T row = iterator.next();
+                        if (format == ExportFormat.CSV) {
+                            chunk.writeBytes(csvRow.format(row).getBytes(StandardCharsets.UTF_8));
+                        } else {
+                            jsonWriter.writeValue(chunk, row);
+                            chunk.write('\n');
+                        }
+                        if (chunk.size() >= chunkSize && !emit(chunk, sink, demand)) {
+                            return false;
+                        }
+                    }
+                    return chunk.size() == 0 || emit(chunk, sink, demand);
+                } catch (IOException | InterruptedException | TimeoutException e) {
+                    throw new IllegalStateException("Export aborted", e);
+                }
+            }));
+            if (finished) {
+                sink.complete();
+            }
+        } catch (RuntimeException e) {
+            if (!demand.isCancelled()) {
+                log.warn("Export failed: {}", e.getMessage());
+                sink.error(e);
+            }
+        }
+    }
+
+    // Waits for downstream demand, then hands the chunk over. Returns false if the subscriber went away
+    private boolean emit(ByteArrayOutputStream chunk, FluxSink<DataBuffer> sink, Demand demand)
+            throws InterruptedException, TimeoutException {
+        if (!demand.awaitPermit(stallTimeout)) {
+            return false;
+        }
+        sink.next(bufferFactory.wrap(chunk.toByteArray()));
+        chunk.reset();
+        return true;
+    }
+
+    private static String bookingCsvRow(BookingView b) {
+        return csv(b.id(), b.tourId(), b.userId(), b.groupId(), b.totalAmount(), b.paidAmount(), b.installmentPlan(),
+                b.paymentStatus(), b.bookingDate(), b.specialInstructions(), b.bookingType(), b.createdAt(), b.updatedAt());
+    }
+
+    private static String paymentCsvRow(PaymentView p) {
+        return csv(p.id(), p.bookingId(), p.amount(), p.paymentStatus(), p.processorPaymentId(), p.processorFee(),
+                p.paymentMethod(), p.paymentDate(), p.refundDate(), p.refundAmount(), p.refundReason(),
+                p.createdAt(), p.updatedAt());
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks; nulls become empty fields
+    private static String csv(Object... fields) {
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (fields[i] == null) {
+                continue;
+            }
+            String value = fields[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.append('\n').toString();
+    }
+
+    @FunctionalInterface
+    private interface CsvRow<T> {
+        String format(T row);
+    }
+
+    /**
+     * Bridges Reactive Streams demand to the blocking producer thread. Virtual-thread friendly:
+     * the producer parks on a semaphore rather than holding a monitor.
+     */
+    private static final class Demand {
+
+        // Requests this large (typically Long.MAX_VALUE) are treated as "no backpressure"
+        private static final int UNBOUNDED_THRESHOLD = 1 << 20;
+
+        private final Semaphore permits = new Semaphore(0);
+        private volatile boolean unbounded;
+        private volatile boolean cancelled;
+
+        void add(long n) {
+            if (n >= UNBOUNDED_THRESHOLD) {
+                unbounded = true;
+            }
+            permits.release((int) Math.min(n, UNBOUNDED_THRESHOLD));
+        }
+
+        void cancel() {
+            cancelled = true;
+            permits.release();
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        boolean awaitPermit(Duration timeout) throws InterruptedException, TimeoutException {
+            if (unbounded) {
+                return !cancelled;
+            }
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("Client stopped reading for " + timeout);
+            }
+            return !cancelled;
+        }
+    }
+}
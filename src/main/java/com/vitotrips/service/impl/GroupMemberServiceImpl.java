@@ -1,8 +1,13 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.DTO.GroupMemberBulkRow;
+import com.vitotrips.DTO.GroupMemberView;
 import com.vitotrips.model.GroupMember;
 import com.vitotrips.repository.GroupMemberRepository;
+import com.vitotrips.repository.GroupRepository;
+import com.vitotrips.repository.UserRepository;
 import com.vitotrips.service.GroupMemberService;
+import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,9 +16,14 @@ import java.util.List;
 public class GroupMemberServiceImpl implements GroupMemberService {
 
     private final GroupMemberRepository groupMemberRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
 
-    public GroupMemberServiceImpl(GroupMemberRepository groupMemberRepository) {
+    public GroupMemberServiceImpl(GroupMemberRepository groupMemberRepository, GroupRepository groupRepository,
+                                  UserRepository userRepository) {
         this.groupMemberRepository = groupMemberRepository;
+        this.groupRepository = groupRepository;
+        this.userRepository = userRepository;
     }
 
     @Override
@@ -21,9 +31,22 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         return groupMemberRepository.save(member);
     }
 
+    // See BookingServiceImpl#createBookings
     @Override
-    public List<GroupMember> getGroupMembers(Long groupId) {
-        return groupMemberRepository.findByGroup_Id(groupId);
+    @Transactional
+    public List<Long> addGroupMembers(List<GroupMemberBulkRow> rows) {
+        List<GroupMember> members = rows.stream()
+                .map(row -> GroupMember.builder()
+                        .group(groupRepository.getReferenceById(row.groupId()))
+                        .user(userRepository.getReferenceById(row.userId()))
+                        .build())
+                .toList();
+        return groupMemberRepository.saveAllAndFlush(members).stream().map(GroupMember::getId).toList();
+    }
+
+    @Override
+    public List<GroupMemberView> getGroupMembers(Long groupId) {
+        return groupMemberRepository.findViewsByGroupId(groupId);
     }
 
     @Override
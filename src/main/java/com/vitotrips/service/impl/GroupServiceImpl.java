@@ -1,9 +1,12 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.DTO.GroupView;
 import com.vitotrips.model.Group;
 import com.vitotrips.repository.GroupRepository;
 import com.vitotrips.service.GroupService;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -30,13 +33,18 @@ public class GroupServiceImpl implements GroupService {
     }
 
     @Override
-    public Optional<Group> getGroupById(Long groupId) {
-        return groupRepository.findById(groupId);
+    public Slice<GroupView> getGroupsAfter(Long afterId, int limit) {
+        return groupRepository.findViewsAfter(afterId, PageRequest.ofSize(limit));
     }
 
     @Override
-    public List<Group> getGroupsByGroupLeader(Long groupLeaderId) {
-        return groupRepository.findByLeader_Id(groupLeaderId);
+    public Optional<GroupView> getGroupById(Long groupId) {
+        return groupRepository.findViewById(groupId);
+    }
+
+    @Override
+    public List<GroupView> getGroupsByGroupLeader(Long groupLeaderId) {
+        return groupRepository.findViewsByLeaderId(groupLeaderId);
     }
 
     @Override
@@ -0,0 +1,50 @@
+package com.vitotrips.service.impl;
+
+import com.vitotrips.service.PaymentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Picks up payments whose processor call started but whose outcome was never recorded (crash,
+ * redeploy, network failure) and finishes them through {@link PaymentService#recoverPendingOperation}.
+ * Disable with {@code vitotrips.payments.recovery.enabled=false}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "vitotrips.payments.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentRecoveryJob {
+
+    private final PaymentService paymentService;
+    private final Duration staleAfter;
+    private final int batchSize;
+
+    public PaymentRecoveryJob(PaymentService paymentService,
+                              @Value("${vitotrips.payments.recovery.stale-after:PT2M}") Duration staleAfter,
+                              @Value("${vitotrips.payments.recovery.batch-size:50}") int batchSize) {
+        this.paymentService = paymentService;
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+    }
+
+    // Only operations older than stale-after, so calls still legitimately in flight are left alone
+    @Scheduled(fixedDelayString = "${vitotrips.payments.recovery.interval:PT1M}",
+            initialDelayString = "${vitotrips.payments.recovery.interval:PT1M}")
+    public void recoverStalledOperations() {
+        List<Long> paymentIds = paymentService.getPaymentIdsWithOperationStartedBefore(
+                LocalDateTime.now().minus(staleAfter), batchSize);
+        for (Long paymentId : paymentIds) {
+            try {
+                paymentService.recoverPendingOperation(paymentId);
+            } catch (Exception e) {
+                log.warn("Recovery of payment {} failed, will retry: {}", paymentId, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,42 +1,76 @@
 package com.vitotrips.service.impl;
 
 import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.RefundCreateParams;
+import com.vitotrips.DTO.PaymentProcessorEvent;
 import com.vitotrips.DTO.PaymentRequest;
 import com.vitotrips.DTO.PaymentResponse;
+import com.vitotrips.DTO.PaymentView;
+import com.vitotrips.cache.CacheNames;
 import com.vitotrips.model.Booking;
 import com.vitotrips.model.Payment;
 import com.vitotrips.repository.BookingRepository;
 import com.vitotrips.repository.PaymentRepository;
 import com.vitotrips.service.PaymentService;
+import com.vitotrips.service.SeatInventoryService;
+import com.vitotrips.service.SoldOutException;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class PaymentServiceImpl implements PaymentService {
 
+    // Stripe keeps idempotency keys for 24 hours; stay clear of the edge
+    private static final Duration IDEMPOTENCY_WINDOW = Duration.ofHours(23);
+
+    // A failed intent can still succeed when the customer retries the card
+    private static final Set<Payment.PaymentStatus> CONFIRMABLE =
+            Set.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.FAILED);
+
     @Value("${stripe.api.key}")
     private String stripeApiKey;
 
     private final PaymentRepository paymentRepository;
     private final BookingRepository bookingRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
 
-    public PaymentServiceImpl(PaymentRepository paymentRepository, BookingRepository bookingRepository) {
+    public PaymentServiceImpl(PaymentRepository paymentRepository, BookingRepository bookingRepository,
+                              SeatInventoryService seatInventoryService, CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
         this.bookingRepository = bookingRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @PostConstruct
@@ -55,13 +89,27 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    public Optional<Payment> getPaymentById(Long paymentId) {
-        return paymentRepository.findById(paymentId);
+    public Slice<PaymentView> getPaymentsBefore(LocalDateTime createdAt, Long id, int limit) {
+        // Newest first; a null position means the first page
+        if (createdAt == null) {
+            return paymentRepository.findViewSlice(PageRequest.ofSize(limit));
+        }
+        return paymentRepository.findViewSliceBefore(createdAt, id, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    public Optional<PaymentView> getPaymentById(Long paymentId) {
+        return paymentRepository.findViewById(paymentId);
     }
 
     @Override
-    public List<Payment> getPaymentsByBookingId(Long bookingId) {
-        return paymentRepository.findByBooking_Id(bookingId);
+    public List<PaymentView> getPaymentsByBookingId(Long bookingId) {
+        return paymentRepository.findViewsByBookingId(bookingId);
+    }
+
+    @Override
+    public List<Long> getPaymentIdsWithOperationStartedBefore(LocalDateTime startedBefore, int limit) {
+        return paymentRepository.findIdsWithOperationStartedBefore(startedBefore, PageRequest.ofSize(limit));
     }
 
     @Override
@@ -70,37 +118,42 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     /**
-     * Create a payment intent with Stripe and save payment record
+     * Create a payment intent with Stripe and save payment record.
+     * <p>
+     * Two short transactions around the Stripe call, so no connection or row lock is held while
+     * the processor answers: the first records the attempt, the second its outcome.
      */
     @Override
-    @Transactional
     public PaymentResponse createPayment(PaymentRequest paymentRequest) throws StripeException {
-        // Validate booking exists
-        Booking booking = bookingRepository.findById(paymentRequest.getBookingId())
-                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
-
-        // Create payment intent with Stripe
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setCurrency("usd")
-                .setAmount(paymentRequest.getAmount().multiply(new BigDecimal("100")).longValue()) // Convert to cents
-                .setDescription("Payment for booking #" + booking.getId())
-                .putMetadata("bookingId", booking.getId().toString())
-                .setReceiptEmail(booking.getUser().getEmail())
-                .build();
+        // Phase 1: record the attempt so a crash mid-call leaves a trace for recovery
+        Payment payment = transactionTemplate.execute(status -> {
+            Booking booking = bookingRepository.findById(paymentRequest.getBookingId())
+                    .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+            // Touch the user inside the transaction; the intent is built after it closes
+            booking.getUser().getEmail();
+            LocalDateTime now = LocalDateTime.now();
+            return paymentRepository.save(Payment.builder()
+                    .booking(booking)
+                    .amount(paymentRequest.getAmount())
+                    .paymentStatus(Payment.PaymentStatus.PENDING)
+                    .pendingOperation(Payment.PendingOperation.CREATE)
+                    .operationStartedAt(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        });
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
-
-        // Create payment record
-        Payment payment = Payment.builder()
-                .booking(booking)
-                .amount(paymentRequest.getAmount())
-                .processorPaymentId(paymentIntent.getId())
-                .paymentStatus(Payment.PaymentStatus.PENDING)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        // Phase 2: the processor call, no database connection held
+        PaymentIntent paymentIntent;
+        try {
+            paymentIntent = createPaymentIntent(payment);
+        } catch (StripeException e) {
+            recordCreateFailure(payment.getId(), e);
+            throw e;
+        }
 
-        Payment savedPayment = paymentRepository.save(payment);
+        // Phase 3: record the outcome
+        Payment savedPayment = recordPaymentIntent(payment.getId(), paymentIntent.getId());
 
         // Return client secret for frontend to complete payment
         return PaymentResponse.builder()
@@ -114,34 +167,17 @@ public class PaymentServiceImpl implements PaymentService {
      * Process a successful payment
      */
     @Override
-    @Transactional
     public Payment processSuccessfulPayment(String paymentIntentId) throws StripeException {
-        // Retrieve payment intent from Stripe
-        PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-
-        // Find payment by processor payment ID
-        Payment payment = paymentRepository.findByProcessorPaymentId(paymentIntentId)
-                .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+        // Retrieve payment intent from Stripe before any transaction opens
+        PaymentIntent.retrieve(paymentIntentId);
 
-        // Update payment status
-        payment.setPaymentStatus(Payment.PaymentStatus.CONFIRMED);
-        payment.setUpdatedAt(LocalDateTime.now());
-
-        // Update booking payment status
-        Booking booking = payment.getBooking();
-        booking.setPaidAmount(booking.getPaidAmount().add(payment.getAmount()));
-        
-        // Check if booking is fully paid
-        if (booking.getPaidAmount().compareTo(booking.getTotalAmount()) >= 0) {
-            booking.setPaymentStatus(Booking.PaymentStatus.CONFIRMED);
-        } else {
-            booking.setPaymentStatus(Booking.PaymentStatus.PENDING);
-        }
-        
-        booking.setUpdatedAt(LocalDateTime.now());
-        
-        bookingRepository.save(booking);
-        return paymentRepository.save(payment);
+        return transactionTemplate.execute(status -> {
+            // Find payment by processor payment ID
+            Payment payment = paymentRepository.findByProcessorPaymentId(paymentIntentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+            confirm(payment);
+            return paymentRepository.findById(payment.getId()).orElseThrow();
+        });
     }
 
     /**
@@ -153,47 +189,262 @@ public class PaymentServiceImpl implements PaymentService {
         // Find payment by processor payment ID
         Payment payment = paymentRepository.findByProcessorPaymentId(paymentIntentId)
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+        fail(payment, errorMessage);
+        return paymentRepository.findById(payment.getId()).orElseThrow();
+    }
 
-        // Update payment status
-        payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
-        payment.setUpdatedAt(LocalDateTime.now());
+    /**
+     * Applies a batch of verified processor events in one transaction, in order. Events are
+     * idempotent, so a redelivered batch changes nothing; events for unknown intents are skipped.
+     */
+    @Override
+    public void applyProcessorEvents(List<PaymentProcessorEvent> events) {
+        Set<String> paymentIntentIds = events.stream()
+                .map(PaymentProcessorEvent::paymentIntentId)
+                .collect(Collectors.toSet());
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Payment> payments = paymentRepository.findWithBookingByProcessorPaymentIdIn(paymentIntentIds)
+                    .stream()
+                    .collect(Collectors.toMap(Payment::getProcessorPaymentId, Function.identity()));
+            for (PaymentProcessorEvent event : events) {
+                Payment payment = payments.get(event.paymentIntentId());
+                if (payment == null) {
+                    log.warn("Ignoring {} event {} for unknown payment intent {}",
+                            event.type(), event.eventId(), event.paymentIntentId());
+                    continue;
+                }
+                switch (event.type()) {
+                    case SUCCEEDED -> confirm(payment);
+                    case FAILED -> fail(payment, event.failureMessage());
+                }
+            }
+        });
+    }
 
-        return paymentRepository.save(payment);
+    /*
+     * Both transitions are conditional updates rather than read-modify-write on the entities: the
+     * status compare-and-set makes a concurrent duplicate confirmation lose cleanly, and the booking
+     * is credited with an in-place increment, so simultaneous split payments on one booking only
+     * queue on its row for the length of one statement. Each update clears the persistence
+     * context; callers re-read what they return.
+     */
+
+    // Credits the booking once; confirming an already confirmed or refunded payment is a no-op
+    private void confirm(Payment payment) {
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentRepository.transitionStatus(payment.getId(), CONFIRMABLE, Payment.PaymentStatus.CONFIRMED, now) == 0) {
+            return;
+        }
+        Long bookingId = payment.getBooking().getId();
+        boolean refunded = bookingRepository.findById(bookingId)
+                .map(booking -> booking.getPaymentStatus() == Booking.PaymentStatus.REFUNDED)
+                .orElse(false);
+        bookingRepository.addPaidAmount(bookingId, payment.getAmount(),
+                Booking.PaymentStatus.CONFIRMED, Booking.PaymentStatus.PENDING, now);
+        if (refunded) {
+            // Paid again after a full refund gave its seat up: the money is taken, so a sold-out
+            // departure is overbooked rather than the payment refused; reconciliation counts it
+            try {
+                seatInventoryService.reserve(bookingRepository.findById(bookingId).orElseThrow());
+            } catch (SoldOutException e) {
+                log.warn("Booking {} was paid again after a refund: {}", bookingId, e.getMessage());
+            }
+        }
+        evictCachedBooking(bookingId);
+    }
+
+    // A late failure notice never downgrades a payment that has since succeeded
+    private void fail(Payment payment, String errorMessage) {
+        if (paymentRepository.transitionStatus(payment.getId(), Set.of(Payment.PaymentStatus.PENDING),
+                Payment.PaymentStatus.FAILED, LocalDateTime.now()) > 0) {
+            log.info("Payment {} failed at the processor: {}", payment.getId(), errorMessage);
+        }
     }
 
     /**
-     * Refund a payment
+     * Refund a payment. Same two-phase shape as {@link #createPayment}; claiming the refund is a
+     * conditional update, so concurrent requests for one payment reach Stripe at most once.
      */
     @Override
-    @Transactional
     public Payment refundPayment(Long paymentId) throws StripeException {
-        // Find payment
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+        Payment payment = transactionTemplate.execute(status -> {
+            Payment current = paymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+
+            // Check if payment can be refunded
+            if (current.getPaymentStatus() != Payment.PaymentStatus.CONFIRMED) {
+                throw new IllegalStateException("Payment cannot be refunded because it is not confirmed");
+            }
+            if (paymentRepository.claimOperation(paymentId, Payment.PaymentStatus.CONFIRMED,
+                    Payment.PendingOperation.REFUND, LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("Payment already has an operation in progress");
+            }
+            return current;
+        });
+
+        try {
+            createRefund(payment);
+        } catch (StripeException e) {
+            if (!isAlreadyRefunded(e)) {
+                recordRefundFailure(paymentId, e);
+                throw e;
+            }
+        }
+        return recordRefund(paymentId);
+    }
+
+    /**
+     * Finishes a processor call whose outcome was never recorded, replaying it under the same
+     * idempotency key: Stripe answers a replay with the original result instead of acting twice.
+     */
+    @Override
+    public void recoverPendingOperation(Long paymentId) throws StripeException {
+        Payment payment = transactionTemplate.execute(status -> paymentRepository.findById(paymentId)
+                .filter(current -> current.getPendingOperation() != null)
+                .map(current -> {
+                    // The intent is rebuilt from the booking outside this transaction
+                    current.getBooking().getUser().getEmail();
+                    return current;
+                })
+                .orElse(null));
+        if (payment == null) {
+            return;
+        }
 
-        // Check if payment can be refunded
-        if (payment.getPaymentStatus() != Payment.PaymentStatus.CONFIRMED) {
-            throw new IllegalStateException("Payment cannot be refunded because it is not confirmed");
+        switch (payment.getPendingOperation()) {
+            case CREATE -> {
+                // Past Stripe's idempotency window a replay would open a second intent; nobody holds the first one's secret
+                if (payment.getOperationStartedAt().isBefore(LocalDateTime.now().minus(IDEMPOTENCY_WINDOW))) {
+                    log.warn("Abandoning payment {}: intent creation never completed", paymentId);
+                    recordCreateFailure(paymentId, null);
+                    return;
+                }
+                try {
+                    recordPaymentIntent(paymentId, createPaymentIntent(payment).getId());
+                } catch (StripeException e) {
+                    recordCreateFailure(paymentId, e);
+                    throw e;
+                }
+            }
+            case REFUND -> {
+                try {
+                    createRefund(payment);
+                } catch (StripeException e) {
+                    if (!isAlreadyRefunded(e)) {
+                        recordRefundFailure(paymentId, e);
+                        throw e;
+                    }
+                }
+                recordRefund(paymentId);
+            }
         }
+        log.info("Recovered {} for payment {}", payment.getPendingOperation(), paymentId);
+    }
 
-        // Create refund in Stripe
+    private PaymentIntent createPaymentIntent(Payment payment) throws StripeException {
+        Booking booking = payment.getBooking();
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setCurrency("usd")
+                .setAmount(payment.getAmount().multiply(new BigDecimal("100")).longValue()) // Convert to cents
+                .setDescription("Payment for booking #" + booking.getId())
+                .putMetadata("bookingId", booking.getId().toString())
+                .putMetadata("paymentId", payment.getId().toString())
+                .setReceiptEmail(booking.getUser().getEmail())
+                .build();
+        return PaymentIntent.create(params, idempotent(payment, Payment.PendingOperation.CREATE));
+    }
+
+    private void createRefund(Payment payment) throws StripeException {
         RefundCreateParams params = RefundCreateParams.builder()
                 .setPaymentIntent(payment.getProcessorPaymentId())
                 .build();
+        Refund.create(params, idempotent(payment, Payment.PendingOperation.REFUND));
+    }
 
-        Refund refund = Refund.create(params);
+    private static RequestOptions idempotent(Payment payment, Payment.PendingOperation operation) {
+        return RequestOptions.builder().setIdempotencyKey(payment.idempotencyKey(operation)).build();
+    }
+
+    private Payment recordPaymentIntent(Long paymentId, String paymentIntentId) {
+        return transactionTemplate.execute(status -> {
+            Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+            payment.setProcessorPaymentId(paymentIntentId);
+            clearPendingOperation(payment);
+            return paymentRepository.save(payment);
+        });
+    }
+
+    private void recordCreateFailure(Long paymentId, StripeException e) {
+        // Network errors and 5xx may have created the intent anyway; leave those for recovery
+        if (isOutcomeUnknown(e)) {
+            log.warn("Intent creation for payment {} has an unknown outcome, leaving it for recovery", paymentId);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findById(paymentId).ifPresent(payment -> {
+            payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
+            clearPendingOperation(payment);
+            paymentRepository.save(payment);
+        }));
+    }
+
+    private Payment recordRefund(Long paymentId) {
+        return transactionTemplate.execute(status -> {
+            Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+            LocalDateTime now = LocalDateTime.now();
+
+            // Update payment status
+            payment.setPaymentStatus(Payment.PaymentStatus.REFUNDED);
+            payment.setRefundDate(now);
+            payment.setRefundAmount(payment.getAmount());
+            clearPendingOperation(payment);
+
+            paymentRepository.save(payment);
+
+            // Update booking payment status; the refund claim makes this payment's side exclusive,
+            // the booking still takes concurrent settlements for its other payments
+            Long bookingId = payment.getBooking().getId();
+            bookingRepository.subtractPaidAmount(bookingId, payment.getAmount(),
+                    Booking.PaymentStatus.REFUNDED, Booking.PaymentStatus.PENDING, now);
+            // Only a booking refunded in full gives its seat up; one still partly paid keeps it
+            bookingRepository.findById(bookingId)
+                    .filter(booking -> booking.getPaymentStatus() == Booking.PaymentStatus.REFUNDED)
+                    .ifPresent(booking -> seatInventoryService.release(bookingId));
+            evictCachedBooking(bookingId);
+            return paymentRepository.findById(paymentId).orElseThrow();
+        });
+    }
 
-        // Update payment status
-        payment.setPaymentStatus(Payment.PaymentStatus.REFUNDED);
+    private void recordRefundFailure(Long paymentId, StripeException e) {
+        if (isOutcomeUnknown(e)) {
+            log.warn("Refund for payment {} has an unknown outcome, leaving it for recovery", paymentId);
+            return;
+        }
+        // Stripe refused: release the claim, the payment stays confirmed
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findById(paymentId).ifPresent(payment -> {
+            clearPendingOperation(payment);
+            paymentRepository.save(payment);
+        }));
+    }
+
+    private static void clearPendingOperation(Payment payment) {
+        payment.setPendingOperation(null);
+        payment.setOperationStartedAt(null);
         payment.setUpdatedAt(LocalDateTime.now());
+    }
 
-        // Update booking payment status
-        Booking booking = payment.getBooking();
-        booking.setPaidAmount(booking.getPaidAmount().subtract(payment.getAmount()));
-        booking.setPaymentStatus(Booking.PaymentStatus.REFUNDED);
-        booking.setUpdatedAt(LocalDateTime.now());
-        
-        bookingRepository.save(booking);
-        return paymentRepository.save(payment);
+    private static boolean isOutcomeUnknown(StripeException e) {
+        return e instanceof ApiConnectionException || e instanceof ApiException;
+    }
+
+    private static boolean isAlreadyRefunded(StripeException e) {
+        return "charge_already_refunded".equals(e.getCode());
+    }
+
+    // Payment changes rewrite the booking's paid amount and status; the eviction runs after commit
+    private void evictCachedBooking(Long bookingId) {
+        Cache bookings = cacheManager.getCache(CacheNames.BOOKINGS);
+        if (bookings != null) {
+            bookings.evict(bookingId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,14 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.ReviewView;
 import com.vitotrips.model.Review;
 import com.vitotrips.repository.ReviewRepository;
 import com.vitotrips.service.ReviewService;
+import com.vitotrips.service.TourRatingService;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,14 +18,28 @@ import java.util.Optional;
 public class ReviewServiceImpl implements ReviewService {
 
     private final ReviewRepository reviewRepository;
+    private final TourRatingService tourRatingService;
 
-    public ReviewServiceImpl(ReviewRepository reviewRepository) {
+    public ReviewServiceImpl(ReviewRepository reviewRepository, TourRatingService tourRatingService) {
         this.reviewRepository = reviewRepository;
+        this.tourRatingService = tourRatingService;
     }
 
+    // The tour's rating aggregate moves in the same transaction; an edit takes back the old rating
+    // (possibly on another tour) before adding the new one
     @Override
+    @Transactional
     public Review saveReview(Review review) {
-        return reviewRepository.save(review);
+        if (review.getRating() < 1 || review.getRating() > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        if (review.getId() != null) {
+            reviewRepository.findForUpdateById(review.getId())
+                    .ifPresent(previous -> tourRatingService.removeReview(previous.getTour().getId(), previous.getRating()));
+        }
+        Review saved = reviewRepository.save(review);
+        tourRatingService.addReview(saved.getTour().getId(), saved.getRating());
+        return saved;
     }
 
     @Override
@@ -28,17 +48,42 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
-    public List<Review> getReviewsByTourId(Long tourId) {
-        return reviewRepository.findByTourId(tourId);
+    public Slice<ReviewView> getReviewsAfter(Long afterId, int limit) {
+        return reviewRepository.findViewsAfter(afterId, PageRequest.ofSize(limit));
     }
 
     @Override
-    public Optional<Review> getReviewById(Long reviewId) {
-        return reviewRepository.findById(reviewId);
+    public List<ReviewView> getReviewsByTourId(Long tourId) {
+        return reviewRepository.findViewsByTourId(tourId);
     }
 
     @Override
+    public Optional<ReviewView> getReviewById(Long reviewId) {
+        return reviewRepository.findViewById(reviewId);
+    }
+
+    @Override
+    public ChangeStamp getReviewStamp(Long reviewId) {
+        return reviewRepository.findStampById(reviewId);
+    }
+
+    // The page's rows and the extra one the Slice reads to tell whether another page follows
+    @Override
+    public ChangeStamp getReviewsAfterStamp(Long afterId, int limit) {
+        return reviewRepository.findStampAfter(afterId, limit + 1);
+    }
+
+    @Override
+    public ChangeStamp getReviewsByTourIdStamp(Long tourId) {
+        return reviewRepository.findStampByTourId(tourId);
+    }
+
+    @Override
+    @Transactional
     public void deleteReview(Long reviewId) {
-        reviewRepository.deleteById(reviewId);
+        reviewRepository.findForUpdateById(reviewId).ifPresent(review -> {
+            reviewRepository.delete(review);
+            tourRatingService.removeReview(review.getTour().getId(), review.getRating());
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.vitotrips.service.impl;
+
+import com.vitotrips.service.SeatInventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recounts the seats of upcoming departures from the bookings table through
+ * {@link SeatInventoryService#reconcile()}, releasing the seats of bookings that failed, were
+ * refunded or deleted outside the booking API and counting bookings that never reserved any.
+ * Disable with {@code vitotrips.inventory.reconciliation.enabled=false}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "vitotrips.inventory.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class SeatInventoryReconciliationJob {
+
+    private final SeatInventoryService seatInventoryService;
+
+    public SeatInventoryReconciliationJob(SeatInventoryService seatInventoryService) {
+        this.seatInventoryService = seatInventoryService;
+    }
+
+    @Scheduled(fixedDelayString = "${vitotrips.inventory.reconciliation.interval:PT5M}",
+            initialDelayString = "${vitotrips.inventory.reconciliation.initial-delay:PT1M}")
+    public void reconcile() {
+        try {
+            long corrected = seatInventoryService.reconcile();
+            if (corrected > 0) {
+                log.warn("Seat inventory reconciliation corrected {} departures", corrected);
+            }
+        } catch (Exception e) {
+            log.error("Seat inventory reconciliation failed, will retry", e);
+        }
+    }
+}
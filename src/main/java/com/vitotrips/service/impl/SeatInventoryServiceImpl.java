@@ -0,0 +1,354 @@
+package com.vitotrips.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vitotrips.DTO.BucketSeats;
+import com.vitotrips.DTO.DepartureView;
+import com.vitotrips.cache.CacheInvalidationBus;
+import com.vitotrips.model.Booking;
+import com.vitotrips.model.Departure;
+import com.vitotrips.model.DepartureBucket;
+import com.vitotrips.repository.DepartureBucketRepository;
+import com.vitotrips.repository.DepartureRepository;
+import com.vitotrips.repository.SeatReservationRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.service.SeatInventoryService;
+import com.vitotrips.service.SoldOutException;
+import com.vitotrips.service.event.DepartureChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Seat capacity per tour departure (a tour on one date, the date of a booking's
+ * {@code bookingDate}). Only departures given a capacity through {@link #setCapacity} are
+ * controlled, every booking holding one seat. A departure's capacity is split over
+ * {@code vitotrips.inventory.buckets} {@link DepartureBucket}s with the free seats spread evenly.
+ * <p>
+ * {@link #reserve} joins the booking's transaction. It first takes the seat from a bucket of the
+ * node's in-memory {@link DepartureSeats} counter, which turns a sold-out departure's requests
+ * away without touching the database, then moves that bucket's row with a conditional in-place
+ * UPDATE and records a {@link com.vitotrips.model.SeatReservation}. The UPDATE is the arbiter
+ * between nodes: a node whose counter is behind fails it and tries its other buckets. Its row lock
+ * lasts until the booking commits, but concurrent bookings take different buckets, so they don't
+ * queue behind each other. Counters are given back when the transaction rolls back, and released
+ * seats when the release commits; other nodes re-read them after the counter TTL, and at once,
+ * through {@link CacheInvalidationBus}, after a capacity change or a correction.
+ * <p>
+ * {@link #reconcile()} recounts every upcoming departure from its bookings, one locked departure
+ * at a time: it drops reservations of bookings that are gone, failed, refunded or moved, and
+ * records bookings made outside the inventory, which may leave a departure overbooked.
+ */
+@Service
+@Slf4j
+public class SeatInventoryServiceImpl implements SeatInventoryService {
+
+    static final String REGION = "departure-seats";
+
+    // Booking has no party size; each booking is one traveller
+    private static final int SEATS_PER_BOOKING = 1;
+
+    private final DepartureRepository departureRepository;
+    private final DepartureBucketRepository departureBucketRepository;
+    private final SeatReservationRepository seatReservationRepository;
+    private final TourRepository tourRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate transaction;
+    private final Cache<DepartureKey, DepartureSeats> counters;
+    private final int buckets;
+    private final int reconcileBatchSize;
+    private final Counter reserved;
+    private final Counter soldOut;
+    private final Counter uncontrolled;
+    private final Counter released;
+    private final Counter corrected;
+
+    public SeatInventoryServiceImpl(DepartureRepository departureRepository,
+                                    DepartureBucketRepository departureBucketRepository,
+                                    SeatReservationRepository seatReservationRepository,
+                                    TourRepository tourRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    CacheInvalidationBus invalidationBus,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${vitotrips.inventory.counters.ttl:PT30S}") Duration ttl,
+                                    @Value("${vitotrips.inventory.counters.max-size:10000}") long maxSize,
+                                    @Value("${vitotrips.inventory.buckets:16}") int buckets,
+                                    @Value("${vitotrips.inventory.reconciliation.batch-size:200}") int reconcileBatchSize) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("vitotrips.inventory.buckets must be at least 1");
+        }
+        this.departureRepository = departureRepository;
+        this.departureBucketRepository = departureBucketRepository;
+        this.seatReservationRepository = seatReservationRepository;
+        this.tourRepository = tourRepository;
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.buckets = buckets;
+        this.reconcileBatchSize = reconcileBatchSize;
+        // The TTL bounds how long a node trails the others should an invalidation be lost
+        this.counters = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counters, REGION);
+        invalidationBus.subscribe(REGION, key -> {
+            if (key == null) {
+                counters.invalidateAll();
+            } else {
+                counters.invalidate(DepartureKey.parse(key));
+            }
+        });
+        this.reserved = reservations(meterRegistry, "reserved");
+        this.soldOut = reservations(meterRegistry, "sold_out");
+        this.uncontrolled = reservations(meterRegistry, "uncontrolled");
+        this.released = Counter.builder("vitotrips.inventory.releases").register(meterRegistry);
+        this.corrected = Counter.builder("vitotrips.inventory.reconciliation.corrections").register(meterRegistry);
+    }
+
+    // Sold out leaves nothing to undo, so the caller's transaction is not marked for rollback
+    @Override
+    @Transactional(value = Transactional.TxType.MANDATORY, dontRollbackOn = SoldOutException.class)
+    public void reserve(Booking booking) {
+        DepartureKey key = DepartureKey.of(booking);
+        DepartureSeats seats = key == null ? DepartureSeats.UNCONTROLLED : counters.get(key, this::load);
+        if (!seats.controlled()) {
+            uncontrolled.increment();
+            return;
+        }
+        int bucket;
+        while ((bucket = seats.tryTake(SEATS_PER_BOOKING)) >= 0
+                && departureBucketRepository.reserveSeats(seats.departureId(), bucket, SEATS_PER_BOOKING) == 0) {
+            // Other nodes sold the seats this bucket's count still showed
+            seats.empty(bucket);
+        }
+        if (bucket < 0) {
+            soldOut.increment();
+            throw new SoldOutException(key.tourId(), key.departureDate());
+        }
+        int taken = bucket;
+        // The counter is this node's memory, the transaction can't undo it
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seats.giveBack(taken, SEATS_PER_BOOKING);
+                }
+            }
+        });
+        seatReservationRepository.insert(booking.getId(), seats.departureId(), taken, SEATS_PER_BOOKING, LocalDateTime.now());
+        reserved.increment();
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void release(Long bookingId) {
+        seatReservationRepository.findById(bookingId).ifPresent(reservation -> {
+            // Bucket row before reservation row, the order reserve and recount lock them in; a
+            // concurrent release of the same booking then fails deleting it and rolls back
+            departureBucketRepository.releaseSeats(reservation.getDepartureId(), reservation.getBucket(), reservation.getSeats());
+            seatReservationRepository.delete(reservation);
+            departureRepository.findById(reservation.getDepartureId()).ifPresent(departure -> {
+                DepartureKey key = new DepartureKey(departure.getTourId(), departure.getDepartureDate());
+                // Back on sale here once the release commits; a count re-read meanwhile already has it
+                // and at worst offers one seat its bucket row then refuses
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        DepartureSeats seats = counters.getIfPresent(key);
+                        if (seats != null && departure.getId().equals(seats.departureId())) {
+                            seats.giveBack(reservation.getBucket(), reservation.getSeats());
+                        }
+                    }
+                });
+            });
+            released.increment();
+        });
+    }
+
+    // Bookings already on the departure are counted against the new capacity at once
+    @Override
+    @Transactional
+    public DepartureView setCapacity(Long tourId, LocalDate departureDate, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        if (!tourRepository.existsById(tourId)) {
+            throw new IllegalArgumentException("No such tour: " + tourId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Departure departure = departureRepository.findLockedByTourIdAndDepartureDate(tourId, departureDate)
+                .orElseGet(() -> departureRepository.save(new Departure(null, tourId, departureDate, capacity, now)));
+        departure.setCapacity(capacity);
+        departure.setUpdatedAt(now);
+        List<DepartureBucket> split = lockedBuckets(departure);
+        // Spreads the free seats again, however unevenly they were sold
+        recount(departure, split, true);
+        eventPublisher.publishEvent(new DepartureChangedEvent(tourId, departureDate));
+        return DepartureView.of(departure, split.stream().mapToInt(DepartureBucket::getReserved).sum());
+    }
+
+    @Override
+    public Optional<DepartureView> getDeparture(Long tourId, LocalDate departureDate) {
+        return departureRepository.findByTourIdAndDepartureDate(tourId, departureDate)
+                .map(departure -> DepartureView.of(departure,
+                        Math.toIntExact(departureBucketRepository.sumReservedByDepartureId(departure.getId()))));
+    }
+
+    // Departures from today on; past ones no longer sell seats
+    @Override
+    public long reconcile() {
+        long startedAt = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        long checked = 0;
+        long fixed = 0;
+        Long after = 0L;
+        List<Long> ids;
+        while (!(ids = departureRepository.findIdsFrom(today, after, PageRequest.ofSize(reconcileBatchSize))).isEmpty()) {
+            // One transaction per departure, so bookings of a hot departure wait for one recount only
+            for (Long id : ids) {
+                Boolean changed = transaction.execute(status -> departureRepository.findLockedById(id)
+                        .map(departure -> recount(departure, lockedBuckets(departure), false))
+                        .orElse(false));
+                checked++;
+                if (Boolean.TRUE.equals(changed)) {
+                    fixed++;
+                }
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        corrected.increment(fixed);
+        log.info("Seat inventory reconciled: {} departures checked, {} corrected in {} ms", checked, fixed,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return fixed;
+    }
+
+    // The departure's buckets, locked; a departure without any gets new ones, saved by recount
+    private List<DepartureBucket> lockedBuckets(Departure departure) {
+        List<DepartureBucket> split = departureBucketRepository.findLockedByDepartureIdOrderByBucket(departure.getId());
+        if (!split.isEmpty()) {
+            return split;
+        }
+        List<DepartureBucket> created = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            created.add(new DepartureBucket(null, departure.getId(), bucket, 0, 0));
+        }
+        return created;
+    }
+
+    // Recounts a locked departure from its bookings, and spreads its free seats over the buckets
+    // again when they changed or when asked to; true when anything had to change
+    private boolean recount(Departure departure, List<DepartureBucket> split, boolean respread) {
+        LocalDateTime from = departure.getDepartureDate().atStartOfDay();
+        LocalDateTime to = departure.getDepartureDate().plusDays(1).atStartOfDay();
+        int stale = seatReservationRepository.deleteStale(departure.getId(), departure.getTourId(), from, to, RELEASED);
+        List<Long> unreserved = seatReservationRepository.findUnreservedBookingIds(departure.getTourId(), from, to, RELEASED);
+        LocalDateTime now = LocalDateTime.now();
+        for (Long bookingId : unreserved) {
+            seatReservationRepository.insert(bookingId, departure.getId(), Math.floorMod(bookingId, split.size()),
+                    SEATS_PER_BOOKING, now);
+        }
+        Map<Integer, Long> counted = seatReservationRepository.sumSeatsByBucket(departure.getId()).stream()
+                .collect(Collectors.toMap(BucketSeats::bucket, BucketSeats::seats));
+        boolean changed = stale > 0 || !unreserved.isEmpty();
+        int actual = 0;
+        for (DepartureBucket bucket : split) {
+            int seats = Math.toIntExact(counted.getOrDefault(bucket.getBucket(), 0L));
+            actual += seats;
+            if (seats != bucket.getReserved()) {
+                bucket.setReserved(seats);
+                changed = true;
+            }
+        }
+        if (changed || respread) {
+            spread(departure.getCapacity(), split);
+        }
+        departureBucketRepository.saveAll(split);
+        if (changed) {
+            departure.setUpdatedAt(now);
+            eventPublisher.publishEvent(new DepartureChangedEvent(departure.getTourId(), departure.getDepartureDate()));
+        }
+        if (actual > departure.getCapacity()) {
+            log.warn("Tour {} is overbooked on {}: {} seats reserved, capacity {}", departure.getTourId(),
+                    departure.getDepartureDate(), actual, departure.getCapacity());
+        }
+        return changed;
+    }
+
+    // Bucket capacities add up to the departure's, the free seats spread evenly; on an overbooked
+    // departure the first buckets give up reserved seats until none are free anywhere
+    static void spread(int capacity, List<DepartureBucket> split) {
+        int reserved = split.stream().mapToInt(DepartureBucket::getReserved).sum();
+        int free = Math.max(0, capacity - reserved);
+        int excess = Math.max(0, reserved - capacity);
+        for (int i = 0; i < split.size(); i++) {
+            DepartureBucket bucket = split.get(i);
+            int cut = Math.min(excess, bucket.getReserved());
+            excess -= cut;
+            bucket.setCapacity(bucket.getReserved() - cut + free / split.size() + (i < free % split.size() ? 1 : 0));
+        }
+    }
+
+    private DepartureSeats load(DepartureKey key) {
+        return departureRepository.findByTourIdAndDepartureDate(key.tourId(), key.departureDate())
+                .map(departure -> new DepartureSeats(departure.getId(),
+                        departureBucketRepository.findByDepartureIdOrderByBucket(departure.getId()).stream()
+                                .mapToInt(bucket -> bucket.getCapacity() - bucket.getReserved())
+                                .toArray()))
+                .orElse(DepartureSeats.UNCONTROLLED);
+    }
+
+    // After commit, so a node re-reading at once finds the new counts
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartureChanged(DepartureChangedEvent event) {
+        invalidationBus.publish(REGION, new DepartureKey(event.tourId(), event.departureDate()).toString());
+    }
+
+    private static Counter reservations(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("vitotrips.inventory.reservations").tag("result", result).register(meterRegistry);
+    }
+
+    record DepartureKey(Long tourId, LocalDate departureDate) {
+
+        // Null when the booking names no tour or date; saving it fails on its own
+        static DepartureKey of(Booking booking) {
+            if (booking.getTour() == null || booking.getTour().getId() == null || booking.getBookingDate() == null) {
+                return null;
+            }
+            return new DepartureKey(booking.getTour().getId(), booking.getBookingDate().toLocalDate());
+        }
+
+        static DepartureKey parse(String key) {
+            int separator = key.indexOf('/');
+            return new DepartureKey(Long.valueOf(key.substring(0, separator)), LocalDate.parse(key.substring(separator + 1)));
+        }
+
+        @Override
+        public String toString() {
+            return tourId + "/" + departureDate;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.vitotrips.service.impl;
+
+import com.vitotrips.service.TourRatingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recounts the per-tour rating aggregates from the reviews table through
+ * {@link TourRatingService#repairRatings()}, correcting drift from manual SQL or reviews written
+ * before the aggregates existed. Disable with {@code vitotrips.ratings.repair.enabled=false}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "vitotrips.ratings.repair.enabled", havingValue = "true", matchIfMissing = true)
+public class TourRatingRepairJob {
+
+    private final TourRatingService tourRatingService;
+
+    public TourRatingRepairJob(TourRatingService tourRatingService) {
+        this.tourRatingService = tourRatingService;
+    }
+
+    // First run shortly after startup, so a fresh deployment backfills existing reviews
+    @Scheduled(fixedDelayString = "${vitotrips.ratings.repair.interval:PT6H}",
+            initialDelayString = "${vitotrips.ratings.repair.initial-delay:PT1M}")
+    public void repairRatings() {
+        try {
+            long corrected = tourRatingService.repairRatings();
+            if (corrected > 0) {
+                log.warn("Tour rating repair corrected {} aggregates", corrected);
+            }
+        } catch (Exception e) {
+            log.error("Tour rating repair failed, will retry", e);
+        }
+    }
+}
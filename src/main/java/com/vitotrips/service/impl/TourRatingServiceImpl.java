@@ -0,0 +1,226 @@
+package com.vitotrips.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vitotrips.DTO.TourRatingCounts;
+import com.vitotrips.DTO.TourRatingSummary;
+import com.vitotrips.cache.CacheInvalidationBus;
+import com.vitotrips.model.TourRating;
+import com.vitotrips.repository.ReviewRepository;
+import com.vitotrips.repository.TourRatingRepository;
+import com.vitotrips.service.TourRatingService;
+import com.vitotrips.service.event.ReviewChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tour rating aggregates, so a star rating never has to load the tour's reviews.
+ * <p>
+ * {@link #addReview}/{@link #removeReview} join the caller's review transaction and move the
+ * counters with one in-place UPDATE; the first review of a tour creates its zero row in a
+ * transaction of its own, so concurrent first reviews race only on that insert. Reads go through a
+ * per-node Caffeine cache that review changes evict after commit, here and, through
+ * {@link CacheInvalidationBus}, on every other node.
+ * <p>
+ * {@link #repairRatings()} recounts every row from the reviews table in batches, holding the row
+ * locks of a batch while it does, so reviews saved meanwhile are neither lost nor counted twice.
+ */
+@Service
+@Slf4j
+public class TourRatingServiceImpl implements TourRatingService {
+
+    static final String REGION = "tour-ratings";
+
+    private final TourRatingRepository tourRatingRepository;
+    private final ReviewRepository reviewRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate newTransaction;
+    private final Cache<Long, TourRatingSummary> ratings;
+    private final int repairBatchSize;
+
+    public TourRatingServiceImpl(TourRatingRepository tourRatingRepository,
+                                 ReviewRepository reviewRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 CacheInvalidationBus invalidationBus,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${vitotrips.ratings.cache.ttl:PT10M}") Duration ttl,
+                                 @Value("${vitotrips.ratings.cache.max-size:50000}") long maxSize,
+                                 @Value("${vitotrips.ratings.repair.batch-size:500}") int repairBatchSize) {
+        this.tourRatingRepository = tourRatingRepository;
+        this.reviewRepository = reviewRepository;
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.repairBatchSize = repairBatchSize;
+        this.ratings = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ratings, REGION);
+        invalidationBus.subscribe(REGION, key -> {
+            if (key == null) {
+                ratings.invalidateAll();
+            } else {
+                for (String tourId : key.split(",")) {
+                    ratings.invalidate(Long.valueOf(tourId));
+                }
+            }
+        });
+    }
+
+    @Override
+    public TourRatingSummary getRating(Long tourId) {
+        return getRatings(List.of(tourId)).get(tourId);
+    }
+
+    // Tours without reviews (or unknown ids) get an empty summary, which is cached like any other
+    @Override
+    public Map<Long, TourRatingSummary> getRatings(Collection<Long> tourIds) {
+        return ratings.getAll(tourIds.stream().filter(Objects::nonNull).distinct().toList(), missing -> {
+            Map<Long, TourRatingSummary> loaded = tourRatingRepository.findByTourIdIn(List.copyOf(missing)).stream()
+                    .collect(Collectors.toMap(TourRating::getTourId, TourRatingSummary::of));
+            missing.forEach(tourId -> loaded.putIfAbsent(tourId, TourRatingSummary.none(tourId)));
+            return loaded;
+        });
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void addReview(Long tourId, int rating) {
+        apply(tourId, rating, 1);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void removeReview(Long tourId, int rating) {
+        apply(tourId, rating, -1);
+    }
+
+    // Taking back a review of a tour without a row (reviews older than the aggregates) is left to
+    // the repair, which creates the row from the reviews table
+    private void apply(Long tourId, int rating, int delta) {
+        if (tourRatingRepository.addReview(tourId, rating, delta, LocalDateTime.now()) == 0 && delta > 0) {
+            createRow(tourId);
+            tourRatingRepository.addReview(tourId, rating, delta, LocalDateTime.now());
+        }
+        eventPublisher.publishEvent(new ReviewChangedEvent(List.of(tourId)));
+    }
+
+    // Committed on its own; whoever loses a concurrent insert finds the winner's row
+    private void createRow(Long tourId) {
+        try {
+            newTransaction.executeWithoutResult(status -> tourRatingRepository.insertEmpty(tourId, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Rating row for tour {} created concurrently", tourId);
+        }
+    }
+
+    @Override
+    public long repairRatings() {
+        long startedAt = System.nanoTime();
+        long created = 0;
+        List<Long> unrated;
+        Long after = 0L;
+        while (!(unrated = reviewRepository.findUnratedTourIds(after, PageRequest.ofSize(repairBatchSize))).isEmpty()) {
+            unrated.forEach(this::createRow);
+            created += unrated.size();
+            after = unrated.get(unrated.size() - 1);
+        }
+        long fixed = 0;
+        long checked = 0;
+        after = 0L;
+        while (true) {
+            Long from = after;
+            Batch batch = transaction.execute(status -> repairBatch(from));
+            if (batch == null || batch.size() == 0) {
+                break;
+            }
+            checked += batch.size();
+            fixed += batch.fixed();
+            after = batch.lastTourId();
+        }
+        invalidationBus.publish(REGION, null);
+        log.info("Tour ratings repaired: {} rows checked, {} corrected, {} created in {} ms", checked, fixed, created,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return fixed;
+    }
+
+    private Batch repairBatch(Long afterTourId) {
+        List<TourRating> rows = tourRatingRepository.findByTourIdGreaterThanOrderByTourIdAsc(afterTourId,
+                PageRequest.ofSize(repairBatchSize));
+        if (rows.isEmpty()) {
+            return new Batch(0, 0, afterTourId);
+        }
+        Map<Long, TourRatingCounts> counts = new HashMap<>(reviewRepository.countRatingsByTourIds(
+                        rows.stream().map(TourRating::getTourId).toList()).stream()
+                .collect(Collectors.toMap(TourRatingCounts::tourId, Function.identity())));
+        int fixed = 0;
+        for (TourRating row : rows) {
+            TourRatingCounts actual = counts.get(row.getTourId());
+            if (actual == null) {
+                if (row.getReviewCount() != 0) {
+                    fixed++;
+                }
+                tourRatingRepository.delete(row);
+            } else if (!matches(row, actual)) {
+                fixed++;
+                row.setReviewCount(actual.reviewCount());
+                row.setRatingSum(actual.ratingSum());
+                row.setOneStar(actual.oneStar());
+                row.setTwoStars(actual.twoStars());
+                row.setThreeStars(actual.threeStars());
+                row.setFourStars(actual.fourStars());
+                row.setFiveStars(actual.fiveStars());
+                row.setUpdatedAt(LocalDateTime.now());
+            }
+        }
+        return new Batch(rows.size(), fixed, rows.get(rows.size() - 1).getTourId());
+    }
+
+    private static boolean matches(TourRating row, TourRatingCounts actual) {
+        return row.getReviewCount() == actual.reviewCount() && row.getRatingSum() == actual.ratingSum()
+                && row.getOneStar() == actual.oneStar() && row.getTwoStars() == actual.twoStars()
+                && row.getThreeStars() == actual.threeStars() && row.getFourStars() == actual.fourStars()
+                && row.getFiveStars() == actual.fiveStars();
+    }
+
+    // After commit, so a concurrent reload can't repopulate the cache with the pre-change counts
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (event.tourIds() == null) {
+            invalidationBus.publish(REGION, null);
+        } else if (!event.tourIds().isEmpty()) {
+            invalidationBus.publish(REGION, event.tourIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+
+    private record Batch(int size, int fixed, Long lastTourId) {
+    }
+}
@@ -1,11 +1,25 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.TourBulkRow;
+import com.vitotrips.DTO.TourView;
+import com.vitotrips.cache.CacheNames;
 import com.vitotrips.model.Tour;
+import com.vitotrips.repository.TourReadRepository;
 import com.vitotrips.repository.TourRepository;
 import com.vitotrips.service.TourService;
+import com.vitotrips.service.event.TourChangedEvent;
 import jakarta.transaction.Transactional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,14 +28,44 @@ import java.util.Optional;
 public class TourServiceImpl implements TourService {
 
     private final TourRepository tourRepository;
+    private final TourReadRepository tourReadRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TourServiceImpl(TourRepository tourRepository) {
+    public TourServiceImpl(TourRepository tourRepository, TourReadRepository tourReadRepository,
+                           ApplicationEventPublisher eventPublisher) {
         this.tourRepository = tourRepository;
+        this.tourReadRepository = tourReadRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    // A save can move a tour between locations, so the by-location lists are dropped wholesale
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.TOURS, key = "#result.id"),
+            @CacheEvict(cacheNames = CacheNames.TOURS_BY_LOCATION, allEntries = true)
+    })
     public Tour saveTour(Tour tour) {
-        return tourRepository.save(tour);
+        Tour saved = tourRepository.save(tour);
+        eventPublisher.publishEvent(new TourChangedEvent(List.of(saved.getId())));
+        return saved;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheNames.TOURS_BY_LOCATION, allEntries = true)
+    public List<Long> saveTours(List<TourBulkRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Tour> tours = rows.stream()
+                .map(row -> Tour.builder()
+                        .tourName(row.tourName())
+                        .location(row.location())
+                        .description(row.description())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        List<Long> ids = tourRepository.saveAllAndFlush(tours).stream().map(Tour::getId).toList();
+        eventPublisher.publishEvent(new TourChangedEvent(ids));
+        return ids;
     }
 
     @Override
@@ -30,17 +74,40 @@ public class TourServiceImpl implements TourService {
     }
 
     @Override
+    public Slice<Tour> getToursAfter(Long afterId, int limit) {
+        return tourRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.TOURS, key = "#tourId", sync = true)
     public Optional<Tour> getTourById(Long tourId) {
         return tourRepository.findById(tourId);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.TOURS_BY_LOCATION, key = "#location", sync = true)
     public List<Tour> getToursByLocation(String location) {
         return tourRepository.findByLocation(location);
     }
 
+    // The page's rows and the extra one the Slice reads to tell whether another page follows
     @Override
+    public ChangeStamp getToursAfterStamp(Long afterId, int limit) {
+        return tourRepository.findStampAfter(afterId, limit + 1);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.TOURS, key = "#tourId"),
+            @CacheEvict(cacheNames = CacheNames.TOURS_BY_LOCATION, allEntries = true)
+    })
     public void deleteTour(Long tourId) {
         tourRepository.deleteById(tourId);
+        eventPublisher.publishEvent(new TourChangedEvent(List.of(tourId)));
+    }
+
+    @Override
+    public Flux<TourView> streamTours() {
+        return tourReadRepository.findAll();
     }
 }
\ No newline at end of file
@@ -1,29 +1,50 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.cache.CacheNames;
 import com.vitotrips.model.User;
 import com.vitotrips.model.UserRole;
 import com.vitotrips.repository.UserRepository;
 import com.vitotrips.service.UserService;
+import com.vitotrips.service.event.UserChangedEvent;
 import jakarta.transaction.Transactional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#result.id")
     public User saveUser(User user) {
-        return userRepository.save(user);
+        Set<String> affectedEmails = new HashSet<>();
+        if (user.getId() != null) {
+            // An update may change the email; the principal cached under the old one must go too
+            userRepository.findById(user.getId()).map(User::getEmail).ifPresent(affectedEmails::add);
+        }
+        User saved = userRepository.save(user);
+        affectedEmails.add(saved.getEmail());
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), affectedEmails));
+        return saved;
     }
 
     @Override
@@ -38,6 +59,18 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#result.id")
+    public User updatePasswordHash(String email, String passwordHash) {
+        User user = getUserByEmail(email);
+        user.setPasswordHash(passwordHash);
+        user.setUpdatedAt(LocalDateTime.now());
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), Set.of(saved.getEmail())));
+        return saved;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#id", sync = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
@@ -48,7 +81,15 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    public Slice<User> getUsersAfter(Long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#id")
     public void deleteUser(Long id) {
+        userRepository.findById(id).ifPresent(user ->
+                eventPublisher.publishEvent(new UserChangedEvent(id, Set.of(user.getEmail()))));
         userRepository.deleteById(id);
     }
 
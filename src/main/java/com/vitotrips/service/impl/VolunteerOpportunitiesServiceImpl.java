@@ -1,9 +1,13 @@
 package com.vitotrips.service.impl;
 
+import com.vitotrips.DTO.ChangeStamp;
+import com.vitotrips.DTO.VolunteerOpportunityView;
 import com.vitotrips.model.VolunteerOpportunities;
 import com.vitotrips.repository.VolunteerOpportunitiesRepository;
 import com.vitotrips.service.VolunteerOpportunitiesService;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -31,18 +35,44 @@ public class VolunteerOpportunitiesServiceImpl implements VolunteerOpportunities
     }
 
     @Override
-    public Optional<VolunteerOpportunities> getOpportunityById(Long id) {
-        return repository.findById(id);
+    public Slice<VolunteerOpportunityView> getOpportunitiesAfter(Long afterId, int limit) {
+        return repository.findViewsAfter(afterId, PageRequest.ofSize(limit));
     }
 
     @Override
-    public List<VolunteerOpportunities> getOpportunitiesByTourId(Long tourId) {
-        return repository.findByTour_Id(tourId);
+    public Optional<VolunteerOpportunityView> getOpportunityById(Long id) {
+        return repository.findViewById(id);
     }
 
     @Override
-    public List<VolunteerOpportunities> getOpportunitiesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return repository.findByStartDateBetween(startDate, endDate);
+    public List<VolunteerOpportunityView> getOpportunitiesByTourId(Long tourId) {
+        return repository.findViewsByTourId(tourId);
+    }
+
+    @Override
+    public List<VolunteerOpportunityView> getOpportunitiesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return repository.findViewsByStartDateBetween(startDate, endDate);
+    }
+
+    @Override
+    public ChangeStamp getOpportunityStamp(Long id) {
+        return repository.findStampById(id);
+    }
+
+    // The page's rows and the extra one the Slice reads to tell whether another page follows
+    @Override
+    public ChangeStamp getOpportunitiesAfterStamp(Long afterId, int limit) {
+        return repository.findStampAfter(afterId, limit + 1);
+    }
+
+    @Override
+    public ChangeStamp getOpportunitiesByTourIdStamp(Long tourId) {
+        return repository.findStampByTourId(tourId);
+    }
+
+    @Override
+    public ChangeStamp getOpportunitiesByDateRangeStamp(LocalDateTime startDate, LocalDateTime endDate) {
+        return repository.findStampByStartDateBetween(startDate, endDate);
     }
 
     @Override
@@ -0,0 +1,315 @@
+package com.vitotrips.webhook;
+
+import com.vitotrips.DTO.PaymentProcessorEvent;
+import com.vitotrips.service.PaymentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Back half of the Stripe webhook pipeline: a consumer group over the stream written by
+ * {@link StripeWebhookIngestor}. Each worker reads up to {@code batch-size} events per round trip
+ * and applies them through {@link PaymentService#applyProcessorEvents} in one transaction;
+ * if the batch fails it is retried event by event so one bad event can't hold up the rest.
+ * <p>
+ * Events are acknowledged only after they are applied. Entries left pending by a crashed node are
+ * claimed by the first worker once idle for {@code reclaim-idle}; after {@code max-deliveries}
+ * attempts an entry is moved to the {@code <stream>:dead} stream.
+ * Disable with {@code vitotrips.webhook.workers.enabled=false}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "vitotrips.webhook.workers.enabled", havingValue = "true", matchIfMissing = true)
+public class StripeEventWorker implements SmartLifecycle {
+
+    static final String EVENT_ID = "eventId";
+    static final String TYPE = "type";
+    static final String PAYMENT_INTENT_ID = "paymentIntentId";
+    static final String FAILURE_MESSAGE = "failureMessage";
+    static final String CREATED = "created";
+    static final String RECEIVED_AT = "receivedAt";
+
+    private final StringRedisTemplate redisTemplate;
+    private final PaymentService paymentService;
+    private final String stream;
+    private final String group;
+    private final int workers;
+    private final int batchSize;
+    private final Duration block;
+    private final Duration reclaimIdle;
+    private final long maxDeliveries;
+    private final String consumerPrefix = "worker-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final Timer queueLag;
+    private final Timer applyLatency;
+    private final Timer endToEndLag;
+    private final Counter applied;
+    private final Counter deadLettered;
+    private final AtomicLong pending = new AtomicLong();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private volatile boolean groupReady;
+    private volatile long nextReclaimAt;
+
+    public StripeEventWorker(RedisConnectionFactory connectionFactory,
+                             PaymentService paymentService,
+                             MeterRegistry meterRegistry,
+                             @Value("${vitotrips.webhook.stream:vitotrips:stripe-events}") String stream,
+                             @Value("${vitotrips.webhook.group:payment-workers}") String group,
+                             @Value("${vitotrips.webhook.workers.count:2}") int workers,
+                             @Value("${vitotrips.webhook.workers.batch-size:200}") int batchSize,
+                             @Value("${vitotrips.webhook.workers.block:PT2S}") Duration block,
+                             @Value("${vitotrips.webhook.workers.reclaim-idle:PT1M}") Duration reclaimIdle,
+                             @Value("${vitotrips.webhook.workers.max-deliveries:5}") long maxDeliveries) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.paymentService = paymentService;
+        this.stream = stream;
+        this.group = group;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.block = block;
+        this.reclaimIdle = reclaimIdle;
+        this.maxDeliveries = maxDeliveries;
+
+        this.queueLag = stageTimer(meterRegistry, "queue");
+        this.applyLatency = stageTimer(meterRegistry, "apply");
+        this.endToEndLag = stageTimer(meterRegistry, "end_to_end");
+        this.applied = Counter.builder("vitotrips.webhook.applied")
+                .description("Events applied to payments and acknowledged")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("vitotrips.webhook.dead_lettered")
+                .description("Events moved to the dead-letter stream after repeated failures")
+                .register(meterRegistry);
+        Gauge.builder("vitotrips.webhook.pending", pending, AtomicLong::get)
+                .description("Events delivered to a worker but not yet acknowledged, as of the last reclaim pass")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Per-stage pipeline latency: ingest (receipt to enqueue), queue (enqueue to pickup),
+     * apply (batch transaction) and end_to_end (Stripe's event timestamp to acknowledgement).
+     */
+    static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("vitotrips.webhook.lag")
+                .description("Stripe webhook pipeline latency by stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            String consumer = consumerPrefix + "-" + i;
+            boolean reclaimer = i == 0;
+            threads.add(Thread.ofVirtual().name("stripe-events-" + i).start(() -> poll(consumer, reclaimer)));
+        }
+        log.info("Started {} Stripe event workers on stream '{}' as {}-*", workers, stream, consumerPrefix);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                // Lets an in-flight batch finish; a blocked read returns within 'block'
+                thread.join(block.plusSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // read() takes its stream offsets as generic varargs
+    @SuppressWarnings("unchecked")
+    private void poll(String consumer, boolean reclaimer) {
+        StreamOperations<String, Object, Object> streams = redisTemplate.opsForStream();
+        while (running) {
+            try {
+                ensureGroup();
+                if (reclaimer && System.currentTimeMillis() >= nextReclaimAt) {
+                    reclaim(consumer);
+                    nextReclaimAt = System.currentTimeMillis() + reclaimIdle.toMillis() / 2;
+                }
+                List<MapRecord<String, Object, Object>> records = streams.read(
+                        Consumer.from(group, consumer),
+                        StreamReadOptions.empty().count(batchSize).block(block),
+                        StreamOffset.create(stream, ReadOffset.lastConsumed()));
+                if (records != null && !records.isEmpty()) {
+                    process(records);
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Stripe event worker {} failed, backing off: {}", consumer, e.getMessage());
+                sleep(Duration.ofSeconds(1));
+            }
+        }
+    }
+
+    private void process(List<MapRecord<String, Object, Object>> records) {
+        long pickedUpAt = System.currentTimeMillis();
+        List<MapRecord<String, Object, Object>> valid = new ArrayList<>(records.size());
+        List<PaymentProcessorEvent> events = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> fields = record.getValue();
+            PaymentProcessorEvent.Type type = parseType(fields.get(TYPE));
+            if (type == null) {
+                log.warn("Malformed Stripe event entry {}, dead-lettering", record.getId());
+                deadLetter(record.getId());
+                continue;
+            }
+            queueLag.record(pickedUpAt - longField(fields, RECEIVED_AT, pickedUpAt), TimeUnit.MILLISECONDS);
+            valid.add(record);
+            events.add(new PaymentProcessorEvent(
+                    String.valueOf(fields.get(EVENT_ID)),
+                    type,
+                    String.valueOf(fields.get(PAYMENT_INTENT_ID)),
+                    String.valueOf(fields.getOrDefault(FAILURE_MESSAGE, ""))));
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            applyLatency.record(() -> paymentService.applyProcessorEvents(events));
+            acknowledge(valid);
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} Stripe events failed, retrying one at a time: {}", events.size(), e.getMessage());
+            for (int i = 0; i < events.size(); i++) {
+                try {
+                    paymentService.applyProcessorEvents(List.of(events.get(i)));
+                    acknowledge(List.of(valid.get(i)));
+                } catch (RuntimeException eventFailure) {
+                    // Left pending; the reclaim pass retries it and eventually dead-letters it
+                    log.warn("Stripe event {} failed: {}", events.get(i).eventId(), eventFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    private void acknowledge(List<MapRecord<String, Object, Object>> records) {
+        RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        redisTemplate.opsForStream().acknowledge(stream, group, ids);
+        applied.increment(ids.length);
+        long now = System.currentTimeMillis();
+        for (MapRecord<String, Object, Object> record : records) {
+            long createdSeconds = longField(record.getValue(), CREATED, 0);
+            if (createdSeconds > 0) {
+                endToEndLag.record(now - TimeUnit.SECONDS.toMillis(createdSeconds), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Takes over entries another consumer (usually a dead node) has sat on for too long
+    private void reclaim(String consumer) {
+        StreamOperations<String, Object, Object> streams = redisTemplate.opsForStream();
+        pending.set(streams.pending(stream, group).getTotalPendingMessages());
+
+        List<RecordId> stale = new ArrayList<>();
+        for (PendingMessage message : streams.pending(stream, group, Range.unbounded(), batchSize)) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(reclaimIdle) < 0) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                deadLetter(message.getId());
+            } else {
+                stale.add(message.getId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            List<MapRecord<String, Object, Object>> claimed =
+                    streams.claim(stream, group, consumer, reclaimIdle, stale.toArray(RecordId[]::new));
+            log.info("Reclaimed {} stalled Stripe events", claimed.size());
+            process(claimed);
+        }
+    }
+
+    private void deadLetter(RecordId id) {
+        StreamOperations<String, Object, Object> streams = redisTemplate.opsForStream();
+        List<MapRecord<String, Object, Object>> entries = streams.range(stream, Range.closed(id.getValue(), id.getValue()));
+        if (entries != null && !entries.isEmpty()) {
+            streams.add(MapRecord.create(stream + ":dead", entries.get(0).getValue()));
+        }
+        streams.acknowledge(stream, group, id);
+        deadLettered.increment();
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(stream.getBytes(StandardCharsets.UTF_8), group, ReadOffset.from("0"), true));
+        } catch (RedisSystemException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (cause == null || !cause.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupReady = true;
+    }
+
+    private static PaymentProcessorEvent.Type parseType(Object value) {
+        try {
+            return value == null ? null : PaymentProcessorEvent.Type.valueOf(value.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long longField(Map<Object, Object> fields, String name, long fallback) {
+        try {
+            return Long.parseLong(String.valueOf(fields.get(name)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.vitotrips.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import com.vitotrips.DTO.PaymentProcessorEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front half of the Stripe webhook pipeline: verifies the signature, drops redeliveries and
+ * appends the event to a Redis stream, all without touching the database, so Stripe gets its
+ * acknowledgement in milliseconds. {@link StripeEventWorker} applies the stream in batches.
+ * <p>
+ * Deduplication and the append happen in one script, so an event is either enqueued exactly
+ * once or not marked as seen at all and Stripe's retry gets another chance.
+ */
+@Component
+@Slf4j
+public class StripeWebhookIngestor {
+
+    // KEYS: dedupe key, stream. ARGV: dedupe ttl seconds, approximate stream cap, then field/value pairs
+    private static final RedisScript<String> ENQUEUE_ONCE = RedisScript.of("""
+            if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then
+                return ''
+            end
+            return redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[2], '*', unpack(ARGV, 3))
+            """, String.class);
+
+    public enum Outcome {
+        ACCEPTED, DUPLICATE, IGNORED
+    }
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String secret;
+    private final long toleranceSeconds;
+    private final String stream;
+    private final String dedupePrefix;
+    private final String dedupeTtlSeconds;
+    private final String streamMaxLength;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+    private final Counter rejected;
+    private final Timer ingestLatency;
+
+    public StripeWebhookIngestor(ReactiveRedisConnectionFactory connectionFactory,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${stripe.webhook.secret:}") String secret,
+                                 @Value("${stripe.webhook.tolerance:PT5M}") Duration tolerance,
+                                 @Value("${vitotrips.webhook.stream:vitotrips:stripe-events}") String stream,
+                                 @Value("${vitotrips.webhook.dedupe-ttl:PT72H}") Duration dedupeTtl,
+                                 @Value("${vitotrips.webhook.stream-max-length:1000000}") long streamMaxLength) {
+        this.redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+        this.objectMapper = objectMapper;
+        this.secret = secret;
+        this.toleranceSeconds = tolerance.toSeconds();
+        this.stream = stream;
+        this.dedupePrefix = stream + ":seen:";
+        this.dedupeTtlSeconds = String.valueOf(dedupeTtl.toSeconds());
+        this.streamMaxLength = String.valueOf(streamMaxLength);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("vitotrips.webhook.events")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.rejected = Counter.builder("vitotrips.webhook.events")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.ingestLatency = StripeEventWorker.stageTimer(meterRegistry, "ingest");
+        if (secret.isBlank()) {
+            log.warn("stripe.webhook.secret is not set; every webhook will be rejected");
+        }
+    }
+
+    /**
+     * Verifies and enqueues one webhook delivery. Fails with {@link IllegalArgumentException} for a
+     * payload that isn't a correctly signed Stripe event; Redis failures propagate so the caller
+     * answers with a retryable status.
+     */
+    public Mono<Outcome> ingest(String payload, String signatureHeader) {
+        long receivedAt = System.currentTimeMillis();
+        JsonNode event;
+        try {
+            Webhook.Signature.verifyHeader(payload, signatureHeader, secret, toleranceSeconds);
+            event = objectMapper.readTree(payload);
+        } catch (SignatureVerificationException | JsonProcessingException e) {
+            rejected.increment();
+            return Mono.error(new IllegalArgumentException("Invalid webhook: " + e.getMessage(), e));
+        }
+
+        PaymentProcessorEvent.Type type = PaymentProcessorEvent.Type.fromStripe(event.path("type").asText());
+        if (type == null) {
+            return Mono.just(record(Outcome.IGNORED, receivedAt));
+        }
+        String eventId = event.path("id").asText();
+        JsonNode paymentIntent = event.path("data").path("object");
+        List<String> args = List.of(
+                dedupeTtlSeconds,
+                streamMaxLength,
+                StripeEventWorker.EVENT_ID, eventId,
+                StripeEventWorker.TYPE, type.name(),
+                StripeEventWorker.PAYMENT_INTENT_ID, paymentIntent.path("id").asText(),
+                StripeEventWorker.FAILURE_MESSAGE, paymentIntent.path("last_payment_error").path("message").asText(""),
+                StripeEventWorker.CREATED, String.valueOf(event.path("created").asLong()),
+                StripeEventWorker.RECEIVED_AT, String.valueOf(receivedAt));
+
+        return redisTemplate.execute(ENQUEUE_ONCE, List.of(dedupePrefix + eventId, stream), args)
+                .next()
+                .map(recordId -> record(recordId.isEmpty() ? Outcome.DUPLICATE : Outcome.ACCEPTED, receivedAt));
+    }
+
+    private Outcome record(Outcome outcome, long receivedAt) {
+        outcomes.get(outcome).increment();
+        ingestLatency.record(System.currentTimeMillis() - receivedAt, TimeUnit.MILLISECONDS);
+        return outcome;
+    }
+}
@@ -0,0 +1,104 @@
+-- Schema as Hibernate's ddl-auto last created it, for new databases. Databases that ddl-auto
+-- created are baselined at this version (spring.flyway.baseline-on-migrate) and start at V2.
+-- Written in the SQL PostgreSQL and H2 (the tests) share.
+
+create sequence tours_seq start with 1 increment by 50;
+create sequence bookings_seq start with 1 increment by 50;
+create sequence group_members_seq start with 1 increment by 50;
+
+create table users (
+    id            bigint generated by default as identity primary key,
+    name          varchar(100) not null,
+    email         varchar(255) not null unique,
+    password_hash varchar(255) not null,
+    role          varchar(255) not null check (role in ('ROLE_TRAVELER', 'ROLE_TOUR_OPERATOR', 'ROLE_ADMIN')),
+    created_at    timestamp(6),
+    updated_at    timestamp(6)
+);
+
+-- Ids from tours_seq in blocks of 50, see V2__align_id_sequences
+create table tours (
+    id          bigint default nextval('tours_seq') primary key,
+    tour_name   varchar(100) not null unique,
+    location    varchar(255) not null,
+    description varchar(255),
+    created_at  timestamp(6) not null,
+    updated_at  timestamp(6) not null
+);
+
+create table groups (
+    id         bigint generated by default as identity primary key,
+    group_name varchar(100) not null unique,
+    leader_id  bigint not null constraint fk_groups_leader references users,
+    tour_id    bigint not null constraint fk_groups_tour references tours,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null
+);
+
+create table group_members (
+    id       bigint default nextval('group_members_seq') primary key,
+    group_id bigint not null constraint fk_group_members_group references groups,
+    user_id  bigint not null constraint fk_group_members_user references users
+);
+
+create table bookings (
+    id                   bigint default nextval('bookings_seq') primary key,
+    tour_id              bigint not null constraint fk_bookings_tour references tours,
+    user_id              bigint not null constraint fk_bookings_user references users,
+    group_id             bigint constraint fk_bookings_group references groups,
+    total_amount         numeric(10, 2) not null,
+    paid_amount          numeric(10, 2) not null,
+    installment_plan     boolean not null,
+    payment_status       varchar(255) not null check (payment_status in ('PENDING', 'CONFIRMED', 'FAILED', 'REFUNDED')),
+    booking_date         timestamp(6) not null,
+    special_instructions varchar(500),
+    booking_type         varchar(255) not null check (booking_type in ('INDIVIDUAL', 'GROUP', 'CORPORATE')),
+    created_at           timestamp(6) not null,
+    updated_at           timestamp(6) not null
+);
+
+create table payments (
+    id                   bigint generated by default as identity primary key,
+    booking_id           bigint not null constraint fk_payments_booking references bookings,
+    amount               numeric(10, 2) not null,
+    payment_status       varchar(255) not null check (payment_status in ('PENDING', 'CONFIRMED', 'FAILED', 'REFUNDED')),
+    processor_payment_id varchar(255),
+    processor_fee        numeric(10, 2),
+    payment_method       varchar(255),
+    payment_date         timestamp(6),
+    refund_date          timestamp(6),
+    refund_amount        numeric(10, 2),
+    refund_reason        varchar(255),
+    pending_operation    varchar(255) check (pending_operation in ('CREATE', 'REFUND')),
+    operation_started_at timestamp(6),
+    created_at           timestamp(6) not null,
+    updated_at           timestamp(6) not null
+);
+
+create table reviews (
+    id      bigint generated by default as identity primary key,
+    tour_id bigint not null constraint fk_reviews_tour references tours,
+    user_id bigint not null constraint fk_reviews_user references users,
+    rating  integer not null,
+    content varchar(255) not null
+);
+
+create table tour_ratings (
+    tour_id      bigint primary key,
+    review_count bigint not null,
+    rating_sum   bigint not null,
+    one_star     bigint not null,
+    two_stars    bigint not null,
+    three_stars  bigint not null,
+    four_stars   bigint not null,
+    five_stars   bigint not null,
+    updated_at   timestamp(6) not null
+);
+
+create table volunteer_opportunities (
+    id          bigint generated by default as identity primary key,
+    tour_id     bigint not null constraint fk_volunteer_opportunities_tour references tours,
+    description text not null,
+    start_date  timestamp(6) not null,
+    end_date    timestamp(6) not null
+);
@@ -0,0 +1,35 @@
+-- Indexes behind the repository queries; ddl-auto created none beyond primary keys and unique
+-- constraints, and PostgreSQL does not index foreign keys by itself. RepositoryIndexUsageTest
+-- checks every repository query against this set.
+
+-- Tour and user listings filter on status; countBookingsByTour reads tour_id from the index alone
+create index if not exists idx_bookings_tour_status on bookings (tour_id, payment_status);
+create index if not exists idx_bookings_user_status on bookings (user_id, payment_status);
+create index if not exists idx_bookings_group on bookings (group_id);
+-- Date-range reports and the export cursor, which orders by (booking_date, id)
+create index if not exists idx_bookings_booking_date on bookings (booking_date, id);
+-- Keyset pages, newest first
+create index if not exists idx_bookings_created on bookings (created_at, id);
+create index if not exists idx_bookings_payment_status on bookings (payment_status);
+
+-- Webhook events look payments up by the processor's id
+create index if not exists idx_payments_processor_payment_id on payments (processor_payment_id);
+create index if not exists idx_payments_booking on payments (booking_id);
+create index if not exists idx_payments_created on payments (created_at, id);
+-- Recovery of operations left in flight
+create index if not exists idx_payments_operation_started on payments (operation_started_at);
+
+create index if not exists idx_group_members_group on group_members (group_id);
+create index if not exists idx_group_members_user on group_members (user_id);
+
+create index if not exists idx_groups_leader on groups (leader_id);
+create index if not exists idx_groups_tour on groups (tour_id);
+
+create index if not exists idx_reviews_tour on reviews (tour_id);
+create index if not exists idx_reviews_user on reviews (user_id);
+
+create index if not exists idx_volunteer_opportunities_tour on volunteer_opportunities (tour_id);
+create index if not exists idx_volunteer_opportunities_start_date on volunteer_opportunities (start_date, id);
+
+create index if not exists idx_tours_location on tours (location);
+create index if not exists idx_users_role on users (role);
@@ -0,0 +1,5 @@
+-- Reviews and volunteer opportunities get the updated_at column the other catalogue tables have,
+-- so conditional GETs can tell whether a listing changed without loading it. Existing rows take
+-- the migration time.
+alter table reviews add column updated_at timestamp(6) default localtimestamp not null;
+alter table volunteer_opportunities add column updated_at timestamp(6) default localtimestamp not null;
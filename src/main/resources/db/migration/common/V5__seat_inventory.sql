@@ -0,0 +1,27 @@
+-- Seat inventory: a departure is one tour on one date with a seat capacity. Only departures an
+-- operator gave a capacity are controlled; bookings for any other date are taken as before.
+-- reserved may exceed capacity: reconciliation counts bookings made outside the inventory
+-- (bulk imports, bookings older than the departure row) rather than dropping them.
+create table departures (
+    id             bigint generated by default as identity primary key,
+    tour_id        bigint not null constraint fk_departures_tour references tours,
+    departure_date date not null,
+    capacity       integer not null check (capacity >= 0),
+    reserved       integer not null check (reserved >= 0),
+    updated_at     timestamp(6) not null,
+    constraint uk_departures_tour_date unique (tour_id, departure_date)
+);
+
+-- Reconciliation walks upcoming departures in id order
+create index if not exists idx_departures_date on departures (departure_date, id);
+
+-- One row per booking holding seats. No foreign keys, as with tour_ratings: reconciliation
+-- removes reservations whose booking is gone or no longer travels on that departure.
+create table seat_reservations (
+    booking_id   bigint primary key,
+    departure_id bigint not null,
+    seats        integer not null check (seats > 0),
+    created_at   timestamp(6) not null
+);
+
+create index if not exists idx_seat_reservations_departure on seat_reservations (departure_id);
@@ -0,0 +1,22 @@
+-- A departure's capacity is split over seat buckets, each taken with its own conditional update,
+-- so bookings racing for one departure spread over several rows instead of queueing on the
+-- departures row until their transactions commit. Bucket capacities add up to the departure's.
+-- Ids from a pooled sequence, so a departure's buckets are inserted in one JDBC batch
+create sequence departure_buckets_seq start with 1 increment by 50;
+
+create table departure_buckets (
+    id           bigint default nextval('departure_buckets_seq') primary key,
+    departure_id bigint not null constraint fk_departure_buckets_departure references departures,
+    bucket       integer not null,
+    capacity     integer not null check (capacity >= 0),
+    reserved     integer not null check (reserved >= 0),
+    constraint uk_departure_buckets_departure_bucket unique (departure_id, bucket)
+);
+
+-- Existing departures keep their counts in a single bucket until their capacity is next set
+insert into departure_buckets (departure_id, bucket, capacity, reserved)
+select id, 0, capacity, reserved from departures;
+
+alter table departures drop column reserved;
+
+alter table seat_reservations add column bucket integer default 0 not null;
@@ -0,0 +1,17 @@
+-- Bookings, group members and tours draw ids from pooled sequences (allocation size 50) instead
+-- of IDENTITY columns, so Hibernate can batch their inserts. Databases ddl-auto created before that
+-- change still have the IDENTITY columns; on ones V1 created this only moves the sequences forward.
+-- Each nextval hands the application a block of 50 ids ending at the returned value; plain SQL
+-- inserts through the column default use the returned value itself, so the two never collide.
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['bookings', 'group_members', 'tours'] LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('SELECT setval(%L, GREATEST((SELECT COALESCE(MAX(id), 0) FROM %I), (SELECT last_value FROM %I)) + 50, false)',
+                       t || '_seq', t, t || '_seq');
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, t || '_seq');
+    END LOOP;
+END $$;
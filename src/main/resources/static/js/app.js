@@ -127,6 +127,11 @@ const Register = {
 };
 
 const TourList = {
+  data() {
+    return {
+      loadingMore: false
+    };
+  },
   template: `
     <div class="tour-list">
       <h1>Available Tours</h1>
@@ -139,12 +144,16 @@ const TourList = {
           <router-link :to="'/tours/' + tour.id" class="btn btn-secondary">View Details</router-link>
         </div>
       </div>
+      <button v-if="hasMore" class="btn btn-secondary" :disabled="loadingMore" @click="loadMore">Load more tours</button>
     </div>
   `,
   computed: {
     tours() {
       return this.$store.state.tours;
     },
+    hasMore() {
+      return !!this.$store.state.toursCursor;
+    },
     loading() {
       return this.$store.state.loading;
     },
@@ -154,6 +163,16 @@ const TourList = {
   },
   created() {
     this.$store.dispatch('fetchTours');
+  },
+  methods: {
+    async loadMore() {
+      this.loadingMore = true;
+      try {
+        await this.$store.dispatch('fetchTours', { more: true });
+      } finally {
+        this.loadingMore = false;
+      }
+    }
   }
 };
 
@@ -243,6 +262,8 @@ const store = new Vuex.Store({
     user: null,
     token: localStorage.getItem('token') || '',
     tours: [],
+    // Where the next page of tours starts; null once the last page is in
+    toursCursor: null,
     bookings: [],
     loading: false,
     error: null,
@@ -268,6 +289,12 @@ const store = new Vuex.Store({
     setTours(state, tours) {
       state.tours = tours;
     },
+    appendTours(state, tours) {
+      state.tours = state.tours.concat(tours);
+    },
+    setToursCursor(state, cursor) {
+      state.toursCursor = cursor;
+    },
     setBookings(state, bookings) {
       state.bookings = bookings;
     },
@@ -360,12 +387,20 @@ const store = new Vuex.Store({
       router.push('/');
     },
 
-    async fetchTours({ commit, state }) {
-      commit('setLoading', true);
+    // The API pages tours; with { more: true } the next page is appended after those loaded
+    async fetchTours({ commit, state }, { more = false } = {}) {
+      if (more && !state.toursCursor) {
+        return;
+      }
+      // Loading more keeps the tours already shown on screen
+      if (!more) {
+        commit('setLoading', true);
+      }
       commit('setError', null);
 
       try {
-        const response = await fetch('/api/v1/tours', {
+        const url = more ? `/api/v1/tours?cursor=${encodeURIComponent(state.toursCursor)}` : '/api/v1/tours';
+        const response = await fetch(url, {
           headers: {
             'Authorization': state.token ? `Bearer ${state.token}` : '',
             'Accept': 'application/json'
@@ -373,6 +408,7 @@ const store = new Vuex.Store({
         });
 
         if (!response.ok) {
+          commit('setToursCursor', null);
           // For demo purposes, return mock data if API fails
           commit('setTours', [
             { id: 1, tourName: 'Eco Safari Adventure', description: 'Experience wildlife conservation in action' },
@@ -383,8 +419,11 @@ const store = new Vuex.Store({
         }
 
         const data = await response.json();
-        commit('setTours', data);
+        commit(more ? 'appendTours' : 'setTours', data);
+        // Absent on the last page
+        commit('setToursCursor', response.headers.get('X-Next-Cursor'));
       } catch (error) {
+        commit('setToursCursor', null);
         commit('setError', error.message);
         // For demo purposes, return mock data if API fails
         commit('setTours', [
@@ -393,7 +432,9 @@ const store = new Vuex.Store({
           { id: 3, tourName: 'Mountain Village Stay', description: 'Authentic cultural immersion in remote villages' }
         ]);
       } finally {
-        commit('setLoading', false);
+        if (!more) {
+          commit('setLoading', false);
+        }
       }
     }
   }
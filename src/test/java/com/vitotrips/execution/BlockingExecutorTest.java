@@ -0,0 +1,68 @@
+package com.vitotrips.execution;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Saturating one subsystem's scheduler sheds its own work with 503 and leaves the others alone.
+ */
+class BlockingExecutorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final BlockingExecutor blockingExecutor = new BlockingExecutor(new MockEnvironment()
+            .withProperty("vitotrips.blocking.bookings.max-concurrency", "1")
+            .withProperty("vitotrips.blocking.bookings.max-queued", "1"),
+            new SimpleMeterRegistry());
+
+    private final CountDownLatch stuck = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        stuck.countDown();
+        blockingExecutor.shutdown();
+    }
+
+    @Test
+    void saturatedSubsystemRejectsWhileOthersRun() throws Exception {
+        BoundedVirtualThreadExecutor bookings = blockingExecutor.executor(Subsystem.BOOKINGS);
+        // One booking task holds the only permit, a second waits for it
+        CompletableFuture<String> running = blockingExecutor.call(Subsystem.BOOKINGS, () -> {
+            stuck.await();
+            return "ran";
+        }).toFuture();
+        until(() -> bookings.getActive() == 1);
+        CompletableFuture<String> waiting = blockingExecutor.call(Subsystem.BOOKINGS, () -> "waited").toFuture();
+        until(() -> bookings.getQueued() == 1);
+
+        assertThatThrownBy(() -> blockingExecutor.call(Subsystem.BOOKINGS, () -> "shed").block(TIMEOUT))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(blockingExecutor.call(Subsystem.TOURS, () -> "tours").block(TIMEOUT)).isEqualTo("tours");
+
+        stuck.countDown();
+        assertThat(running.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isEqualTo("ran");
+        assertThat(waiting.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isEqualTo("waited");
+    }
+
+    private static void until(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waited %s", TIMEOUT).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.vitotrips.execution;
+
+import com.vitotrips.repository.TourRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repositories refuse to run on Reactor's non-blocking threads, where the event loops live, and
+ * run as usual through {@link BlockingExecutor}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RepositoryThreadGuardTest {
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private BlockingExecutor blockingExecutor;
+
+    @Test
+    void repositoryCallOnNonBlockingThreadFails() {
+        StepVerifier.create(Mono.fromCallable(tourRepository::count).subscribeOn(Schedulers.parallel()))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessageStartingWith("Blocking repository call TourRepository.count() on non-blocking thread 'parallel-"))
+                .verify();
+    }
+
+    @Test
+    void repositoryCallThroughBlockingExecutorRuns() {
+        StepVerifier.create(blockingExecutor.call(Subsystem.TOURS, tourRepository::count))
+                .assertNext(count -> assertThat(count).isNotNegative())
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,39 @@
+package com.vitotrips.importer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvFieldsTest {
+
+    @Test
+    void splitsPlainFields() {
+        assertThat(CsvFields.split("Inca Trail,Cusco,Four days")).containsExactly("Inca Trail", "Cusco", "Four days");
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertThat(CsvFields.split("a,,c,")).containsExactly("a", "", "c", "");
+        assertThat(CsvFields.split("")).containsExactly("");
+    }
+
+    @Test
+    void unquotesFields() {
+        assertThat(CsvFields.split("\"Lima, Peru\",\"two\nlines\",plain"))
+                .containsExactly("Lima, Peru", "two\nlines", "plain");
+    }
+
+    @Test
+    void doubledQuotesInsideQuotesAreLiteral() {
+        assertThat(CsvFields.split("\"say \"\"hi\"\"\",\"\"\"\",\"\""))
+                .containsExactly("say \"hi\"", "\"", "");
+    }
+
+    @Test
+    void refusesUnterminatedQuote() {
+        assertThatThrownBy(() -> CsvFields.split("a,\"open"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated quoted field");
+    }
+}
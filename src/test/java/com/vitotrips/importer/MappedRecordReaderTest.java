@@ -0,0 +1,100 @@
+package com.vitotrips.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Record boundaries of {@link MappedRecordReader}, read through windows of a few bytes so that
+ * records cross them.
+ */
+class MappedRecordReaderTest {
+
+    private static final int WINDOW = 24;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRecordsSpanningWindows() throws IOException {
+        Path file = write("alpha\nbravo charlie\ndelta echo foxtrot\n\ngolf\nhotel india juliett\n");
+
+        assertThat(readAll(file, false)).containsExactly(
+                "alpha", "bravo charlie", "delta echo foxtrot", "", "golf", "hotel india juliett");
+    }
+
+    @Test
+    void readsLastRecordWithoutNewline() throws IOException {
+        Path file = write("alpha\nbravo charlie\ndelta");
+
+        assertThat(readAll(file, false)).containsExactly("alpha", "bravo charlie", "delta");
+    }
+
+    @Test
+    void dropsTheCarriageReturnOfCrlf() throws IOException {
+        Path file = write("tour_name,location\r\nInca Trail,Cusco\r\nColca Canyon,Arequipa\r\n");
+
+        assertThat(readAll(file, true)).containsExactly("tour_name,location", "Inca Trail,Cusco", "Colca Canyon,Arequipa");
+    }
+
+    @Test
+    void keepsNewlinesInsideQuotedFields() throws IOException {
+        Path file = write("a,\"two\nlines\"\n\"say \"\"hi\"\"\",b\nc,d\n");
+
+        List<String> records = readAll(file, true);
+
+        assertThat(records).containsExactly("a,\"two\nlines\"", "\"say \"\"hi\"\"\",b", "c,d");
+        assertThat(CsvFields.split(records.get(0))).containsExactly("a", "two\nlines");
+        assertThat(CsvFields.split(records.get(1))).containsExactly("say \"hi\"", "b");
+    }
+
+    @Test
+    void quotesEndRecordsWhenNotQuoteAware() throws IOException {
+        Path file = write("{\"a\":\"x\ny\"}\n");
+
+        assertThat(readAll(file, false)).containsExactly("{\"a\":\"x", "y\"}");
+    }
+
+    @Test
+    void refusesRecordLongerThanTheWindow() throws IOException {
+        Path file = write("short\nthis record does not fit the window\nshort\n");
+
+        try (MappedRecordReader reader = new MappedRecordReader(file, false, WINDOW)) {
+            assertThat(reader.next()).isEqualTo("short");
+            assertThat(reader.recordNumber()).isEqualTo(1);
+            assertThatThrownBy(reader::next)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Record 2 is longer than 24 bytes");
+        }
+    }
+
+    @Test
+    void readsAnEmptyFile() throws IOException {
+        assertThat(readAll(write(""), true)).isEmpty();
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("feed.txt"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> readAll(Path file, boolean quoteAware) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (MappedRecordReader reader = new MappedRecordReader(file, quoteAware, WINDOW)) {
+            String record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+            assertThat(reader.position()).isEqualTo(reader.size());
+        }
+        return records;
+    }
+}
@@ -0,0 +1,134 @@
+package com.vitotrips.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vitotrips.DTO.TourImportReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batching of {@link TourCatalogueImporter} against a stubbed database: the upsert itself is
+ * Postgres only. A batch the database rejects is written again row by row, and only the rows that
+ * fail on their own are reported.
+ */
+class TourCatalogueImporterTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    @TempDir
+    Path directory;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    // Tour names in the order their upserts succeeded
+    private final List<String> stored = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @Test
+    void rejectedBatchIsRetriedRowByRow() throws IOException {
+        stubDatabase();
+        Path feed = write("""
+                tour_name,location,description
+                Inca Trail,Cusco,Four days on foot
+                Colca Canyon,Arequipa,Condors
+                Broken tour,Puno,The database refuses this one
+                Lake Titicaca,Puno,"Floating islands, by boat"
+                ,Lima,No name
+                Nazca Lines,Ica,
+                """);
+
+        TourImportReport report = importer().importTours(feed, ImportFormat.CSV);
+
+        assertThat(report.rowsRead()).isEqualTo(6);
+        assertThat(report.upserted()).isEqualTo(4);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.errors()).hasSize(2);
+        assertThat(report.errors().get(0)).startsWith("line 4: ").contains("refused");
+        assertThat(report.errors().get(1)).startsWith("line 6: tourName");
+        // First batch of three fails and goes again one row at a time; the second batch of the
+        // two remaining valid rows goes through whole
+        assertThat(batchSizes).containsExactly(3, 1, 1, 1, 2);
+        assertThat(stored).containsExactly("Inca Trail", "Colca Canyon", "Lake Titicaca", "Nazca Lines");
+        // The failed batch and the failed row each rolled back
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void batchesWithoutFailuresAreWrittenWhole() throws IOException {
+        stubDatabase();
+        Path feed = write("""
+                {"tourName":"Inca Trail","location":"Cusco"}
+                {"tourName":"Colca Canyon","location":"Arequipa"}
+
+                {"tourName":"Inca Trail","location":"Cusco","description":"Listed twice, the last entry wins"}
+                {"tourName":"Nazca Lines","location":"Ica"}
+                {"tourName":"Lake Titicaca","location":"Puno"}
+                """);
+
+        TourImportReport report = importer().importTours(feed, ImportFormat.NDJSON);
+
+        assertThat(report.rowsRead()).isEqualTo(5);
+        assertThat(report.upserted()).isEqualTo(4);
+        assertThat(report.rejected()).isZero();
+        assertThat(batchSizes).containsExactly(3, 1);
+        assertThat(stored).containsExactly("Inca Trail", "Colca Canyon", "Nazca Lines", "Lake Titicaca");
+    }
+
+    private TourCatalogueImporter importer() {
+        return new TourCatalogueImporter(jdbcTemplate, transactionManager, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ConcurrentMapCacheManager(),
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), BATCH_SIZE, Duration.ofMinutes(1));
+    }
+
+    // Id blocks come from a counter; any batch holding "Broken tour" fails as a whole
+    private void stubDatabase() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        AtomicLong sequence = new AtomicLong();
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyInt())).thenAnswer(invocation -> {
+            int blocks = invocation.getArgument(2);
+            return LongStream.range(0, blocks).mapToObj(block -> sequence.addAndGet(50)).toList();
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batchSizes.add(rows.size());
+            List<String> names = rows.stream().map(row -> (String) row[1]).toList();
+            if (names.contains("Broken tour")) {
+                throw new DataIntegrityViolationException("Tour row refused");
+            }
+            stored.addAll(names);
+            return new int[rows.size()];
+        });
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("catalogue.txt"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,204 @@
+package com.vitotrips.persistence;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explain-plan check of the index set in {@code db/migration}: every query method declared on a
+ * JPA repository is called once against the migrated schema (H2 in PostgreSQL mode), the SQL it
+ * sends is recorded, and H2's plan for each statement must not scan a table.
+ * <p>
+ * Methods without a filter argument read the whole table, or the top of it, by design and are
+ * exempt, as are the few in {@link #SCANS_ALLOWED} whose predicate no B-tree index can serve.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.vitotrips.persistence.RepositoryIndexUsageTest$RecordingInspector")
+@ActiveProfiles("test")
+class RepositoryIndexUsageTest {
+
+    private static final Map<String, String> SCANS_ALLOWED = Map.of(
+            "GroupRepository.findByGroupNameContaining", "infix LIKE, no B-tree index applies",
+            "BookingRepository.findByBookingType", "three booking types, an index would not be selective");
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* ([\\w.\"]+)\\.tableScan");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestFactory
+    Stream<DynamicTest> everyRepositoryQueryUsesAnIndex() {
+        Repositories repositories = new Repositories(applicationContext);
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            Class<?> repositoryInterface = information.getRepositoryInterface();
+            Arrays.stream(repositoryInterface.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                    .sorted(Comparator.comparing(Method::getName))
+                    .forEach(method -> {
+                        String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                        tests.add(DynamicTest.dynamicTest(name, () -> checkPlans(name, repository, method)));
+                    });
+        }
+        return tests.stream();
+    }
+
+    private void checkPlans(String name, Object repository, Method method) {
+        List<String> statements = record(repository, method);
+        assertThat(statements).as("SQL sent by %s", name).isNotEmpty();
+        if (!hasFilterArgument(method) || SCANS_ALLOWED.containsKey(name)) {
+            return;
+        }
+        for (String sql : statements) {
+            String plan = explain(sql);
+            Matcher scan = TABLE_SCAN.matcher(plan);
+            boolean scans = scan.find();
+            assertThat(scans).as("%s scans %s:%n%s", name, scans ? scan.group(1) : "", plan).isFalse();
+        }
+    }
+
+    // Calls the method in a transaction that is rolled back, returning the statements it sent
+    private List<String> record(Object repository, Method method) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            List<String> statements = new ArrayList<>();
+            RecordingInspector.STATEMENTS.set(statements);
+            try {
+                Object result = method.invoke(repository, arguments(method));
+                if (result instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.forEach(row -> {
+                        });
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                RecordingInspector.STATEMENTS.remove();
+            }
+            return statements;
+        });
+    }
+
+    // H2 plans at prepare time, so the parameter values do not matter; they only have to be set
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+                int parameters = explain.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    explain.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private static boolean hasFilterArgument(Method method) {
+        return Arrays.stream(method.getParameterTypes()).anyMatch(type -> !Pageable.class.isAssignableFrom(type));
+    }
+
+    private static Object[] arguments(Method method) {
+        Object[] arguments = new Object[method.getParameterCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = sample(ResolvableType.forMethodParameter(method, i));
+        }
+        return arguments;
+    }
+
+    private static Object sample(ResolvableType type) {
+        Class<?> raw = type.toClass();
+        if (raw == Long.class || raw == long.class) {
+            return 1L;
+        }
+        if (raw == Integer.class || raw == int.class) {
+            return 1;
+        }
+        if (raw == String.class) {
+            return "sample";
+        }
+        if (raw == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        }
+        if (Pageable.class.isAssignableFrom(raw)) {
+            return PageRequest.of(0, 20);
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            Object element = sample(type.asCollection().getGeneric(0));
+            return Set.class.isAssignableFrom(raw) ? Set.of(element) : List.of(element);
+        }
+        throw new IllegalArgumentException("No sample argument for " + type);
+    }
+
+    /**
+     * The application's statement inspector, also keeping the statements sent while a list is bound.
+     */
+    public static class RecordingInspector extends StatementCounter {
+
+        static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = STATEMENTS.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return super.inspect(sql);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.vitotrips.persistence;
+
+import com.vitotrips.model.Booking;
+import com.vitotrips.model.Group;
+import com.vitotrips.model.GroupMember;
+import com.vitotrips.model.Review;
+import com.vitotrips.model.Tour;
+import com.vitotrips.model.User;
+import com.vitotrips.model.UserRole;
+import com.vitotrips.model.VolunteerOpportunities;
+import com.vitotrips.repository.BookingRepository;
+import com.vitotrips.repository.GroupMemberRepository;
+import com.vitotrips.repository.GroupRepository;
+import com.vitotrips.repository.ReviewRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.repository.UserRepository;
+import com.vitotrips.repository.VolunteerOpportunitiesRepository;
+import com.vitotrips.service.BookingService;
+import com.vitotrips.service.GroupService;
+import com.vitotrips.service.ReviewService;
+import com.vitotrips.service.VolunteerOpportunitiesService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockUser;
+
+/**
+ * List reads must cost a fixed number of statements however many rows and distinct associations
+ * they return. Endpoints run under the enforced budget of the test profile, and the entity lists
+ * are counted directly with associations touched, as a caller outside the session would.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class StatementBudgetTest {
+
+    // Every list below is a single query; the budget leaves room for nothing per row
+    private static final int MAX_STATEMENTS_PER_LIST = 2;
+    private static final int ROWS = 12;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private VolunteerOpportunitiesService opportunitiesService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private VolunteerOpportunitiesRepository opportunitiesRepository;
+
+    private User leader;
+    private Tour tour;
+    private Group group;
+
+    // Each row gets its own user and tour, so per-row loading would show up as ROWS extra statements
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users = new ArrayList<>();
+        List<Tour> tours = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            users.add(userRepository.save(new User("Traveller " + i, "traveller-" + i + "-" + suffix + "@example.com",
+                    "not-a-real-hash", UserRole.ROLE_TRAVELER)));
+            tours.add(tourRepository.save(new Tour("Budget tour " + i + " " + suffix, "Quito")));
+        }
+        leader = users.get(0);
+        tour = tours.get(0);
+        group = groupRepository.save(new Group("Budget group " + suffix, leader, tour));
+        for (int i = 0; i < ROWS; i++) {
+            User user = users.get(i);
+            Tour rowTour = tours.get(i);
+            groupRepository.save(new Group("Budget group " + i + " " + suffix, leader, rowTour));
+            groupMemberRepository.save(GroupMember.builder().group(group).user(user).build());
+            bookingRepository.save(Booking.builder()
+                    .tour(rowTour)
+                    .user(user)
+                    .group(group)
+                    .totalAmount(new BigDecimal("100.00"))
+                    .paidAmount(BigDecimal.ZERO)
+                    .paymentStatus(Booking.PaymentStatus.PENDING)
+                    .bookingType(Booking.BookingType.GROUP)
+                    .bookingDate(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            reviewRepository.save(new Review(null, "Review " + i, 4, user, tour, null));
+            reviewRepository.save(new Review(null, "Review " + i, 5, leader, rowTour, null));
+            opportunitiesRepository.save(VolunteerOpportunities.builder()
+                    .tour(i % 2 == 0 ? tour : rowTour)
+                    .description("Trail work " + i)
+                    .startDate(now.plusDays(i))
+                    .endDate(now.plusDays(i + 1))
+                    .build());
+        }
+    }
+
+    @Test
+    void entityListsLoadTheirAssociationsInOneStatement() throws Exception {
+        assertThat(statements(() -> bookingService.getAllBookings().stream()
+                .map(booking -> booking.getTour().getTourName() + booking.getUser().getName()
+                        + (booking.getGroup() == null ? "" : booking.getGroup().getGroupName()))
+                .toList())).isEqualTo(1);
+        assertThat(statements(() -> groupService.getAllGroups().stream()
+                .map(row -> row.getLeader().getName() + row.getTour().getTourName())
+                .toList())).isEqualTo(1);
+        assertThat(statements(() -> reviewService.getAllReviews().stream()
+                .map(review -> review.getUser().getName() + review.getTour().getTourName())
+                .toList())).isEqualTo(1);
+        assertThat(statements(() -> opportunitiesService.getAllOpportunities().stream()
+                .map(opportunity -> opportunity.getTour().getTourName())
+                .toList())).isEqualTo(1);
+        assertThat(statements(() -> groupMemberRepository.findByGroup_Id(group.getId()).stream()
+                .map(member -> member.getUser().getName() + member.getGroup().getGroupName())
+                .toList())).isEqualTo(1);
+    }
+
+    @Test
+    void listEndpointsStayWithinTheirStatementBudget() throws InterruptedException {
+        assertWithinBudget("/api/v1/bookings", "/api/v1/bookings");
+        assertWithinBudget("/api/v1/groups", "/api/v1/groups");
+        assertWithinBudget("/api/v1/groups/leader/" + leader.getId(), "/api/v1/groups/leader/{leaderId}");
+        assertWithinBudget("/api/v1/groups/members/" + group.getId(), "/api/v1/groups/members/{groupId}");
+        assertWithinBudget("/api/v1/reviews", "/api/v1/reviews");
+        assertWithinBudget("/api/v1/reviews/tour/" + tour.getId(), "/api/v1/reviews/tour/{tourId}");
+        assertWithinBudget("/api/v1/volunteer-opportunities", "/api/v1/volunteer-opportunities");
+        assertWithinBudget("/api/v1/volunteer-opportunities/tour/" + tour.getId(),
+                "/api/v1/volunteer-opportunities/tour/{tourId}");
+    }
+
+    @Test
+    void statementOverTheBudgetFails() {
+        StatementCounter.Tally tally = new StatementCounter.Tally(1);
+        assertThatThrownBy(() -> StatementCounter.count(tally, () -> {
+            tourRepository.findById(tour.getId());
+            return userRepository.findById(leader.getId());
+        })).satisfies(e -> assertThat(NestedExceptionUtils.getMostSpecificCause(e))
+                .isInstanceOf(StatementBudgetExceededException.class));
+    }
+
+    private int statements(Callable<?> task) throws Exception {
+        StatementCounter.Tally tally = StatementCounter.Tally.unlimited();
+        StatementCounter.count(tally, task);
+        return tally.statements();
+    }
+
+    private void assertWithinBudget(String path, String route) throws InterruptedException {
+        webTestClient.mutateWith(mockUser().roles("ADMIN"))
+                .get().uri(path)
+                .exchange()
+                .expectStatus().isOk();
+        // The filter records once the exchange completes, which can be just after the client has the response
+        DistributionSummary summary = null;
+        for (int attempt = 0; attempt < 50 && summary == null; attempt++) {
+            summary = meterRegistry.find("vitotrips.jpa.statements").tag("method", "GET").tag("uri", route).summary();
+            if (summary == null) {
+                Thread.sleep(100);
+            }
+        }
+        assertThat(summary).as(route).isNotNull();
+        assertThat(summary.max()).as(route).isBetween(1.0, (double) MAX_STATEMENTS_PER_LIST);
+    }
+}
@@ -0,0 +1,96 @@
+package com.vitotrips.security;
+
+import com.vitotrips.DTO.DepartureCapacityRequest;
+import com.vitotrips.model.Tour;
+import com.vitotrips.repository.TourRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockUser;
+
+/**
+ * Role rules of endpoints whose audience is narrower than "any signed-in user".
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class EndpointAuthorizationTest {
+
+    private static final String RANGE = "?startDate=2024-01-01T00:00:00&endDate=2024-02-01T00:00:00";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Test
+    void travelersCannotExportBookingsOrPayments() {
+        for (String path : new String[]{"/api/v1/bookings/export", "/api/v1/payments/export"}) {
+            webTestClient.mutateWith(mockUser().roles("TRAVELER"))
+                    .get().uri(path + RANGE)
+                    .exchange()
+                    .expectStatus().isForbidden();
+            webTestClient.mutateWith(mockUser().roles("TOUR_OPERATOR"))
+                    .get().uri(path + RANGE)
+                    .exchange()
+                    .expectStatus().isForbidden();
+        }
+    }
+
+    @Test
+    void adminsCanExportBookingsAndPayments() {
+        for (String path : new String[]{"/api/v1/bookings/export", "/api/v1/payments/export"}) {
+            webTestClient.mutateWith(mockUser().roles("ADMIN"))
+                    .get().uri(path + RANGE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+    }
+
+    @Test
+    void onlyAdminsSetDepartureCapacity() {
+        LocalDateTime now = LocalDateTime.now();
+        Tour tour = tourRepository.save(Tour.builder()
+                .tourName("Operator tour " + UUID.randomUUID())
+                .location("Puno")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        String departure = "/api/v1/admin/departures/" + tour.getId() + "/" + LocalDate.now().plusDays(30);
+
+        webTestClient.mutateWith(mockUser().roles("ADMIN"))
+                .put().uri(departure)
+                .bodyValue(new DepartureCapacityRequest(12))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.capacity").isEqualTo(12);
+        webTestClient.mutateWith(mockUser().roles("ADMIN"))
+                .get().uri(departure)
+                .exchange()
+                .expectStatus().isOk();
+        for (String role : new String[]{"TOUR_OPERATOR", "TRAVELER"}) {
+            webTestClient.mutateWith(mockUser().roles(role))
+                    .put().uri(departure)
+                    .bodyValue(new DepartureCapacityRequest(500))
+                    .exchange()
+                    .expectStatus().isForbidden();
+            webTestClient.mutateWith(mockUser().roles(role))
+                    .get().uri(departure)
+                    .exchange()
+                    .expectStatus().isForbidden();
+        }
+        webTestClient.mutateWith(mockUser().roles("TOUR_OPERATOR"))
+                .post().uri("/api/v1/admin/departures/reconcile")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,138 @@
+package com.vitotrips.service.impl;
+
+import com.vitotrips.DTO.PaymentProcessorEvent;
+import com.vitotrips.model.Booking;
+import com.vitotrips.model.Payment;
+import com.vitotrips.model.Tour;
+import com.vitotrips.model.User;
+import com.vitotrips.model.UserRole;
+import com.vitotrips.repository.BookingRepository;
+import com.vitotrips.repository.PaymentRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.repository.UserRepository;
+import com.vitotrips.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hundreds of split payments on one booking settling at once, each confirmation delivered twice,
+ * must credit the booking exactly once per payment.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentSettlementConcurrencyTest {
+
+    private static final int PAYMENTS = 200;
+    private static final int THREADS = 32;
+    private static final BigDecimal SHARE = new BigDecimal("12.50");
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Test
+    void concurrentSplitPaymentsAreAllCreditedExactlyOnce() throws Exception {
+        Booking booking = groupBooking(SHARE.multiply(BigDecimal.valueOf(PAYMENTS)));
+        List<String> paymentIntentIds = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            String paymentIntentId = "pi_" + UUID.randomUUID();
+            paymentRepository.save(Payment.builder()
+                    .booking(booking)
+                    .amount(SHARE)
+                    .paymentStatus(Payment.PaymentStatus.PENDING)
+                    .processorPaymentId(paymentIntentId)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+            paymentIntentIds.add(paymentIntentId);
+        }
+
+        // Every confirmation twice, as a webhook retry racing the client callback would deliver it
+        List<String> deliveries = new ArrayList<>(paymentIntentIds);
+        deliveries.addAll(paymentIntentIds);
+        Collections.shuffle(deliveries);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (String paymentIntentId : deliveries) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    paymentService.applyProcessorEvents(List.of(new PaymentProcessorEvent(
+                            "evt_" + UUID.randomUUID(), PaymentProcessorEvent.Type.SUCCEEDED, paymentIntentId, "")));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Booking settled = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(settled.getPaidAmount()).isEqualByComparingTo(booking.getTotalAmount());
+        assertThat(settled.getPaymentStatus()).isEqualTo(Booking.PaymentStatus.CONFIRMED);
+        assertThat(paymentRepository.findByBooking_Id(booking.getId()))
+                .hasSize(PAYMENTS)
+                .allMatch(payment -> payment.getPaymentStatus() == Payment.PaymentStatus.CONFIRMED);
+    }
+
+    private Booking groupBooking(BigDecimal totalAmount) {
+        String suffix = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        User user = userRepository.save(User.builder()
+                .name("Group leader")
+                .email("leader-" + suffix + "@example.com")
+                .passwordHash("not-a-real-hash")
+                .role(UserRole.ROLE_TRAVELER)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        Tour tour = tourRepository.save(Tour.builder()
+                .tourName("Split payment tour " + suffix)
+                .location("Cusco")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        return bookingRepository.save(Booking.builder()
+                .tour(tour)
+                .user(user)
+                .totalAmount(totalAmount)
+                .paidAmount(BigDecimal.ZERO)
+                .paymentStatus(Booking.PaymentStatus.PENDING)
+                .bookingType(Booking.BookingType.GROUP)
+                .bookingDate(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+}
@@ -0,0 +1,205 @@
+package com.vitotrips.service.impl;
+
+import com.vitotrips.model.Booking;
+import com.vitotrips.model.Tour;
+import com.vitotrips.repository.DepartureRepository;
+import com.vitotrips.repository.SeatReservationRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.service.SeatInventoryService;
+import com.vitotrips.service.SoldOutException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the seat inventory on one hot departure, left out of the unit suite; run it with
+ * {@code mvn -Pbenchmark test}. Measures the striped in-memory counter alone, then reserve and
+ * release through {@link SeatInventoryService}, each in its own transaction as a booking would
+ * take them, against the test database. Results are logged; a run fails only when seats are
+ * oversold or the counts disagree with the reservations afterwards.
+ */
+// Printing every statement would measure the console; reconciliation would drop the reservations
+// of the benchmark's unsaved bookings as stale
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "vitotrips.inventory.reconciliation.enabled=false"})
+@ActiveProfiles("test")
+@Tag("benchmark")
+@Slf4j
+class SeatInventoryBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int CAPACITY = 256;
+    private static final int BUCKETS = 16;
+    private static final int COUNTER_OPERATIONS_PER_THREAD = 1_000_000;
+    private static final int SERVICE_OPERATIONS_PER_THREAD = 1_000;
+
+    // Reservations are keyed by booking id; these bookings are never saved
+    private static final AtomicLong BOOKING_IDS = new AtomicLong(1_000_000_000L);
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatReservationRepository seatReservationRepository;
+
+    @Autowired
+    private DepartureRepository departureRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void counter() throws Exception {
+        int[] split = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            split[bucket] = CAPACITY / BUCKETS;
+        }
+        DepartureSeats seats = new DepartureSeats(1L, split);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger oversold = new AtomicInteger();
+
+        long operations = run(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Deque<Integer> mine = new ArrayDeque<>();
+            long done = 0;
+            for (int i = 0; i < COUNTER_OPERATIONS_PER_THREAD; i++, done++) {
+                if (!mine.isEmpty() && random.nextInt(3) == 0) {
+                    held.decrementAndGet();
+                    seats.giveBack(mine.pop(), 1);
+                    continue;
+                }
+                int bucket = seats.tryTake(1);
+                if (bucket >= 0) {
+                    if (held.incrementAndGet() > CAPACITY) {
+                        oversold.incrementAndGet();
+                    }
+                    mine.push(bucket);
+                }
+            }
+            for (; !mine.isEmpty(); done++) {
+                held.decrementAndGet();
+                seats.giveBack(mine.pop(), 1);
+            }
+            return done;
+        }, "counter");
+
+        assertThat(operations).isPositive();
+        assertThat(oversold.get()).isZero();
+        assertThat(seats.available()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void reserveAndReleaseThroughTheDatabase() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Tour tour = tourRepository.save(Tour.builder()
+                .tourName("Benchmark tour " + UUID.randomUUID())
+                .location("Lima")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        LocalDate departureDate = LocalDate.now().plusDays(60);
+        seatInventoryService.setCapacity(tour.getId(), departureDate, CAPACITY);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger oversold = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        long operations = run(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Deque<Long> mine = new ArrayDeque<>();
+            long done = 0;
+            for (int i = 0; i < SERVICE_OPERATIONS_PER_THREAD; i++, done++) {
+                if (!mine.isEmpty() && random.nextInt(3) == 0) {
+                    Long bookingId = mine.pop();
+                    // Lowered before the seat is back on sale, as it is raised only once taken
+                    held.decrementAndGet();
+                    transaction.executeWithoutResult(status -> seatInventoryService.release(bookingId));
+                    continue;
+                }
+                Booking booking = Booking.builder()
+                        .id(BOOKING_IDS.incrementAndGet())
+                        .tour(tour)
+                        .bookingDate(departureDate.atTime(9, 0))
+                        .build();
+                try {
+                    transaction.executeWithoutResult(status -> seatInventoryService.reserve(booking));
+                } catch (SoldOutException e) {
+                    soldOut.incrementAndGet();
+                    continue;
+                }
+                if (held.incrementAndGet() > CAPACITY) {
+                    oversold.incrementAndGet();
+                }
+                mine.push(booking.getId());
+            }
+            for (; !mine.isEmpty(); done++) {
+                Long bookingId = mine.pop();
+                held.decrementAndGet();
+                transaction.executeWithoutResult(status -> seatInventoryService.release(bookingId));
+            }
+            return done;
+        }, "reserve/release transactions");
+        log.info("{} of them found the departure sold out", soldOut.get());
+
+        Long departureId = departureRepository.findByTourIdAndDepartureDate(tour.getId(), departureDate).orElseThrow().getId();
+        assertThat(operations).isPositive();
+        assertThat(oversold.get()).isZero();
+        assertThat(seatReservationRepository.sumSeatsByBucket(departureId)).isEmpty();
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate)).get()
+                .satisfies(departure -> assertThat(departure.reserved()).isZero());
+    }
+
+    // Runs the task on every thread at once; the operations they report, and the rate, are logged
+    private static long run(Callable<Long> task, String what) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        long operations = 0;
+        long startedAt;
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<Long> result : results) {
+                operations += result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        log.info("Seat inventory {}: {} on one departure ({} seats, {} buckets) from {} threads in {} s, {} per second",
+                what, operations, CAPACITY, BUCKETS, THREADS, String.format("%.2f", seconds),
+                String.format("%,d", (long) (operations / seconds)));
+        return operations;
+    }
+}
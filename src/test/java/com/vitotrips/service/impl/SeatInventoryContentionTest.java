@@ -0,0 +1,351 @@
+package com.vitotrips.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.RefundCreateParams;
+import com.vitotrips.DTO.BookingBulkRow;
+import com.vitotrips.DTO.BulkLineResult;
+import com.vitotrips.DTO.DepartureView;
+import com.vitotrips.DTO.PaymentProcessorEvent;
+import com.vitotrips.controller.NdjsonBulkWriter;
+import com.vitotrips.execution.Subsystem;
+import com.vitotrips.model.Booking;
+import com.vitotrips.model.Payment;
+import com.vitotrips.model.Tour;
+import com.vitotrips.model.User;
+import com.vitotrips.model.UserRole;
+import com.vitotrips.repository.BookingRepository;
+import com.vitotrips.repository.PaymentRepository;
+import com.vitotrips.repository.TourRepository;
+import com.vitotrips.repository.UserRepository;
+import com.vitotrips.service.BookingService;
+import com.vitotrips.service.PaymentService;
+import com.vitotrips.service.SeatInventoryService;
+import com.vitotrips.service.SoldOutException;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * Contention test of the seat inventory on one hot departure: its in-memory counter under
+ * reserve/release from many threads, and bookings racing for the last seats through the database.
+ * Neither may ever hand out more seats than the departure has, bulk uploads included, and seats
+ * of refunded bookings go back on sale.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SeatInventoryContentionTest {
+
+    private static final int THREADS = 32;
+    private static final int CAPACITY = 40;
+    private static final int BUCKETS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+    private static final int BOOKING_ATTEMPTS = 300;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private NdjsonBulkWriter bulkWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void hotDepartureCounterSustainsContendedReserveAndRelease() throws Exception {
+        int[] split = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            split[bucket] = CAPACITY / BUCKETS + (bucket < CAPACITY % BUCKETS ? 1 : 0);
+        }
+        DepartureSeats seats = new DepartureSeats(1L, split);
+        // Seats currently held by the threads; taken before it is raised, given back after it is lowered
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger oversold = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    // Buckets of the seats this thread holds
+                    Deque<Integer> mine = new ArrayDeque<>();
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        // Mostly reservations, as in a sale; releases keep seats coming back
+                        if (!mine.isEmpty() && random.nextInt(3) == 0) {
+                            held.decrementAndGet();
+                            seats.giveBack(mine.pop(), 1);
+                            continue;
+                        }
+                        int bucket = seats.tryTake(1);
+                        if (bucket >= 0) {
+                            if (held.incrementAndGet() > CAPACITY) {
+                                oversold.incrementAndGet();
+                            }
+                            mine.push(bucket);
+                        }
+                    }
+                    while (!mine.isEmpty()) {
+                        held.decrementAndGet();
+                        seats.giveBack(mine.pop(), 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(oversold.get()).as("times more seats were held than the departure has").isZero();
+        assertThat(seats.available()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void bookingsRacingForTheLastSeatsNeverOversell() throws Exception {
+        User user = user();
+        Tour tour = tour();
+        LocalDate departureDate = LocalDate.now().plusDays(30);
+        seatInventoryService.setCapacity(tour.getId(), departureDate, CAPACITY);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < BOOKING_ATTEMPTS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        bookingService.createBooking(booking(tour, user, departureDate));
+                        booked.incrementAndGet();
+                    } catch (SoldOutException e) {
+                        soldOut.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(booked.get()).isEqualTo(CAPACITY);
+        assertThat(soldOut.get()).isEqualTo(BOOKING_ATTEMPTS - CAPACITY);
+        assertThat(bookingRepository.findByTourId(tour.getId())).hasSize(CAPACITY);
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate))
+                .get().extracting(DepartureView::reserved, DepartureView::available).containsExactly(CAPACITY, 0);
+
+        // A cancellation frees exactly one seat, and the counts still agree with the bookings
+        Long cancelled = bookingRepository.findByTourId(tour.getId()).get(0).getId();
+        bookingService.deleteBooking(cancelled);
+        bookingService.createBooking(booking(tour, user, departureDate));
+        try {
+            bookingService.createBooking(booking(tour, user, departureDate));
+        } catch (SoldOutException e) {
+            soldOut.incrementAndGet();
+        }
+        assertThat(soldOut.get()).isEqualTo(BOOKING_ATTEMPTS - CAPACITY + 1);
+        assertThat(seatInventoryService.reconcile()).isZero();
+    }
+
+    @Test
+    void refundGivesTheSeatBack() throws Exception {
+        User user = user();
+        Tour tour = tour();
+        LocalDate departureDate = LocalDate.now().plusDays(30);
+        seatInventoryService.setCapacity(tour.getId(), departureDate, 1);
+        Booking booking = bookingService.createBooking(booking(tour, user, departureDate));
+        assertThatThrownBy(() -> bookingService.createBooking(booking(tour, user, departureDate)))
+                .isInstanceOf(SoldOutException.class);
+        Payment payment = payment(booking, booking.getTotalAmount(), Payment.PaymentStatus.CONFIRMED);
+
+        refund(payment);
+
+        assertThat(bookingRepository.findById(booking.getId())).get()
+                .extracting(Booking::getPaymentStatus).isEqualTo(Booking.PaymentStatus.REFUNDED);
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate))
+                .get().extracting(DepartureView::reserved, DepartureView::available).containsExactly(0, 1);
+        bookingService.createBooking(booking(tour, user, departureDate));
+        assertThat(seatInventoryService.reconcile()).isZero();
+    }
+
+    @Test
+    void refundOfOneSplitPaymentKeepsTheSeat() throws Exception {
+        User user = user();
+        Tour tour = tour();
+        LocalDate departureDate = LocalDate.now().plusDays(30);
+        seatInventoryService.setCapacity(tour.getId(), departureDate, 1);
+        Booking paid = booking(tour, user, departureDate);
+        paid.setPaidAmount(paid.getTotalAmount());
+        paid.setPaymentStatus(Booking.PaymentStatus.CONFIRMED);
+        Booking booking = bookingService.createBooking(paid);
+        BigDecimal half = booking.getTotalAmount().divide(BigDecimal.valueOf(2));
+        Payment first = payment(booking, half, Payment.PaymentStatus.CONFIRMED);
+        Payment second = payment(booking, half, Payment.PaymentStatus.CONFIRMED);
+
+        refund(first);
+
+        assertThat(bookingRepository.findById(booking.getId())).get()
+                .extracting(Booking::getPaymentStatus).isEqualTo(Booking.PaymentStatus.PENDING);
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate))
+                .get().extracting(DepartureView::reserved, DepartureView::available).containsExactly(1, 0);
+        assertThatThrownBy(() -> bookingService.createBooking(booking(tour, user, departureDate)))
+                .isInstanceOf(SoldOutException.class);
+
+        refund(second);
+
+        assertThat(bookingRepository.findById(booking.getId())).get()
+                .extracting(Booking::getPaymentStatus).isEqualTo(Booking.PaymentStatus.REFUNDED);
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate))
+                .get().extracting(DepartureView::reserved, DepartureView::available).containsExactly(0, 1);
+
+        // Paid again after the full refund: the booking takes its seat back
+        Payment again = payment(booking, booking.getTotalAmount(), Payment.PaymentStatus.PENDING);
+        paymentService.applyProcessorEvents(List.of(new PaymentProcessorEvent("evt_" + UUID.randomUUID(),
+                PaymentProcessorEvent.Type.SUCCEEDED, again.getProcessorPaymentId(), null)));
+
+        assertThat(bookingRepository.findById(booking.getId())).get()
+                .extracting(Booking::getPaymentStatus).isEqualTo(Booking.PaymentStatus.CONFIRMED);
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate))
+                .get().extracting(DepartureView::reserved, DepartureView::available).containsExactly(1, 0);
+        assertThat(seatInventoryService.reconcile()).isZero();
+    }
+
+    @Test
+    void bulkBookingsPastCapacityFailLineByLine() throws Exception {
+        User user = user();
+        Tour tour = tour();
+        LocalDate departureDate = LocalDate.now().plusDays(30);
+        seatInventoryService.setCapacity(tour.getId(), departureDate, 2);
+        StringBuilder upload = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            upload.append(objectMapper.writeValueAsString(new BookingBulkRow(tour.getId(), user.getId(), null,
+                    new BigDecimal("250.00"), null, false, null, departureDate.atTime(9, 0), null,
+                    Booking.BookingType.INDIVIDUAL))).append('\n');
+        }
+        Flux<DataBuffer> body = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(upload.toString().getBytes(StandardCharsets.UTF_8)));
+
+        List<BulkLineResult> results = bulkWriter.write(body, BookingBulkRow.class, Subsystem.BOOKINGS, bookingService::createBookings)
+                .collectList().block();
+
+        assertThat(results).extracting(BulkLineResult::status)
+                .containsExactly(BulkLineResult.Status.CREATED, BulkLineResult.Status.CREATED, BulkLineResult.Status.FAILED);
+        assertThat(results.get(2).error()).contains("no seats left");
+        assertThat(bookingRepository.findByTourId(tour.getId())).hasSize(2);
+        assertThat(seatInventoryService.getDeparture(tour.getId(), departureDate))
+                .get().extracting(DepartureView::reserved, DepartureView::available).containsExactly(2, 0);
+        assertThat(seatInventoryService.reconcile()).isZero();
+    }
+
+    private Payment payment(Booking booking, BigDecimal amount, Payment.PaymentStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        return paymentRepository.save(Payment.builder()
+                .booking(booking)
+                .amount(amount)
+                .paymentStatus(status)
+                .processorPaymentId("pi_" + UUID.randomUUID())
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private void refund(Payment payment) throws Exception {
+        try (MockedStatic<Refund> refunds = mockStatic(Refund.class)) {
+            refunds.when(() -> Refund.create(any(RefundCreateParams.class), any(RequestOptions.class)))
+                    .thenReturn(new Refund());
+            paymentService.refundPayment(payment.getId());
+        }
+    }
+
+    private User user() {
+        LocalDateTime now = LocalDateTime.now();
+        return userRepository.save(User.builder()
+                .name("Flash sale traveller")
+                .email("traveller-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("not-a-real-hash")
+                .role(UserRole.ROLE_TRAVELER)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private Tour tour() {
+        LocalDateTime now = LocalDateTime.now();
+        return tourRepository.save(Tour.builder()
+                .tourName("Flash sale tour " + UUID.randomUUID())
+                .location("Arequipa")
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private static Booking booking(Tour tour, User user, LocalDate departureDate) {
+        LocalDateTime now = LocalDateTime.now();
+        return Booking.builder()
+                .tour(tour)
+                .user(user)
+                .totalAmount(new BigDecimal("250.00"))
+                .paidAmount(BigDecimal.ZERO)
+                .paymentStatus(Booking.PaymentStatus.PENDING)
+                .bookingType(Booking.BookingType.INDIVIDUAL)
+                .bookingDate(departureDate.atTime(9, 0))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
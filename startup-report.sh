@@ -0,0 +1,68 @@
+#!/bin/bash
+
+# Compares startup time and peak RSS of the fast-startup build against a plain jar.
+# Each run refreshes the application context and exits (spring.context.exit=onRefresh), so no
+# database, Redis or open port is needed; the numbers cover JVM start up to a refreshed context.
+#
+#   mvn -Pfast-startup package -DskipTests
+#   ./startup-report.sh [baseline jar] [runs]
+#
+# Linux only: peak RSS is read from /proc/<pid>/status (VmHWM).
+
+BASELINE=${1:-target/Vito-Trips-0.0.1-SNAPSHOT.jar}
+RUNS=${2:-5}
+FAST_DIR=target/fast-startup
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+# Same overrides as the CDS training run in pom.xml
+APP_ARGS=(--vitotrips.startup.training-run=true
+          --spring.jpa.hibernate.ddl-auto=none
+          --spring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false
+          --stripe.api.key=sk_test_training)
+
+if [ ! -f "$BASELINE" ] || [ ! -f "$FAST_DIR/app.jsa" ]; then
+    echo "Build first: mvn -Pfast-startup package -DskipTests" >&2
+    exit 1
+fi
+FAST_JAR=$(ls "$FAST_DIR"/*-fast-startup.jar)
+
+# Runs the command once from the given directory and prints "<wall ms> <peak RSS KiB>"
+measure() {
+    local dir=$1
+    shift
+    local start end hwm=0 line
+    start=$(date +%s%N)
+    (cd "$dir" && exec "$@" > /dev/null 2>&1) &
+    local pid=$!
+    while kill -0 "$pid" 2> /dev/null; do
+        line=$(grep VmHWM "/proc/$pid/status" 2> /dev/null)
+        [ -n "$line" ] && hwm=$(echo "$line" | awk '{print $2}')
+        sleep 0.02
+    done
+    wait "$pid"
+    end=$(date +%s%N)
+    echo "$(( (end - start) / 1000000 )) $hwm"
+}
+
+report() {
+    local name=$1
+    shift
+    local total_ms=0 total_kb=0 best_ms=0 i ms kb
+    for ((i = 1; i <= RUNS; i++)); do
+        read -r ms kb < <(measure "$@")
+        total_ms=$((total_ms + ms))
+        total_kb=$((total_kb + kb))
+        if [ "$best_ms" -eq 0 ] || [ "$ms" -lt "$best_ms" ]; then
+            best_ms=$ms
+        fi
+    done
+    printf "%-14s %10d %10d %14d\n" "$name" $((total_ms / RUNS)) "$best_ms" $((total_kb / RUNS / 1024))
+}
+
+echo "$RUNS runs each, JVM start to refreshed context"
+printf "%-14s %10s %10s %14s\n" "build" "mean ms" "best ms" "peak RSS MiB"
+# Without AOT the property still switches Flyway off, which jars predating training-run need
+report "baseline" . "$JAVA" -Dspring.context.exit=onRefresh -jar "$BASELINE" "${APP_ARGS[@]}" \
+    --spring.flyway.enabled=false
+report "fast-startup" "$FAST_DIR" "$JAVA" -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -jar "$(basename "$FAST_JAR")" "${APP_ARGS[@]}"